@@ -0,0 +1,385 @@
+package com.ecommerce.orderservice.audit;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Corruption-evident journal of order mutations, kept in memory-mapped segment files outside the
+// database. Every record carries a CRC32C over its contents and the previous record's CRC, and
+// every segment header carries the CRC it continues from, so a torn, bit-flipped, lost or
+// reordered record breaks the chain for everything after it. CRC32C is not keyed: anyone who can
+// write the files can recompute the chain, so it does not prove the journal was not edited on
+// purpose. An append is a copy into the mapping; a
+// flusher thread forces whatever was appended since its last pass in one msync, so a crash of
+// the machine loses at most the last flush-interval of records and a crash of the process none.
+// The time of the earliest append that was lost, if any, is kept in a gap-since file next to
+// the segments until AuditReconciler has filled it in.
+//
+// Segment: [int magic][long first sequence][int previous CRC] then records of
+// [int length][int crc][long sequence][long epoch millis][type][long orderId][long userId][status]
+// with type and status as a byte length plus ASCII. A zero length marks the end.
+@Component
+public class AuditJournal implements AutoCloseable {
+
+    static final int MAGIC = 0x4F41554A;
+    static final int SEGMENT_HEADER_BYTES = 16;
+    static final int RECORD_HEADER_BYTES = 8;
+    static final int MIN_RECORD_BYTES = RECORD_HEADER_BYTES + 8 + 8 + 1 + 8 + 8 + 1;
+    static final int MAX_RECORD_BYTES = 128;
+    static final long NO_USER = Long.MIN_VALUE;
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String GAP_FILE = "gap-since";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FileChannel lockChannel;
+    private final FileLock directoryLock;
+    private final ScheduledExecutorService flusher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_RECORD_BYTES);
+    private final CRC32C crc = new CRC32C();
+    private Segment active;
+    private long nextSequence;
+    private int lastCrc;
+    private boolean closed;
+
+    public AuditJournal(@Value("${orders.audit.directory:${java.io.tmpdir}/order-service-audit}") Path directory,
+                        @Value("${orders.audit.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${orders.audit.flush-interval:PT0.01S}") Duration flushInterval) {
+        if (segmentSize.toBytes() < SEGMENT_HEADER_BYTES + MAX_RECORD_BYTES || segmentSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("orders.audit.segment-size must be between "
+                + (SEGMENT_HEADER_BYTES + MAX_RECORD_BYTES) + " bytes and 2GB");
+        }
+        this.directory = directory;
+        this.segmentSize = (int) segmentSize.toBytes();
+        try {
+            Files.createDirectories(directory);
+            lockChannel = FileChannel.open(directory.resolve("journal.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            directoryLock = tryLock(lockChannel);
+            if (directoryLock == null) {
+                lockChannel.close();
+                throw new IllegalStateException("Audit journal " + directory + " is in use by another process");
+            }
+            List<Path> segments = segments(directory);
+            if (segments.isEmpty()) {
+                nextSequence = 1;
+                active = createSegment(1, 0);
+            } else {
+                recover(segments.get(segments.size() - 1));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open audit journal " + directory, e);
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("audit-flush").daemon().factory());
+        flusher.scheduleWithFixedDelay(this::flush, flushInterval.toNanos(), flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    // Returns the record's sequence. The record is readable at once and on disk after the next flush.
+    public long append(OrderEvent.Type type, long orderId, Long userId, Order.OrderStatus status) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Audit journal is closed");
+            }
+            long sequence = nextSequence;
+            scratch.clear();
+            scratch.putLong(sequence).putLong(System.currentTimeMillis());
+            putName(type.name());
+            scratch.putLong(orderId).putLong(userId != null ? userId : NO_USER);
+            putName(status != null ? status.name() : "");
+            int bodyLength = scratch.position();
+            int length = RECORD_HEADER_BYTES + bodyLength;
+            if (active.position + length > active.buffer.capacity()) {
+                roll(sequence);
+            }
+            scratch.flip();
+            int checksum = checksum(crc, scratch, lastCrc);
+
+            int at = active.position;
+            active.buffer.put(at + RECORD_HEADER_BYTES, scratch.array(), 0, bodyLength);
+            active.buffer.putInt(at + 4, checksum);
+            active.buffer.putInt(at, length);
+            active.position = at + length;
+            nextSequence = sequence + 1;
+            lastCrc = checksum;
+            return sequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot roll audit journal " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Records from fromSequence up to the last one appended before this call
+    public AuditReader read(long fromSequence) {
+        Path endSegment;
+        int endPosition;
+        lock.lock();
+        try {
+            endSegment = active.path;
+            endPosition = active.position;
+        } finally {
+            lock.unlock();
+        }
+        return new AuditReader(directory, fromSequence, endSegment, endPosition);
+    }
+
+    // Records that a record from around epochMillis is missing. Only the earliest such time is kept.
+    public void markGap(long epochMillis) {
+        lock.lock();
+        try {
+            OptionalLong since = gapSince();
+            if (since.isPresent() && since.getAsLong() <= epochMillis) {
+                return;
+            }
+            Path temporary = directory.resolve(GAP_FILE + ".tmp");
+            Files.writeString(temporary, Long.toString(epochMillis));
+            Files.move(temporary, directory.resolve(GAP_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot record a gap in audit journal " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Epoch millis of the earliest missing record, if one was marked and not cleared since
+    public OptionalLong gapSince() {
+        Path file = directory.resolve(GAP_FILE);
+        try {
+            return Files.exists(file) ? OptionalLong.of(Long.parseLong(Files.readString(file).trim())) : OptionalLong.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the gap of audit journal " + directory, e);
+        }
+    }
+
+    public void clearGap() {
+        lock.lock();
+        try {
+            Files.deleteIfExists(directory.resolve(GAP_FILE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot clear the gap of audit journal " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Forces everything appended so far to disk
+    public void sync() {
+        Segment segment;
+        int end;
+        lock.lock();
+        try {
+            segment = active;
+            end = segment.position;
+        } finally {
+            lock.unlock();
+        }
+        segment.force(end);
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+        flusher.shutdownNow();
+        sync();
+        active.close();
+        directoryLock.release();
+        lockChannel.close();
+    }
+
+    private void flush() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            System.err.println("Failed to flush audit journal " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private void putName(String name) {
+        scratch.put((byte) name.length());
+        for (int i = 0; i < name.length(); i++) {
+            scratch.put((byte) name.charAt(i));
+        }
+    }
+
+    // The old segment is forced before the new one takes records, so a segment on disk is
+    // always complete before its successor has anything in it
+    private void roll(long firstSequence) throws IOException {
+        Segment previous = active;
+        previous.force(previous.position);
+        active = createSegment(firstSequence, lastCrc);
+        previous.close();
+    }
+
+    private Segment createSegment(long firstSequence, int previousCrc) throws IOException {
+        Path path = directory.resolve(segmentName(firstSequence));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.putInt(0, MAGIC).putLong(4, firstSequence).putInt(12, previousCrc);
+        buffer.force(0, SEGMENT_HEADER_BYTES);
+        return new Segment(path, channel, buffer, SEGMENT_HEADER_BYTES);
+    }
+
+    // Continues the last segment after its last valid record. A damaged record there is a write
+    // the machine did not finish; it is left in place and new records go to a fresh segment,
+    // which carries on the chain from the last valid record.
+    private void recover(Path last) throws IOException {
+        FileChannel channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize));
+        if (buffer.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IllegalStateException(last + " is not an audit journal segment");
+        }
+        long sequence = buffer.getLong(4);
+        int previousCrc = buffer.getInt(12);
+        int position = SEGMENT_HEADER_BYTES;
+        int length;
+        while ((length = recordLength(crc, buffer, position, buffer.capacity(), sequence, previousCrc)) > 0) {
+            previousCrc = buffer.getInt(position + 4);
+            sequence++;
+            position += length;
+        }
+        nextSequence = sequence;
+        lastCrc = previousCrc;
+
+        boolean damaged = position + RECORD_HEADER_BYTES <= buffer.capacity() && buffer.getInt(position) != 0;
+        if (!damaged) {
+            active = new Segment(last, channel, buffer, position);
+            return;
+        }
+        System.err.println("Audit journal " + last + " has a damaged record at byte " + position
+            + ", continuing at sequence " + sequence + " in a new segment");
+        channel.close();
+        if (position == SEGMENT_HEADER_BYTES) {
+            // Nothing valid in it, and the new segment needs its name
+            Files.move(last, last.resolveSibling(last.getFileName() + ".damaged"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        active = createSegment(sequence, previousCrc);
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    // Length of the valid record at position, or 0 if there is none
+    static int recordLength(CRC32C crc, ByteBuffer buffer, int position, int limit, long expectedSequence, int previousCrc) {
+        if (position + RECORD_HEADER_BYTES > limit) {
+            return 0;
+        }
+        int length = buffer.getInt(position);
+        boolean valid = length >= MIN_RECORD_BYTES
+            && length <= MAX_RECORD_BYTES
+            && position + length <= limit
+            && buffer.getLong(position + RECORD_HEADER_BYTES) == expectedSequence
+            && checksum(crc, buffer.slice(position + RECORD_HEADER_BYTES, length - RECORD_HEADER_BYTES), previousCrc)
+                == buffer.getInt(position + 4);
+        return valid ? length : 0;
+    }
+
+    static int checksum(CRC32C crc, ByteBuffer body, int previousCrc) {
+        crc.reset();
+        crc.update(body);
+        crc.update(previousCrc >>> 24);
+        crc.update(previousCrc >>> 16);
+        crc.update(previousCrc >>> 8);
+        crc.update(previousCrc);
+        return (int) crc.getValue();
+    }
+
+    static List<Path> segments(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                    && file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list audit journal " + directory, e);
+        }
+    }
+
+    static String segmentName(long firstSequence) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX);
+    }
+
+    static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Segment {
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        // Written up to; guarded by the journal's lock
+        int position;
+        private int flushed;
+
+        Segment(Path path, FileChannel channel, MappedByteBuffer buffer, int position) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.position = position;
+            this.flushed = SEGMENT_HEADER_BYTES;
+        }
+
+        synchronized void force(int end) {
+            if (end > flushed) {
+                buffer.force(flushed, end - flushed);
+                flushed = end;
+            }
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
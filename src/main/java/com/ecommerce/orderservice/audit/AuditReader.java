@@ -0,0 +1,172 @@
+package com.ecommerce.orderservice.audit;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32C;
+
+// Iterates journal records in sequence order, checking each record's CRC against the chain and
+// that every segment continues where the previous one stopped. A reader from AuditJournal.read()
+// stops where the journal had written up to when it was opened, and anything it cannot verify
+// before that point is corruption. A reader over a directory reads to the end instead, so a
+// damaged record at the very end is taken as a write cut short by a crash.
+public class AuditReader implements Iterator<AuditRecord> {
+
+    private final List<Path> segments;
+    private final long fromSequence;
+    private final Path endSegment;
+    private final int endPosition;
+    private final CRC32C crc = new CRC32C();
+
+    private int segmentIndex;
+    private Path segment;
+    private ByteBuffer buffer;
+    private int position;
+    private int limit;
+    private boolean chained;
+    private long expectedSequence;
+    private int previousCrc;
+    private AuditRecord next;
+
+    public AuditReader(Path directory, long fromSequence) {
+        this(directory, fromSequence, null, 0);
+    }
+
+    AuditReader(Path directory, long fromSequence, Path endSegment, int endPosition) {
+        List<Path> all = AuditJournal.segments(directory);
+        int start = 0;
+        int end = all.size();
+        for (int i = 0; i < all.size(); i++) {
+            // Start in the last segment that begins at or before fromSequence
+            if (i > 0 && AuditJournal.firstSequenceOf(all.get(i)) <= fromSequence) {
+                start = i;
+            }
+            if (all.get(i).equals(endSegment)) {
+                end = i + 1;
+            }
+        }
+        this.segments = all.subList(Math.min(start, end), end);
+        this.fromSequence = fromSequence;
+        this.endSegment = endSegment;
+        this.endPosition = endPosition;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = advance();
+        }
+        return next != null;
+    }
+
+    @Override
+    public AuditRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        AuditRecord record = next;
+        next = null;
+        return record;
+    }
+
+    private AuditRecord advance() {
+        while (true) {
+            if (buffer == null && !openNextSegment()) {
+                return null;
+            }
+            boolean bounded = segment.equals(endSegment);
+            if (bounded && position == limit) {
+                buffer = null;
+                continue;
+            }
+            int length = AuditJournal.recordLength(crc, buffer, position, limit, expectedSequence, previousCrc);
+            if (length == 0) {
+                if (bounded) {
+                    throw corrupt("record does not verify");
+                }
+                // End of this segment, or a tail cut short by a crash. Either way the next
+                // segment has to pick up the chain right here, which openNextSegment() checks.
+                buffer = null;
+                continue;
+            }
+            AuditRecord record = decode(length);
+            previousCrc = buffer.getInt(position + 4);
+            expectedSequence++;
+            position += length;
+            if (record.sequence() >= fromSequence) {
+                return record;
+            }
+        }
+    }
+
+    private boolean openNextSegment() {
+        if (segmentIndex >= segments.size()) {
+            return false;
+        }
+        segment = segments.get(segmentIndex++);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read audit segment " + segment, e);
+        }
+        position = 0;
+        if (buffer.capacity() < AuditJournal.SEGMENT_HEADER_BYTES || buffer.getInt(0) != AuditJournal.MAGIC) {
+            throw corrupt("not an audit journal segment");
+        }
+        long firstSequence = buffer.getLong(4);
+        int seed = buffer.getInt(12);
+        if (chained && (firstSequence != expectedSequence || seed != previousCrc)) {
+            throw corrupt("segment does not continue the journal at sequence " + expectedSequence);
+        }
+        chained = true;
+        expectedSequence = firstSequence;
+        previousCrc = seed;
+        position = AuditJournal.SEGMENT_HEADER_BYTES;
+        limit = segment.equals(endSegment) ? endPosition : buffer.capacity();
+        return true;
+    }
+
+    private AuditRecord decode(int length) {
+        ByteBuffer record = buffer.slice(position + AuditJournal.RECORD_HEADER_BYTES, length - AuditJournal.RECORD_HEADER_BYTES);
+        try {
+            long sequence = record.getLong();
+            long timestamp = record.getLong();
+            OrderEvent.Type type = OrderEvent.Type.valueOf(readName(record));
+            long orderId = record.getLong();
+            long userId = record.getLong();
+            String status = readName(record);
+            return new AuditRecord(sequence, Instant.ofEpochMilli(timestamp), type, orderId,
+                userId == AuditJournal.NO_USER ? null : userId, status.isEmpty() ? null : Order.OrderStatus.valueOf(status));
+        } catch (RuntimeException e) {
+            // Only reachable if someone rewrote the record and its checksum
+            throw corrupt("record passes its checksum but cannot be decoded");
+        }
+    }
+
+    private static String readName(ByteBuffer record) {
+        byte[] name = new byte[record.get()];
+        record.get(name);
+        return new String(name, StandardCharsets.US_ASCII);
+    }
+
+    private CorruptJournalException corrupt(String problem) {
+        return new CorruptJournalException(segment.getFileName() + " at byte " + position + ": " + problem);
+    }
+
+    public static class CorruptJournalException extends IllegalStateException {
+        public CorruptJournalException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.orderservice.audit;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderEvent;
+
+import java.time.Instant;
+
+// One journaled order mutation. Sequences start at 1 and have no gaps.
+public record AuditRecord(
+    long sequence,
+    Instant timestamp,
+    OrderEvent.Type type,
+    Long orderId,
+    Long userId,
+    Order.OrderStatus status
+) {
+}
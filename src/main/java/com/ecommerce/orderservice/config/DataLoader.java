@@ -3,14 +3,22 @@ package com.ecommerce.orderservice.config;
 import com.ecommerce.orderservice.model.Order;
 import com.ecommerce.orderservice.model.OrderItem;
 import com.ecommerce.orderservice.repository.OrderRepository;
+import com.ecommerce.orderservice.service.OrderEventStore;
+import com.ecommerce.orderservice.service.ProductSalesIndex;
+import com.ecommerce.orderservice.service.RevenueRollupService;
+import com.ecommerce.orderservice.service.ShardRouting;
+import com.ecommerce.orderservice.service.UserOrderSummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Component
 public class DataLoader implements CommandLineRunner {
@@ -18,11 +26,30 @@ public class DataLoader implements CommandLineRunner {
     @Autowired
     private OrderRepository orderRepository;
     
+    @Autowired
+    private UserOrderSummaryService userOrderSummaryService;
+    
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+    
+    @Autowired
+    private ProductSalesIndex productSalesIndex;
+    
+    @Autowired
+    private OrderEventStore orderEventStore;
+    
+    @Autowired
+    private ShardRouting shardRouting;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
     @Override
     public void run(String... args) throws Exception {
         // Only load data if the database is empty
-        if (orderRepository.count() == 0) {
+        if (shardRouting.scatter(orderRepository::count).stream().mapToLong(Long::longValue).sum() == 0) {
             loadSeedData();
+            productSalesIndex.backfill();
         }
     }
     
@@ -32,8 +59,8 @@ public class DataLoader implements CommandLineRunner {
         // Create sample orders with realistic scenarios
         List<Order> orders = new ArrayList<>();
         
-        // Order 1: John Doe's gaming setup
-        orders.add(createOrder(1L, 1L, "123 Main St, Anytown, ST 12345", 
+        // User 1: John Doe's gaming setup
+        orders.add(createOrder(1L, "123 Main St, Anytown, ST 12345", 
                               Order.OrderStatus.DELIVERED, LocalDateTime.now().minusDays(5),
                               createOrderItems(
                                   new OrderItemData(1L, "Gaming Laptop Pro", 1, new BigDecimal("1299.99")),
@@ -41,8 +68,8 @@ public class DataLoader implements CommandLineRunner {
                                   new OrderItemData(3L, "Mechanical Keyboard", 1, new BigDecimal("129.99"))
                               )));
         
-        // Order 2: Jane Smith's book collection
-        orders.add(createOrder(2L, 2L, "456 Oak Ave, Springfield, IL 62701", 
+        // User 2: Jane Smith's book collection
+        orders.add(createOrder(2L, "456 Oak Ave, Springfield, IL 62701", 
                               Order.OrderStatus.DELIVERED, LocalDateTime.now().minusDays(3),
                               createOrderItems(
                                   new OrderItemData(6L, "Microservices Architecture", 2, new BigDecimal("39.99")),
@@ -50,8 +77,8 @@ public class DataLoader implements CommandLineRunner {
                                   new OrderItemData(8L, "Clean Code", 1, new BigDecimal("34.99"))
                               )));
         
-        // Order 3: Bob Wilson's home office setup
-        orders.add(createOrder(3L, 3L, "789 Pine Rd, Austin, TX 78701", 
+        // User 3: Bob Wilson's home office setup
+        orders.add(createOrder(3L, "789 Pine Rd, Austin, TX 78701", 
                               Order.OrderStatus.SHIPPED, LocalDateTime.now().minusDays(2),
                               createOrderItems(
                                   new OrderItemData(9L, "Smart Coffee Maker", 1, new BigDecimal("149.99")),
@@ -59,8 +86,8 @@ public class DataLoader implements CommandLineRunner {
                                   new OrderItemData(5L, "Wireless Headphones", 1, new BigDecimal("199.99"))
                               )));
         
-        // Order 4: Alice Johnson's fitness gear
-        orders.add(createOrder(4L, 4L, "321 Elm St, Denver, CO 80201", 
+        // User 4: Alice Johnson's fitness gear
+        orders.add(createOrder(4L, "321 Elm St, Denver, CO 80201", 
                               Order.OrderStatus.PROCESSING, LocalDateTime.now().minusDays(1),
                               createOrderItems(
                                   new OrderItemData(11L, "Yoga Mat Premium", 1, new BigDecimal("24.99")),
@@ -68,8 +95,8 @@ public class DataLoader implements CommandLineRunner {
                                   new OrderItemData(13L, "Cotton T-Shirt", 3, new BigDecimal("14.99"))
                               )));
         
-        // Order 5: Charlie Brown's wardrobe update
-        orders.add(createOrder(5L, 5L, "654 Maple Dr, Seattle, WA 98101", 
+        // User 5: Charlie Brown's wardrobe update
+        orders.add(createOrder(5L, "654 Maple Dr, Seattle, WA 98101", 
                               Order.OrderStatus.PENDING, LocalDateTime.now().minusHours(6),
                               createOrderItems(
                                   new OrderItemData(14L, "Denim Jeans", 2, new BigDecimal("59.99")),
@@ -77,26 +104,38 @@ public class DataLoader implements CommandLineRunner {
                                   new OrderItemData(13L, "Cotton T-Shirt", 4, new BigDecimal("14.99"))
                               )));
         
-        // Order 6: Diana Clark's tech upgrade
-        orders.add(createOrder(6L, 6L, "987 Cedar Ln, Portland, OR 97201", 
+        // User 6: Diana Clark's tech upgrade
+        orders.add(createOrder(6L, "987 Cedar Ln, Portland, OR 97201", 
                               Order.OrderStatus.CANCELLED, LocalDateTime.now().minusHours(3),
                               createOrderItems(
                                   new OrderItemData(4L, "4K Webcam", 1, new BigDecimal("89.99")),
                                   new OrderItemData(5L, "Wireless Headphones", 1, new BigDecimal("199.99"))
                               )));
         
+        // One transaction per shard so its seed inserts are flushed together as JDBC batches
+        Map<Integer, List<Order>> byShard = new TreeMap<>();
         for (Order order : orders) {
-            orderRepository.save(order);
+            byShard.computeIfAbsent(shardRouting.shardForUser(order.getUserId()), shard -> new ArrayList<>()).add(order);
         }
+        byShard.forEach((shard, shardOrders) -> shardRouting.onShard(shard, () -> transactionTemplate.execute(tx -> {
+            for (Order order : shardOrders) {
+                orderEventStore.recordCreated(orderRepository.save(order));
+            }
+            // Seed orders bypass OrderService, so derive their summaries and rollups in one pass
+            userOrderSummaryService.rebuild();
+            revenueRollupService.backfill();
+            return null;
+        })));
         
         System.out.println("✅ Created " + orders.size() + " orders with various statuses");
         System.out.println("📋 Statuses: DELIVERED, SHIPPED, PROCESSING, PENDING, CANCELLED");
     }
     
-    private Order createOrder(Long id, Long userId, String shippingAddress, 
+    // Ids are left to the Snowflake generator: they carry the shard in their low bits, so
+    // fixed small ids would route to the wrong shard
+    private Order createOrder(Long userId, String shippingAddress, 
                              Order.OrderStatus status, LocalDateTime orderDate, List<OrderItem> items) {
         Order order = new Order();
-        order.setId(id);
         order.setUserId(userId);
         order.setShippingAddress(shippingAddress);
         order.setStatus(status);
@@ -0,0 +1,52 @@
+package com.ecommerce.orderservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(ExecutionLaneProperties.class)
+public class ExecutionLaneConfig implements WebMvcConfigurer {
+
+    // Long-running maintenance POSTs get a lane of their own instead of competing with customer creates
+    static final String[] ADMIN_PATHS = {
+        "/api/orders/archive", "/api/orders/revenue/backfill", "/api/orders/summaries/rebuild"
+    };
+
+    private final ExecutionLaneInterceptor interceptor;
+    private final ExecutionLaneInterceptor adminInterceptor;
+
+    public ExecutionLaneConfig(ExecutionLaneProperties properties, MeterRegistry meterRegistry,
+                               @Value("${server.tomcat.threads.max:200}") int requestThreads,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ExecutionLaneInterceptor.Lane reads = lane("reads", properties.getReads(), meterRegistry);
+        ExecutionLaneInterceptor.Lane creates = lane("creates", properties.getCreates(), meterRegistry);
+        ExecutionLaneInterceptor.Lane mutations = lane("mutations", properties.getMutations(), meterRegistry);
+        ExecutionLaneInterceptor.Lane admin = lane("admin", properties.getAdmin(), meterRegistry);
+        this.interceptor = new ExecutionLaneInterceptor(reads, creates, mutations);
+        this.adminInterceptor = new ExecutionLaneInterceptor(admin, admin, admin);
+
+        // Queued requests hold a request thread too; if the write lanes can claim every thread,
+        // reads are no longer isolated from slow writes
+        int writeThreads = creates.capacity() + mutations.capacity() + admin.capacity();
+        if (!virtualThreads && writeThreads >= requestThreads) {
+            System.err.println("WARNING: create, mutation and admin lanes can occupy " + writeThreads + " of "
+                + requestThreads + " request threads, leaving none for reads");
+        }
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor).addPathPatterns("/api/orders/**").excludePathPatterns(ADMIN_PATHS);
+        registry.addInterceptor(adminInterceptor).addPathPatterns(ADMIN_PATHS);
+    }
+
+    private static ExecutionLaneInterceptor.Lane lane(String name, ExecutionLaneProperties.Lane settings,
+                                                      MeterRegistry meterRegistry) {
+        return new ExecutionLaneInterceptor.Lane(name, settings.getConcurrency(), settings.getQueue(),
+            settings.getMaxWait(), meterRegistry);
+    }
+}
@@ -0,0 +1,139 @@
+package com.ecommerce.orderservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Gives reads, creates and status mutations their own share of the request threads. A request
+// holds a permit of its lane while it occupies a thread, so slow creates can use up their own
+// lane but never the threads that reads need. Requests beyond a lane's queue, or that wait
+// longer than its max wait, get 503 before reaching the controller.
+public class ExecutionLaneInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String LANE_ATTRIBUTE = ExecutionLaneInterceptor.class.getName() + ".lane";
+
+    private final Lane reads;
+    private final Lane creates;
+    private final Lane mutations;
+
+    public ExecutionLaneInterceptor(Lane reads, Lane creates, Lane mutations) {
+        this.reads = reads;
+        this.creates = creates;
+        this.mutations = mutations;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The permit of an async request was released when its first dispatch let go of the thread
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Lane lane = laneFor(request.getMethod());
+        if (!lane.tryEnter()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return false;
+        }
+        request.setAttribute(LANE_ATTRIBUTE, lane);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    private Lane laneFor(String method) {
+        return switch (method) {
+            case "GET", "HEAD", "OPTIONS" -> reads;
+            case "POST" -> creates;
+            default -> mutations;
+        };
+    }
+
+    private static void release(HttpServletRequest request) {
+        Object lane = request.getAttribute(LANE_ATTRIBUTE);
+        if (lane != null) {
+            request.removeAttribute(LANE_ATTRIBUTE);
+            ((Lane) lane).exit();
+        }
+    }
+
+    public static class Lane {
+        private final String name;
+        private final int concurrency;
+        private final int maxQueued;
+        private final long maxWaitNanos;
+        private final Semaphore permits;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final Counter rejected;
+        private final Timer queueWait;
+
+        public Lane(String name, int concurrency, int maxQueued, Duration maxWait, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.concurrency = concurrency;
+            this.maxQueued = maxQueued;
+            this.maxWaitNanos = maxWait.toNanos();
+            this.permits = new Semaphore(concurrency, true);
+
+            Gauge.builder("orders.lane.active", this, Lane::active).tag("lane", name).register(meterRegistry);
+            Gauge.builder("orders.lane.queued", queued, AtomicInteger::get).tag("lane", name).register(meterRegistry);
+            this.rejected = Counter.builder("orders.lane.rejected").tag("lane", name).register(meterRegistry);
+            this.queueWait = Timer.builder("orders.lane.queue_wait").tag("lane", name).register(meterRegistry);
+        }
+
+        boolean tryEnter() {
+            if (permits.tryAcquire()) {
+                return true;
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                rejected.increment();
+                return false;
+            }
+            long start = System.nanoTime();
+            try {
+                if (permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                    return true;
+                }
+                rejected.increment();
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected.increment();
+                return false;
+            } finally {
+                queued.decrementAndGet();
+                queueWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        void exit() {
+            permits.release();
+        }
+
+        // Most request threads this lane can hold, running or queued
+        public int capacity() { return concurrency + maxQueued; }
+
+        public int active() { return concurrency - permits.availablePermits(); }
+
+        public int queued() { return queued.get(); }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("orders.lanes")
+public class ExecutionLaneProperties {
+
+    private Lane reads = Lane.of(150, 100, Duration.ofMillis(200));
+    private Lane creates = Lane.of(60, 20, Duration.ofSeconds(1));
+    private Lane mutations = Lane.of(30, 10, Duration.ofSeconds(1));
+    // Archive runs, revenue backfills and summary rebuilds, which only ever need a thread or two
+    private Lane admin = Lane.of(2, 0, Duration.ZERO);
+
+    public Lane getReads() { return reads; }
+    public void setReads(Lane reads) { this.reads = reads; }
+
+    public Lane getCreates() { return creates; }
+    public void setCreates(Lane creates) { this.creates = creates; }
+
+    public Lane getMutations() { return mutations; }
+    public void setMutations(Lane mutations) { this.mutations = mutations; }
+
+    public Lane getAdmin() { return admin; }
+    public void setAdmin(Lane admin) { this.admin = admin; }
+
+    public static class Lane {
+        private int concurrency;
+        private int queue;
+        private Duration maxWait;
+
+        static Lane of(int concurrency, int queue, Duration maxWait) {
+            Lane lane = new Lane();
+            lane.setConcurrency(concurrency);
+            lane.setQueue(queue);
+            lane.setMaxWait(maxWait);
+            return lane;
+        }
+
+        public int getConcurrency() { return concurrency; }
+        public void setConcurrency(int concurrency) { this.concurrency = concurrency; }
+
+        public int getQueue() { return queue; }
+        public void setQueue(int queue) { this.queue = queue; }
+
+        public Duration getMaxWait() { return maxWait; }
+        public void setMaxWait(Duration maxWait) { this.maxWait = maxWait; }
+    }
+}
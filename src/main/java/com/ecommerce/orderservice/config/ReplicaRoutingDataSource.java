@@ -0,0 +1,24 @@
+package com.ecommerce.orderservice.config;
+
+import com.ecommerce.orderservice.service.ReadRouting;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Hands out primary connections unless the current thread is inside ReadRouting.read(). The
+// choice is made when a transaction first takes a connection, so a read that joins a running
+// write transaction stays on the primary.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(ReadRouting.Target.PRIMARY, primary, ReadRouting.Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ReadRouting.currentTarget();
+    }
+}
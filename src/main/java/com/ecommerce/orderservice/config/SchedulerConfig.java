@@ -0,0 +1,31 @@
+package com.ecommerce.orderservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+@EnableScheduling
+public class SchedulerConfig {
+
+    // JPA calls from the reactive create path run here, so blocking work is capped
+    // by this pool and its queue rather than by the servlet thread pool
+    @Bean(destroyMethod = "dispose")
+    public Scheduler persistenceScheduler(
+            @Value("${orders.reactive.persistence-threads:16}") int threads,
+            @Value("${orders.reactive.persistence-queue:1000}") int queuedTasks) {
+        return Schedulers.newBoundedElastic(threads, queuedTasks, "order-persistence");
+    }
+
+    // Completes orders accepted by POST /api/orders/async. Once the queue is full, scheduling
+    // throws RejectedExecutionException and the submission is turned away with a 503.
+    @Bean(destroyMethod = "dispose")
+    public Scheduler submissionScheduler(
+            @Value("${orders.async.workers:32}") int workers,
+            @Value("${orders.async.queue:5000}") int queuedTasks) {
+        return Schedulers.newBoundedElastic(workers, queuedTasks, "order-submission");
+    }
+}
@@ -0,0 +1,108 @@
+package com.ecommerce.orderservice.config;
+
+import com.ecommerce.orderservice.service.ShardRouting;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.hbm2ddl.SchemaExport;
+import org.hibernate.tool.schema.TargetType;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+// Active once orders.sharding.shards lists a database besides spring.datasource, which stays
+// shard 0. Entry k-1 of the list is shard k and takes url, username, password and hikari.*
+// like spring.datasource does. JPA gets the routing DataSource in front of all of them.
+@Configuration
+@ConditionalOnProperty(prefix = "orders.sharding.shards[0]", name = "url")
+public class ShardedDataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties homeShardDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("homeShardDataSourceProperties") DataSourceProperties homeProperties,
+                                 ShardRouting shardRouting, Environment environment) {
+        if (environment.containsProperty("orders.datasource.replica.url")) {
+            throw new IllegalStateException("A read replica cannot be combined with sharding");
+        }
+        Binder binder = Binder.get(environment);
+        List<DataSourceProperties> others = binder.bind("orders.sharding.shards", Bindable.listOf(DataSourceProperties.class))
+            .orElse(List.of());
+        if (others.size() + 1 != shardRouting.shardCount()) {
+            throw new IllegalStateException("orders.sharding.shard-count is " + shardRouting.shardCount()
+                + " but " + (others.size() + 1) + " shard databases are configured");
+        }
+
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(pool(homeProperties, binder, "spring.datasource.hikari"));
+        for (int i = 0; i < others.size(); i++) {
+            shards.add(pool(others.get(i), binder, "orders.sharding.shards[" + i + "].hikari"));
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Binder binder, String hikariPrefix) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(hikariPrefix, Bindable.ofInstance(pool));
+        return pool;
+    }
+
+    // Hibernate creates the schema through the DataSource's default target only, which is
+    // shard 0; with ddl-auto create or create-drop the same schema is exported to the others
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaExport(ShardRouting shardRouting,
+                                                           @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        return properties -> {
+            if (ddlAuto.startsWith("create")) {
+                properties.put("hibernate.integrator_provider",
+                    (IntegratorProvider) () -> List.of(new ShardSchemaExport(shardRouting)));
+            }
+        };
+    }
+
+    private static final class ShardSchemaExport implements Integrator {
+        private final ShardRouting shardRouting;
+
+        ShardSchemaExport(ShardRouting shardRouting) {
+            this.shardRouting = shardRouting;
+        }
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+            for (int shard = 1; shard < shardRouting.shardCount(); shard++) {
+                shardRouting.onShard(shard, () -> {
+                    new SchemaExport().setHaltOnError(true).create(EnumSet.of(TargetType.DATABASE), metadata);
+                    return null;
+                });
+            }
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
@@ -1,7 +1,17 @@
 package com.ecommerce.orderservice.controller;
 
+import com.ecommerce.orderservice.config.ContentNegotiationConfig;
 import com.ecommerce.orderservice.dto.OrderRequest;
+import com.ecommerce.orderservice.dto.OrderSnapshot;
+import com.ecommerce.orderservice.dto.OrderSummaryPage;
+import com.ecommerce.orderservice.dto.ProductSales;
+import com.ecommerce.orderservice.dto.RevenueBucket;
 import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderEvent;
+import com.ecommerce.orderservice.model.RevenueRollup;
+import com.ecommerce.orderservice.model.UserOrderSummary;
+import com.ecommerce.orderservice.service.AdmissionControl;
+import com.ecommerce.orderservice.service.IdempotencyStore;
 import com.ecommerce.orderservice.service.OrderService;
 import com.ecommerce.orderservice.telemetry.TelemetryClient;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,11 +20,22 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import reactor.core.publisher.Mono;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -22,32 +43,127 @@ import java.util.List;
 @Tag(name = "Order Management", description = "API for managing customer orders including creation, tracking, status updates, and cancellation")
 public class OrderController {
     
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    
     @Autowired
     private OrderService orderService;
     
     @Autowired
     private TelemetryClient telemetryClient;
     
+    @Autowired
+    private AdmissionControl admissionControl;
+    
     @PostMapping
     @Operation(summary = "Create a new order", description = "Creates a new order for a customer with the specified products and quantities")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Order created successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid order data provided"),
         @ApiResponse(responseCode = "404", description = "User or product not found"),
+        @ApiResponse(responseCode = "409", description = "An earlier request with the same Idempotency-Key is still running"),
+        @ApiResponse(responseCode = "422", description = "The Idempotency-Key was already used for a different request"),
+        @ApiResponse(responseCode = "429", description = "Too many orders from this user; retry after Retry-After seconds"),
+        @ApiResponse(responseCode = "503", description = "Service is shedding load; retry after Retry-After seconds"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Order> createOrder(@RequestBody OrderRequest orderRequest, HttpServletRequest request) {
-        String traceId = telemetryClient.startTrace("create_order", "POST", request.getRequestURL().toString(), orderRequest.getUserId().toString());
-        
+    public ResponseEntity<Order> createOrder(
+        @RequestBody OrderRequest orderRequest,
+        @Parameter(description = "Client-chosen key; retries with the same key return the original order instead of creating another", example = "3f1c2a9e-order-42")
+        @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+        HttpServletRequest request) {
+        try (AdmissionControl.Ticket ticket = admissionControl.admit(orderRequest.getUserId())) {
+            String traceId = telemetryClient.startTrace("create_order", "POST", request.getRequestURL().toString(), String.valueOf(orderRequest.getUserId()));
+            
+            try {
+                telemetryClient.logEvent("Order creation started for user: " + orderRequest.getUserId(), "INFO");
+                Order order = idempotencyKey == null
+                    ? orderService.createOrder(orderRequest)
+                    : orderService.createOrder(orderRequest, idempotencyKey);
+                telemetryClient.logEvent("Order created successfully with ID: " + order.getId(), "INFO");
+                telemetryClient.finishTrace("create_order", 200, null);
+                return ResponseEntity.ok(order);
+            } catch (IdempotencyStore.KeyInProgressException e) {
+                // A replay gave up waiting for the first attempt with the same Idempotency-Key
+                telemetryClient.finishTrace("create_order", 409, e.getMessage());
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            } catch (IdempotencyStore.KeyReusedException e) {
+                telemetryClient.finishTrace("create_order", 422, e.getMessage());
+                return ResponseEntity.unprocessableEntity().build();
+            } catch (Exception e) {
+                telemetryClient.finishTrace("create_order", 500, e.getMessage());
+                throw e;
+            }
+        }
+    }
+    
+    @PostMapping("/reactive")
+    @Operation(summary = "Create a new order without holding a request thread", description = "Same as POST /api/orders, but user validation, product lookups and the notification run as a non-blocking pipeline")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Order created successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid order data provided"),
+        @ApiResponse(responseCode = "404", description = "User or product not found"),
+        @ApiResponse(responseCode = "429", description = "Too many orders from this user; retry after Retry-After seconds"),
+        @ApiResponse(responseCode = "503", description = "Service is shedding load; retry after Retry-After seconds"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public Mono<ResponseEntity<Order>> createOrderReactive(@RequestBody OrderRequest orderRequest, HttpServletRequest request) {
+        AdmissionControl.Ticket ticket = admissionControl.admit(orderRequest.getUserId());
         try {
-            telemetryClient.logEvent("Order creation started for user: " + orderRequest.getUserId(), "INFO");
-            Order order = orderService.createOrder(orderRequest);
-            telemetryClient.logEvent("Order created successfully with ID: " + order.getId(), "INFO");
-            telemetryClient.finishTrace("create_order", 200, null);
-            return ResponseEntity.ok(order);
-        } catch (Exception e) {
-            telemetryClient.finishTrace("create_order", 500, e.getMessage());
+            telemetryClient.startTrace("create_order_reactive", "POST", request.getRequestURL().toString(), String.valueOf(orderRequest.getUserId()));
+            TelemetryClient.TraceSpan span = TelemetryClient.TraceContext.current();
+            telemetryClient.logEvent("Reactive order creation started for user: " + orderRequest.getUserId(), "INFO");
+            return orderService.createOrderReactive(orderRequest)
+                .map(order -> {
+                    telemetryClient.logEvent(span, "Order created successfully with ID: " + order.getId(), "INFO");
+                    telemetryClient.finishTrace(span, "create_order_reactive", 200, null);
+                    return ResponseEntity.ok(order);
+                })
+                .doOnError(e -> telemetryClient.finishTrace(span, "create_order_reactive", 500, e.getMessage()))
+                .doFinally(signal -> ticket.close());
+        } catch (RuntimeException | Error e) {
+            // No pipeline was returned to release the in-flight slot
+            ticket.close();
             throw e;
+        } finally {
+            // The pipeline carries the span from here; this thread goes back to the pool
+            TelemetryClient.TraceContext.clear();
+        }
+    }
+    
+    @PostMapping("/async")
+    @Operation(summary = "Submit an order for background processing", description = "Stores the order as PENDING and returns at once; user validation, pricing and the confirmation happen in the background. Poll the Location URL until the status becomes CONFIRMED or REJECTED")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Order accepted; Location points at the order to poll"),
+        @ApiResponse(responseCode = "400", description = "Invalid order data provided"),
+        @ApiResponse(responseCode = "429", description = "Too many orders from this user; retry after Retry-After seconds"),
+        @ApiResponse(responseCode = "503", description = "Too many orders waiting to be processed, or the service is shedding load; retry later"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<OrderSnapshot> submitOrder(@RequestBody OrderRequest orderRequest, HttpServletRequest request) {
+        try (AdmissionControl.Ticket ticket = admissionControl.admit(orderRequest.getUserId())) {
+            telemetryClient.startTrace("submit_order", "POST", request.getRequestURL().toString(), String.valueOf(orderRequest.getUserId()));
+            
+            try {
+                Order order = orderService.submitOrder(orderRequest);
+                telemetryClient.finishTrace("submit_order", 202, null);
+                URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/orders/{id}")
+                    .buildAndExpand(order.getId())
+                    .toUri();
+                return ResponseEntity.accepted()
+                    .location(location)
+                    .eTag(orderETag(order.getVersion(), request.getHeader(HttpHeaders.ACCEPT)))
+                    .body(OrderSnapshot.from(order));
+            } catch (IllegalArgumentException e) {
+                telemetryClient.finishTrace("submit_order", 400, e.getMessage());
+                return ResponseEntity.badRequest().build();
+            } catch (RejectedExecutionException e) {
+                telemetryClient.finishTrace("submit_order", 503, e.getMessage());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+            } catch (Exception e) {
+                telemetryClient.finishTrace("submit_order", 500, e.getMessage());
+                throw e;
+            }
         }
     }
     
@@ -55,38 +171,199 @@ public class OrderController {
     @Operation(summary = "Get order by ID", description = "Retrieves a specific order using its unique identifier")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Order found and returned successfully"),
+        @ApiResponse(responseCode = "304", description = "Order unchanged since the ETag sent in If-None-Match"),
+        @ApiResponse(responseCode = "404", description = "Order not found with the provided ID"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<OrderSnapshot> getOrderById(
+        @Parameter(description = "Unique identifier of the order", required = true, example = "1")
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        long version = orderService.getOrderVersion(id);
+        String etag = orderETag(version, accept);
+        if (matchesETag(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        // Never older than the version just checked; it may be newer if a write landed in between
+        OrderSnapshot order = orderService.getOrderSnapshot(id, version);
+        // Tag the body actually served, which may differ from the version checked above
+        return ResponseEntity.ok().eTag(orderETag(order.version(), accept)).body(order);
+    }
+    
+    @GetMapping("/{id}/history")
+    @Operation(summary = "Get order history", description = "Returns every recorded change of the order (creation, status changes, cancellation) from its append-only event log, oldest first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "History returned; empty for orders placed before the event log existed"),
         @ApiResponse(responseCode = "404", description = "Order not found with the provided ID"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<Order> getOrderById(
+    public ResponseEntity<List<OrderEvent>> getOrderHistory(
         @Parameter(description = "Unique identifier of the order", required = true, example = "1")
         @PathVariable Long id) {
-        Order order = orderService.getOrderById(id);
-        return ResponseEntity.ok(order);
+        return ResponseEntity.ok(orderService.getOrderHistory(id));
     }
     
     @GetMapping("/user/{userId}")
     @Operation(summary = "Get orders by user ID", description = "Retrieves all orders associated with a specific customer")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Orders retrieved successfully for the user"),
+        @ApiResponse(responseCode = "304", description = "User's orders unchanged since the ETag sent in If-None-Match"),
         @ApiResponse(responseCode = "404", description = "No orders found for the specified user"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Order>> getOrdersByUserId(
+    public ResponseEntity<List<?>> getOrdersByUserId(
+        @Parameter(description = "Unique identifier of the user", required = true, example = "123")
+        @PathVariable Long userId,
+        @Parameter(description = "Comma-separated fields to return; leave out orderItems to skip loading items", example = "id,status,totalAmount")
+        @RequestParam(required = false) String fields,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        // Taken before the list is read, so a concurrent write only ever makes the tag older than the body
+        String etag = userOrdersETag(orderService.getUserOrdersVersion(userId), accept);
+        if (matchesETag(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        List<?> orders = includesItems(fields)
+            ? toSnapshots(orderService.getOrdersByUserId(userId))
+            : orderService.getOrderSummariesByUserId(userId);
+        return ResponseEntity.ok().eTag(etag).body(orders);
+    }
+    
+    @GetMapping("/status-counts")
+    @Operation(summary = "Count orders per status", description = "Returns the number of orders in each status from in-memory counters that are reconciled with the database every minute; fresh=true counts in the database instead. When a replica is configured fresh=true reads from it and can miss writes made within the replica lag, including the caller's own")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Counts retrieved successfully"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<Map<Order.OrderStatus, Long>> getStatusCounts(
+        @Parameter(description = "Count with a GROUP BY query instead of reading the in-memory counters", example = "false")
+        @RequestParam(defaultValue = "false") boolean fresh) {
+        return ResponseEntity.ok(orderService.getStatusCounts(fresh));
+    }
+    
+    @GetMapping("/revenue")
+    @Operation(summary = "Get revenue by hour or day", description = "Returns order count, gross, cancelled and net amount per bucket between from (inclusive) and to (exclusive), read from incrementally maintained rollups instead of scanning orders. When a replica is configured this reads from it and can miss writes made within the replica lag, including the caller's own")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Buckets with at least one order, oldest first"),
+        @ApiResponse(responseCode = "400", description = "from is not before to"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<List<RevenueBucket>> getRevenue(
+        @Parameter(description = "Bucket size", example = "DAY")
+        @RequestParam(defaultValue = "DAY") RevenueRollup.Granularity granularity,
+        @Parameter(description = "Start of the range, inclusive", required = true, example = "2024-01-01T00:00:00")
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        @Parameter(description = "End of the range, exclusive", required = true, example = "2024-02-01T00:00:00")
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderService.getRevenue(granularity, from, to));
+    }
+    
+    @PostMapping("/revenue/backfill")
+    @Operation(summary = "Backfill revenue rollups", description = "Recomputes the hourly and daily revenue rollups from the orders table (admin access typically required)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rollups rebuilt; returns the number of rollup rows written"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<Map<String, Integer>> backfillRevenueRollups() {
+        return ResponseEntity.ok(Map.of("rows", orderService.backfillRevenueRollups()));
+    }
+    
+    @PostMapping("/archive")
+    @Operation(summary = "Archive finished orders", description = "Moves DELIVERED and CANCELLED orders older than the archive age out of the hot tables now rather than on the next scheduled run; they stay readable by id and in user history (admin access typically required)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Archival finished; returns the number of orders moved"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<Map<String, Integer>> archiveOrders() {
+        return ResponseEntity.ok(Map.of("archived", orderService.archiveOrders()));
+    }
+    
+    @GetMapping("/products/top")
+    @Operation(summary = "Get top-selling products", description = "Ranks products by units sold in orders placed within the window, net of cancellations, from an in-memory hourly index instead of scanning order_items. Each instance counts its own writes at once and other instances' after they flush and this one reloads, so the ranking can lag by the flush plus reload interval")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Best-selling products first"),
+        @ApiResponse(responseCode = "400", description = "Window longer than the index retention, or limit outside 1-1000"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<List<ProductSales>> getTopProducts(
+        @Parameter(description = "How far back to look, as an ISO-8601 duration", example = "P7D")
+        @RequestParam(defaultValue = "P1D") Duration window,
+        @Parameter(description = "Number of products to return", example = "10")
+        @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > 1000) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(orderService.getTopProducts(window, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/product/{productId}")
+    @Operation(summary = "Get orders containing a product", description = "Lists the orders with at least one item of the product, newest first, for recalls and support. Pages by keyset: pass nextCursor from the previous page as after. When a replica is configured this reads from it and can miss writes made within the replica lag, including the caller's own")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "One page of orders, without items"),
+        @ApiResponse(responseCode = "400", description = "limit outside 1-500, or from not before to"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<OrderSummaryPage> getOrdersByProductId(
+        @Parameter(description = "Product to look for", required = true, example = "1")
+        @PathVariable Long productId,
+        @Parameter(description = "Only orders in this status")
+        @RequestParam(required = false) Order.OrderStatus status,
+        @Parameter(description = "Only orders placed at or after this time", example = "2024-01-01T00:00:00")
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        @Parameter(description = "Only orders placed before this time", example = "2024-02-01T00:00:00")
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+        @Parameter(description = "nextCursor of the previous page")
+        @RequestParam(required = false) Long after,
+        @Parameter(description = "Page size", example = "50")
+        @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > 500 || (from != null && to != null && !from.isBefore(to))) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderService.getOrdersByProductId(productId, status, from, to, after, limit));
+    }
+    
+    @GetMapping("/user/{userId}/summary")
+    @Operation(summary = "Get a user's order summary", description = "Returns the user's order count per status, total spend and last order date from the incrementally maintained summary, without reading their orders")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Summary retrieved successfully; all zero for a user without orders"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<UserOrderSummary> getUserOrderSummary(
         @Parameter(description = "Unique identifier of the user", required = true, example = "123")
         @PathVariable Long userId) {
-        List<Order> orders = orderService.getOrdersByUserId(userId);
-        return ResponseEntity.ok(orders);
+        return ResponseEntity.ok(orderService.getUserOrderSummary(userId));
+    }
+    
+    @PostMapping("/summaries/rebuild")
+    @Operation(summary = "Rebuild user order summaries", description = "Recomputes every user's order summary from the orders table (admin access typically required)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Summaries rebuilt; returns the number of users summarised"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<Map<String, Integer>> rebuildUserOrderSummaries() {
+        return ResponseEntity.ok(Map.of("users", orderService.rebuildUserOrderSummaries()));
     }
     
     @GetMapping
-    @Operation(summary = "Retrieve all orders", description = "Returns a list of all orders in the system (admin access typically required)")
+    @Operation(summary = "Retrieve all orders", description = "Returns a list of all orders in the system (admin access typically required). When a replica is configured this reads from it and can miss writes made within the replica lag, including the caller's own")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
+    public ResponseEntity<List<?>> getAllOrders(
+        @Parameter(description = "Comma-separated fields to return; leave out orderItems to skip loading items", example = "id,status,totalAmount")
+        @RequestParam(required = false) String fields) {
+        List<?> orders = includesItems(fields)
+            ? toSnapshots(orderService.getAllOrders())
+            : orderService.getAllOrderSummaries();
         return ResponseEntity.ok(orders);
     }
     
@@ -121,6 +398,50 @@ public class OrderController {
         return ResponseEntity.noContent().build();
     }
     
+    // Raised by AdmissionControl before any work starts: 429 for a user over their rate,
+    // 503 when the service as a whole is shedding load
+    @ExceptionHandler(AdmissionControl.RejectedException.class)
+    public ResponseEntity<Void> handleAdmissionRejected(AdmissionControl.RejectedException e) {
+        return ResponseEntity.status(e.getStatus())
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+            .build();
+    }
+    
+    // No fields parameter keeps the full representation for existing clients
+    private static boolean includesItems(String fields) {
+        return fields == null || Arrays.stream(fields.split(","))
+            .map(String::trim)
+            .anyMatch("orderItems"::equals);
+    }
+    
+    private static List<OrderSnapshot> toSnapshots(List<Order> orders) {
+        return orders.stream().map(OrderSnapshot::from).toList();
+    }
+    
+    private static String orderETag(long version, String accept) {
+        return "\"v" + version + ContentNegotiationConfig.representationTag(accept) + "\"";
+    }
+    
+    private static String userOrdersETag(String aggregateVersion, String accept) {
+        return "\"u" + aggregateVersion + ContentNegotiationConfig.representationTag(accept) + "\"";
+    }
+    
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     public static class OrderStatusUpdateRequest {
         private Order.OrderStatus status;
         
@@ -0,0 +1,60 @@
+package com.ecommerce.orderservice.dto;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderItem;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Immutable copy of an Order and its items, safe to share between requests.
+// Serializes to the same JSON shape as the Order entity.
+public record OrderSnapshot(
+    @JsonFormat(shape = JsonFormat.Shape.STRING) Long id,
+    Long userId,
+    BigDecimal totalAmount,
+    Order.OrderStatus status,
+    LocalDateTime orderDate,
+    String shippingAddress,
+    long version,
+    List<Item> orderItems
+) {
+    
+    public static OrderSnapshot from(Order order) {
+        List<Item> items = order.getOrderItems() == null
+            ? List.of()
+            : order.getOrderItems().stream().map(Item::from).toList();
+        return new OrderSnapshot(
+            order.getId(),
+            order.getUserId(),
+            order.getTotalAmount(),
+            order.getStatus(),
+            order.getOrderDate(),
+            order.getShippingAddress(),
+            order.getVersion(),
+            items
+        );
+    }
+    
+    public record Item(
+        @JsonFormat(shape = JsonFormat.Shape.STRING) Long id,
+        Long productId,
+        String productName,
+        Integer quantity,
+        BigDecimal unitPrice,
+        BigDecimal totalPrice
+    ) {
+        
+        public static Item from(OrderItem item) {
+            return new Item(
+                item.getId(),
+                item.getProductId(),
+                item.getProductName(),
+                item.getQuantity(),
+                item.getUnitPrice(),
+                item.getTotalPrice()
+            );
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.orderservice.dto;
+
+import com.ecommerce.orderservice.model.Order;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Order columns only, selected straight from the orders table for list views
+// that don't need orderItems.
+public record OrderSummary(
+    @JsonFormat(shape = JsonFormat.Shape.STRING) Long id,
+    Long userId,
+    BigDecimal totalAmount,
+    Order.OrderStatus status,
+    LocalDateTime orderDate,
+    String shippingAddress,
+    long version
+) {
+}
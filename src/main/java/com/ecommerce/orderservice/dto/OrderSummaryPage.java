@@ -0,0 +1,13 @@
+package com.ecommerce.orderservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.util.List;
+
+// One keyset page of orders; pass nextCursor back as `after` to get the next page, null when
+// there are no more.
+public record OrderSummaryPage(
+    List<OrderSummary> orders,
+    @JsonFormat(shape = JsonFormat.Shape.STRING) Long nextCursor
+) {
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.orderservice.dto;
+
+import java.math.BigDecimal;
+
+// Sales of one product over the requested window, net of cancellations
+public record ProductSales(
+    Long productId,
+    String productName,
+    long unitsSold,
+    BigDecimal revenue
+) {
+}
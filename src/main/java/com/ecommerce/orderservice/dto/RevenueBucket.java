@@ -0,0 +1,20 @@
+package com.ecommerce.orderservice.dto;
+
+import com.ecommerce.orderservice.model.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// One hour or day of the revenue rollups. Orders count in the bucket they were placed in;
+// netAmount is grossAmount less what has since been cancelled.
+public record RevenueBucket(
+    LocalDateTime bucketStart,
+    long orderCount,
+    BigDecimal grossAmount,
+    long cancelledCount,
+    BigDecimal cancelledAmount,
+    BigDecimal netAmount,
+    Map<Order.OrderStatus, Long> statusCounts
+) {
+}
@@ -0,0 +1,69 @@
+package com.ecommerce.orderservice.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// A DELIVERED or CANCELLED order that OrderArchiver moved out of the orders table. Rows are
+// copied in by ArchivedOrderRepository with the order's own id and never change afterwards.
+@Entity
+@Immutable
+@Table(name = "archived_orders", indexes = {
+    @Index(name = "idx_archived_orders_user_id", columnList = "user_id")
+})
+public class ArchivedOrder {
+    @Id
+    private Long id;
+
+    private Long userId;
+
+    private BigDecimal totalAmount;
+
+    @Enumerated(EnumType.STRING)
+    private Order.OrderStatus status;
+
+    private LocalDateTime orderDate;
+    private String shippingAddress;
+
+    @OneToMany(mappedBy = "order", fetch = FetchType.LAZY)
+    private List<ArchivedOrderItem> orderItems;
+
+    private long version;
+    private LocalDateTime archivedAt;
+
+    public ArchivedOrder() {}
+
+    // Detached Order with the archived values, so callers render it like any other order
+    public Order toOrder() {
+        Order order = new Order(userId, totalAmount, shippingAddress);
+        order.setId(id);
+        order.setStatus(status);
+        order.setOrderDate(orderDate);
+        order.setVersion(version);
+        order.setOrderItems(orderItems.stream().map(item -> item.toOrderItem(order)).collect(Collectors.toList()));
+        return order;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public Long getUserId() { return userId; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+
+    public Order.OrderStatus getStatus() { return status; }
+
+    public LocalDateTime getOrderDate() { return orderDate; }
+
+    public String getShippingAddress() { return shippingAddress; }
+
+    public List<ArchivedOrderItem> getOrderItems() { return orderItems; }
+
+    public long getVersion() { return version; }
+
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.orderservice.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+@Entity
+@Immutable
+@Table(name = "archived_order_items", indexes = {
+    @Index(name = "idx_archived_order_items_order_id", columnList = "order_id"),
+    // Product lookups (recalls mostly concern delivered, i.e. archived, orders)
+    @Index(name = "idx_archived_order_items_product_id_order_id", columnList = "product_id, order_id")
+})
+public class ArchivedOrderItem {
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id")
+    private ArchivedOrder order;
+
+    private Long productId;
+    private String productName;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal totalPrice;
+
+    public ArchivedOrderItem() {}
+
+    OrderItem toOrderItem(Order owner) {
+        OrderItem item = new OrderItem();
+        item.setId(id);
+        item.setOrder(owner);
+        item.setProductId(productId);
+        item.setProductName(productName);
+        item.setQuantity(quantity);
+        item.setUnitPrice(unitPrice);
+        item.setTotalPrice(totalPrice);
+        return item;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public Long getProductId() { return productId; }
+
+    public String getProductName() { return productName; }
+
+    public Integer getQuantity() { return quantity; }
+
+    public BigDecimal getUnitPrice() { return unitPrice; }
+
+    public BigDecimal getTotalPrice() { return totalPrice; }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.orderservice.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// One row per Idempotency-Key seen on POST /api/orders. The primary key is the uniqueness
+// guarantee across instances; orderId stays null while the first attempt is still running.
+// owner identifies that attempt, which keeps leaseUntil in the future for as long as it runs.
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+public class IdempotencyKey {
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+    
+    private Long orderId;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false, length = 36)
+    private String owner;
+    
+    @Column(name = "lease_until", nullable = false)
+    private LocalDateTime leaseUntil;
+    
+    // Fingerprint of the request the key was first used with
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    public IdempotencyKey() {}
+
+    public IdempotencyKey(String key, Long orderId, LocalDateTime createdAt, String owner,
+                          LocalDateTime leaseUntil, String requestHash) {
+        this.key = key;
+        this.orderId = orderId;
+        this.createdAt = createdAt;
+        this.owner = owner;
+        this.leaseUntil = leaseUntil;
+        this.requestHash = requestHash;
+    }
+
+    // Getters and Setters
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+    
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+    
+    public LocalDateTime getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(LocalDateTime leaseUntil) { this.leaseUntil = leaseUntil; }
+    
+    public String getRequestHash() { return requestHash; }
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+}
@@ -1,17 +1,28 @@
 package com.ecommerce.orderservice.model;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.GenericGenerator;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    // Leading user_id also serves plain findByUserId lookups
+    @Index(name = "idx_orders_user_id_order_date", columnList = "user_id, order_date"),
+    @Index(name = "idx_orders_status", columnList = "status"),
+    @Index(name = "idx_orders_order_date", columnList = "order_date")
+})
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "snowflake")
+    @GenericGenerator(name = "snowflake", type = SnowflakeIdGenerator.class)
+    // Snowflake ids exceed 2^53, which JavaScript numbers cannot hold exactly
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
     private Long id;
     
     @NotNull
@@ -28,6 +39,20 @@ public class Order {
     
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<OrderItem> orderItems;
+    
+    // Primitive so Spring Data keeps using the id to decide between persist and merge
+    @Version
+    private long version;
+    
+    // Idempotency-Key of the request that created the order, written in the order's own insert,
+    // so a retry finds the order even when its key was never marked complete
+    @JsonIgnore
+    @Column(unique = true)
+    private String idempotencyKey;
+
+    // Set on the PENDING shell saved by POST /async, which a worker prices and completes later
+    @JsonIgnore
+    private boolean submission;
 
     public Order() {
         this.orderDate = LocalDateTime.now();
@@ -62,8 +87,17 @@ public class Order {
     
     public List<OrderItem> getOrderItems() { return orderItems; }
     public void setOrderItems(List<OrderItem> orderItems) { this.orderItems = orderItems; }
+    
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
+    public boolean isSubmission() { return submission; }
+    public void setSubmission(boolean submission) { this.submission = submission; }
 
     public enum OrderStatus {
-        PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED
+        PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED, REJECTED
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.ecommerce.orderservice.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One entry of an order's append-only history. sequenceNumber is the order's version once the
+// event applied, so CREATED is 0 and each status change adds one; the unique key turns a second
+// writer of the same version into a constraint violation rather than a lost event.
+@Entity
+@Immutable
+@Table(name = "order_events", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_order_events_order_id_sequence_number", columnNames = {"order_id", "sequence_number"})
+})
+public class OrderEvent {
+    // Time-ordered ids, so appends land at the end of the primary key index
+    @Id
+    @GeneratedValue(generator = "snowflake")
+    @GenericGenerator(name = "snowflake", type = SnowflakeIdGenerator.class)
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long id;
+
+    @Column(nullable = false)
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long orderId;
+
+    private long sequenceNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+
+    // Status of the order after this event
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Order.OrderStatus status;
+
+    private Long userId;
+    private BigDecimal totalAmount;
+    private LocalDateTime occurredAt;
+
+    public OrderEvent() {}
+
+    public OrderEvent(Long orderId, long sequenceNumber, Type type, Order.OrderStatus status,
+                      Long userId, BigDecimal totalAmount, LocalDateTime occurredAt) {
+        this.orderId = orderId;
+        this.sequenceNumber = sequenceNumber;
+        this.type = type;
+        this.status = status;
+        this.userId = userId;
+        this.totalAmount = totalAmount;
+        this.occurredAt = occurredAt;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public Long getOrderId() { return orderId; }
+
+    public long getSequenceNumber() { return sequenceNumber; }
+
+    public Type getType() { return type; }
+
+    public Order.OrderStatus getStatus() { return status; }
+
+    public Long getUserId() { return userId; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+
+    public enum Type {
+        CREATED, STATUS_CHANGED, CANCELLED
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.orderservice.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// State of one order folded from its events up to sequenceNumber, so a replay only reads the
+// events after it
+@Entity
+@Table(name = "order_event_snapshots")
+public class OrderEventSnapshot {
+    @Id
+    private Long orderId;
+
+    private long sequenceNumber;
+
+    @Enumerated(EnumType.STRING)
+    private Order.OrderStatus status;
+
+    private Long userId;
+    private BigDecimal totalAmount;
+    private LocalDateTime createdAt;
+    private LocalDateTime takenAt;
+
+    public OrderEventSnapshot() {}
+
+    public OrderEventSnapshot(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public void update(long sequenceNumber, Order.OrderStatus status, Long userId, BigDecimal totalAmount,
+                       LocalDateTime createdAt, LocalDateTime takenAt) {
+        this.sequenceNumber = sequenceNumber;
+        this.status = status;
+        this.userId = userId;
+        this.totalAmount = totalAmount;
+        this.createdAt = createdAt;
+        this.takenAt = takenAt;
+    }
+
+    // Getters
+    public Long getOrderId() { return orderId; }
+
+    public long getSequenceNumber() { return sequenceNumber; }
+
+    public Order.OrderStatus getStatus() { return status; }
+
+    public Long getUserId() { return userId; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public LocalDateTime getTakenAt() { return takenAt; }
+}
@@ -0,0 +1,79 @@
+package com.ecommerce.orderservice.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Units and revenue of one product in the orders placed during one hour, net of cancellations.
+// Written by ProductSalesIndex, which keeps the recent buckets in memory for top-K queries.
+@Entity
+@Table(name = "product_sales_buckets", indexes = {
+    @Index(name = "idx_product_sales_buckets_bucket_start", columnList = "bucket_start")
+})
+public class ProductSalesBucket {
+    @EmbeddedId
+    private Key id;
+    
+    private String productName;
+    
+    private long unitsSold;
+    
+    @Column(nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+    
+    // Wrapper type, so Spring Data persists new buckets without a merge round trip
+    @Version
+    private Long version;
+
+    public ProductSalesBucket() {}
+
+    public ProductSalesBucket(Key id, String productName, long unitsSold, BigDecimal revenue) {
+        this.id = id;
+        this.productName = productName;
+        this.unitsSold = unitsSold;
+        this.revenue = revenue;
+    }
+
+    // Getters
+    public Key getId() { return id; }
+    
+    public String getProductName() { return productName; }
+    
+    public long getUnitsSold() { return unitsSold; }
+    
+    public BigDecimal getRevenue() { return revenue; }
+
+    @Embeddable
+    public static class Key implements Serializable {
+        private Long productId;
+        
+        @Column(name = "bucket_start")
+        private LocalDateTime bucketStart;
+
+        public Key() {}
+
+        public Key(Long productId, LocalDateTime bucketStart) {
+            this.productId = productId;
+            this.bucketStart = bucketStart;
+        }
+
+        public Long getProductId() { return productId; }
+        
+        public LocalDateTime getBucketStart() { return bucketStart; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(productId, key.productId) && Objects.equals(bucketStart, key.bucketStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, bucketStart);
+        }
+    }
+}
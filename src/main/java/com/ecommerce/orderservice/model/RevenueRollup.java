@@ -0,0 +1,106 @@
+package com.ecommerce.orderservice.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+// Order count and amount of the orders placed in one hour or day, per current status. Orders stay
+// in the bucket of their orderDate; a status change moves them between status rows, so a
+// cancellation shows up as an adjustment in the bucket the order was placed in.
+@Entity
+@Table(name = "revenue_rollups")
+public class RevenueRollup {
+    @EmbeddedId
+    private Key id;
+    
+    private long orderCount;
+    
+    @Column(nullable = false)
+    private BigDecimal grossAmount = BigDecimal.ZERO;
+    
+    // Wrapper type, so Spring Data persists new rollups without a merge round trip
+    @Version
+    private Long version;
+
+    public RevenueRollup() {}
+
+    public RevenueRollup(Key id) {
+        this.id = id;
+    }
+
+    public void add(long count, BigDecimal amount) {
+        orderCount += count;
+        grossAmount = grossAmount.add(amount);
+    }
+
+    public void reset() {
+        orderCount = 0;
+        grossAmount = BigDecimal.ZERO;
+    }
+
+    // Getters
+    public Key getId() { return id; }
+    
+    public long getOrderCount() { return orderCount; }
+    
+    public BigDecimal getGrossAmount() { return grossAmount; }
+
+    public enum Granularity {
+        HOUR(ChronoUnit.HOURS), DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public LocalDateTime bucketOf(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+    }
+
+    @Embeddable
+    public static class Key implements Serializable {
+        @Enumerated(EnumType.STRING)
+        private Granularity granularity;
+        
+        private LocalDateTime bucketStart;
+        
+        @Enumerated(EnumType.STRING)
+        private Order.OrderStatus status;
+
+        public Key() {}
+
+        public Key(Granularity granularity, LocalDateTime bucketStart, Order.OrderStatus status) {
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+            this.status = status;
+        }
+
+        public static Key of(Granularity granularity, LocalDateTime orderDate, Order.OrderStatus status) {
+            return new Key(granularity, granularity.bucketOf(orderDate), status);
+        }
+
+        public Granularity getGranularity() { return granularity; }
+        
+        public LocalDateTime getBucketStart() { return bucketStart; }
+        
+        public Order.OrderStatus getStatus() { return status; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return granularity == key.granularity && Objects.equals(bucketStart, key.bucketStart) && status == key.status;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(granularity, bucketStart, status);
+        }
+    }
+}
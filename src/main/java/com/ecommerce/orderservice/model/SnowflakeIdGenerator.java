@@ -0,0 +1,57 @@
+package com.ecommerce.orderservice.model;
+
+import com.ecommerce.orderservice.service.ShardRouting;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Assigns {@link SnowflakeIds} in memory, so an insert needs no sequence or IDENTITY round trip
+ * and instances write without coordinating. The node id comes from
+ * {@code spring.jpa.properties.orderservice.id.node_id} and must differ between instances; the
+ * shard the row is written to goes into the low bits. Startup fails when orders are sharded and
+ * no node id is set, since every instance would then issue the same ids.
+ */
+public class SnowflakeIdGenerator implements IdentifierGenerator {
+    
+    public static final String NODE_ID_SETTING = "orderservice.id.node_id";
+    public static final String SHARD_COUNT_SETTING = "orderservice.id.shard_count";
+    public static final String MAX_CLOCK_REGRESSION_SETTING = "orderservice.id.max_clock_regression_ms";
+    public static final long DEFAULT_MAX_CLOCK_REGRESSION_MS = 1000;
+    
+    private SnowflakeIds ids;
+    
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        ConfigurationService settings = serviceRegistry.getService(ConfigurationService.class);
+        int nodeId = nodeId(settings.getSetting(NODE_ID_SETTING, StandardConverters.STRING, ""),
+            settings.getSetting(SHARD_COUNT_SETTING, StandardConverters.INTEGER, 1));
+        long maxClockRegression = settings.getSetting(MAX_CLOCK_REGRESSION_SETTING, StandardConverters.LONG,
+            DEFAULT_MAX_CLOCK_REGRESSION_MS);
+        ids = new SnowflakeIds(nodeId, maxClockRegression);
+    }
+    
+    static int nodeId(String configured, int shardCount) {
+        if (configured != null && !configured.isBlank()) {
+            return Integer.parseInt(configured.trim());
+        }
+        if (shardCount > 1) {
+            throw new MappingException(NODE_ID_SETTING + " is not set; with " + shardCount
+                + " shards, every instance needs its own node id or their ids collide");
+        }
+        System.err.println("WARNING: " + NODE_ID_SETTING + " is not set, using node 0; give each instance "
+            + "its own node id before running more than one");
+        return 0;
+    }
+    
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return ShardRouting.encode(ids.next(), ShardRouting.currentShard());
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.orderservice.model;
+
+import com.ecommerce.orderservice.service.ShardRouting;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Coordination-free 64-bit ids: milliseconds since {@link #EPOCH}, the node id of this instance
+ * and a per-millisecond sequence, above the {@link ShardRouting#SHARD_BITS} that
+ * {@link ShardRouting#encode} adds. Ids of one node increase over time, so they still sort by
+ * creation. The timestamp and sequence share one {@link AtomicLong} and advance by CAS.
+ */
+public class SnowflakeIds {
+
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    public static final int TIMESTAMP_BITS = 41;
+    public static final int NODE_BITS = 5;
+    public static final int SEQUENCE_BITS = 63 - ShardRouting.SHARD_BITS - TIMESTAMP_BITS - NODE_BITS;
+    public static final int MAX_NODES = 1 << NODE_BITS;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long NODE_MASK = MAX_NODES - 1;
+
+    private final long node;
+    private final long maxClockRegressionMillis;
+    private final LongSupplier clock;
+    // Milliseconds since EPOCH << SEQUENCE_BITS | sequence, of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIds(int nodeId, long maxClockRegressionMillis, LongSupplier clock) {
+        if (nodeId < 0 || nodeId >= MAX_NODES) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + (MAX_NODES - 1));
+        }
+        this.node = nodeId;
+        this.maxClockRegressionMillis = maxClockRegressionMillis;
+        this.clock = clock;
+    }
+
+    public SnowflakeIds(int nodeId, long maxClockRegressionMillis) {
+        this(nodeId, maxClockRegressionMillis, System::currentTimeMillis);
+    }
+
+    // Returns the id without shard bits; pass it through ShardRouting.encode
+    public long next() {
+        while (true) {
+            long now = clock.getAsLong() - EPOCH;
+            long current = last.get();
+            long lastMillis = current >>> SEQUENCE_BITS;
+            long next;
+            if (now > lastMillis) {
+                next = now << SEQUENCE_BITS;
+            } else if (lastMillis - now > maxClockRegressionMillis) {
+                throw new IllegalStateException("Clock moved back " + (lastMillis - now) + " ms behind the last issued id");
+            } else if ((current & SEQUENCE_MASK) == SEQUENCE_MASK) {
+                // This millisecond's sequence is used up; wait for the clock to move on
+                Thread.onSpinWait();
+                continue;
+            } else {
+                // Same millisecond, or the clock stepped back a little: keep counting on the last one
+                next = current + 1;
+            }
+            if (last.compareAndSet(current, next)) {
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | node << SEQUENCE_BITS | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    // Smallest full id that can be issued at or after the given time, for range scans by time
+    public static long lowestIdAt(long epochMillis) {
+        return Math.max(0, epochMillis - EPOCH) << (ShardRouting.SHARD_BITS + NODE_BITS + SEQUENCE_BITS);
+    }
+
+    // Decoders for full ids, shard bits included
+    public static long timestampOf(long id) {
+        return EPOCH + (id >>> (ShardRouting.SHARD_BITS + NODE_BITS + SEQUENCE_BITS));
+    }
+
+    public static int nodeOf(long id) {
+        return (int) ((id >>> (ShardRouting.SHARD_BITS + SEQUENCE_BITS)) & NODE_MASK);
+    }
+
+    public static long sequenceOf(long id) {
+        return (id >>> ShardRouting.SHARD_BITS) & SEQUENCE_MASK;
+    }
+}
@@ -0,0 +1,123 @@
+package com.ecommerce.orderservice.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Per-user read model for dashboards: kept up to date by OrderService in the same transaction
+// as each order write, and recomputed from orders by UserOrderSummaryService.rebuild().
+@Entity
+@Table(name = "user_order_summaries")
+public class UserOrderSummary {
+    @Id
+    private Long userId;
+    
+    private long orderCount;
+    private long pendingCount;
+    private long confirmedCount;
+    private long processingCount;
+    private long shippedCount;
+    private long deliveredCount;
+    private long cancelledCount;
+    private long rejectedCount;
+    
+    @Column(nullable = false)
+    private BigDecimal totalSpend = BigDecimal.ZERO;
+    
+    private LocalDateTime lastOrderDate;
+    
+    // Wrapper type, so Spring Data persists new summaries without a merge round trip
+    @Version
+    private Long version;
+
+    public UserOrderSummary() {}
+
+    public UserOrderSummary(Long userId) {
+        this.userId = userId;
+    }
+
+    public void addOrders(Order.OrderStatus status, long count, BigDecimal amount, LocalDateTime orderDate) {
+        orderCount += count;
+        adjustCount(status, count);
+        if (countsTowardSpend(status)) {
+            totalSpend = totalSpend.add(amount);
+        }
+        if (orderDate != null && (lastOrderDate == null || orderDate.isAfter(lastOrderDate))) {
+            lastOrderDate = orderDate;
+        }
+    }
+
+    public void changeOrder(Order.OrderStatus from, BigDecimal fromAmount, Order.OrderStatus to, BigDecimal toAmount) {
+        adjustCount(from, -1);
+        adjustCount(to, 1);
+        if (countsTowardSpend(from)) {
+            totalSpend = totalSpend.subtract(fromAmount);
+        }
+        if (countsTowardSpend(to)) {
+            totalSpend = totalSpend.add(toAmount);
+        }
+    }
+
+    // Zeroes the summary before a rebuild adds the recomputed totals back
+    public void reset() {
+        orderCount = 0;
+        pendingCount = 0;
+        confirmedCount = 0;
+        processingCount = 0;
+        shippedCount = 0;
+        deliveredCount = 0;
+        cancelledCount = 0;
+        rejectedCount = 0;
+        totalSpend = BigDecimal.ZERO;
+        lastOrderDate = null;
+    }
+
+    // Cancelled and rejected orders were never paid for
+    private static boolean countsTowardSpend(Order.OrderStatus status) {
+        return status != Order.OrderStatus.CANCELLED && status != Order.OrderStatus.REJECTED;
+    }
+
+    private void adjustCount(Order.OrderStatus status, long delta) {
+        switch (status) {
+            case PENDING -> pendingCount += delta;
+            case CONFIRMED -> confirmedCount += delta;
+            case PROCESSING -> processingCount += delta;
+            case SHIPPED -> shippedCount += delta;
+            case DELIVERED -> deliveredCount += delta;
+            case CANCELLED -> cancelledCount += delta;
+            case REJECTED -> rejectedCount += delta;
+        }
+    }
+
+    public long getStatusCount(Order.OrderStatus status) {
+        return switch (status) {
+            case PENDING -> pendingCount;
+            case CONFIRMED -> confirmedCount;
+            case PROCESSING -> processingCount;
+            case SHIPPED -> shippedCount;
+            case DELIVERED -> deliveredCount;
+            case CANCELLED -> cancelledCount;
+            case REJECTED -> rejectedCount;
+        };
+    }
+
+    // Getters
+    public Long getUserId() { return userId; }
+    
+    public long getOrderCount() { return orderCount; }
+    
+    public Map<Order.OrderStatus, Long> getStatusCounts() {
+        Map<Order.OrderStatus, Long> counts = new EnumMap<>(Order.OrderStatus.class);
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            counts.put(status, getStatusCount(status));
+        }
+        return counts;
+    }
+    
+    public BigDecimal getTotalSpend() { return totalSpend; }
+    
+    public LocalDateTime getLastOrderDate() { return lastOrderDate; }
+}
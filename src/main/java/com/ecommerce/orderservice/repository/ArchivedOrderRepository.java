@@ -0,0 +1,144 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.dto.OrderSummary;
+import com.ecommerce.orderservice.model.ArchivedOrder;
+import com.ecommerce.orderservice.model.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Read side of the archive mirrors the OrderRepository queries that have to see every order,
+// returning the same views so callers merge both without converting.
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+    @Override
+    @EntityGraph(attributePaths = "orderItems")
+    Optional<ArchivedOrder> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "orderItems")
+    List<ArchivedOrder> findAll();
+
+    @EntityGraph(attributePaths = "orderItems")
+    List<ArchivedOrder> findByUserId(Long userId);
+
+    @Query("select new com.ecommerce.orderservice.dto.OrderSummary(o.id, o.userId, o.totalAmount, o.status, " +
+           "o.orderDate, o.shippingAddress, o.version) from ArchivedOrder o where o.userId = :userId")
+    List<OrderSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    @Query("select new com.ecommerce.orderservice.dto.OrderSummary(o.id, o.userId, o.totalAmount, o.status, " +
+           "o.orderDate, o.shippingAddress, o.version) from ArchivedOrder o")
+    List<OrderSummary> findAllSummaries();
+
+    // Same statements as OrderRepository.findSummariesByProductId, on the archived tables
+    default List<OrderSummary> findSummariesByProductId(Long productId, Order.OrderStatus status,
+                                                        LocalDateTime from, LocalDateTime to,
+                                                        Long beforeId, Pageable pageable) {
+        long before = beforeId != null ? beforeId : Long.MAX_VALUE;
+        if (from == null && to == null) {
+            return status == null
+                ? findSummariesByProductIdBefore(productId, before, pageable)
+                : findSummariesByProductIdAndStatusBefore(productId, status, before, pageable);
+        }
+        LocalDateTime start = from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime end = to != null ? to : LocalDateTime.of(9999, 12, 31, 0, 0);
+        return status == null
+            ? findSummariesByProductIdInRangeBefore(productId, start, end, before, pageable)
+            : findSummariesByProductIdAndStatusInRangeBefore(productId, status, start, end, before, pageable);
+    }
+
+    @Query("select new com.ecommerce.orderservice.dto.OrderSummary(o.id, o.userId, o.totalAmount, o.status, " +
+           "o.orderDate, o.shippingAddress, o.version) from ArchivedOrderItem i join i.order o " +
+           "where i.productId = :productId and i.order.id < :beforeId " +
+           "order by i.order.id desc")
+    List<OrderSummary> findSummariesByProductIdBefore(@Param("productId") Long productId,
+                                                      @Param("beforeId") long beforeId,
+                                                      Pageable pageable);
+
+    @Query("select new com.ecommerce.orderservice.dto.OrderSummary(o.id, o.userId, o.totalAmount, o.status, " +
+           "o.orderDate, o.shippingAddress, o.version) from ArchivedOrderItem i join i.order o " +
+           "where i.productId = :productId and i.order.id < :beforeId and o.status = :status " +
+           "order by i.order.id desc")
+    List<OrderSummary> findSummariesByProductIdAndStatusBefore(@Param("productId") Long productId,
+                                                               @Param("status") Order.OrderStatus status,
+                                                               @Param("beforeId") long beforeId,
+                                                               Pageable pageable);
+
+    @Query("select new com.ecommerce.orderservice.dto.OrderSummary(o.id, o.userId, o.totalAmount, o.status, " +
+           "o.orderDate, o.shippingAddress, o.version) from ArchivedOrderItem i join i.order o " +
+           "where i.productId = :productId and i.order.id < :beforeId " +
+           "and o.orderDate >= :from and o.orderDate < :to " +
+           "order by i.order.id desc")
+    List<OrderSummary> findSummariesByProductIdInRangeBefore(@Param("productId") Long productId,
+                                                             @Param("from") LocalDateTime from,
+                                                             @Param("to") LocalDateTime to,
+                                                             @Param("beforeId") long beforeId,
+                                                             Pageable pageable);
+
+    @Query("select new com.ecommerce.orderservice.dto.OrderSummary(o.id, o.userId, o.totalAmount, o.status, " +
+           "o.orderDate, o.shippingAddress, o.version) from ArchivedOrderItem i join i.order o " +
+           "where i.productId = :productId and i.order.id < :beforeId and o.status = :status " +
+           "and o.orderDate >= :from and o.orderDate < :to " +
+           "order by i.order.id desc")
+    List<OrderSummary> findSummariesByProductIdAndStatusInRangeBefore(@Param("productId") Long productId,
+                                                                      @Param("status") Order.OrderStatus status,
+                                                                      @Param("from") LocalDateTime from,
+                                                                      @Param("to") LocalDateTime to,
+                                                                      @Param("beforeId") long beforeId,
+                                                                      Pageable pageable);
+
+    @Query("select o.userId as userId, o.version as version, o.status as status, o.totalAmount as totalAmount, " +
+           "o.orderDate as orderDate from ArchivedOrder o where o.id = :id")
+    Optional<OrderRepository.OrderVersionView> findVersionViewById(@Param("id") Long id);
+
+    @Query("select count(o) as orderCount, coalesce(max(o.id), 0) as maxId, coalesce(sum(o.version), 0) as versionSum " +
+           "from ArchivedOrder o where o.userId = :userId")
+    OrderRepository.UserOrdersVersionView findUserOrdersVersionView(@Param("userId") Long userId);
+
+    @Query("select o.userId as userId, o.status as status, count(o) as orderCount, " +
+           "coalesce(sum(o.totalAmount), 0) as totalAmount, max(o.orderDate) as lastOrderDate " +
+           "from ArchivedOrder o where o.userId in :userIds group by o.userId, o.status")
+    List<OrderRepository.UserStatusTotalsView> findUserStatusTotals(@Param("userIds") Collection<Long> userIds);
+
+    @Query("select o.status as status, count(o) as orderCount from ArchivedOrder o group by o.status")
+    List<OrderRepository.StatusCountView> countGroupedByStatus();
+
+    @Query("select extract(date from o.orderDate) as orderDay, extract(hour from o.orderDate) as hourOfDay, " +
+           "o.status as status, count(o) as orderCount, coalesce(sum(o.totalAmount), 0) as totalAmount " +
+           "from ArchivedOrder o where o.orderDate is not null " +
+           "group by extract(date from o.orderDate), extract(hour from o.orderDate), o.status")
+    List<OrderRepository.HourlyRevenueView> findHourlyRevenueTotals();
+
+    @Query("select i.productId as productId, max(i.productName) as productName, " +
+           "extract(date from o.orderDate) as orderDay, extract(hour from o.orderDate) as hourOfDay, " +
+           "sum(i.quantity) as unitsSold, sum(i.totalPrice) as revenue " +
+           "from ArchivedOrderItem i join i.order o where o.status <> :excluded and o.orderDate is not null " +
+           "group by i.productId, extract(date from o.orderDate), extract(hour from o.orderDate)")
+    List<OrderRepository.HourlyProductSalesView> findHourlyProductSales(@Param("excluded") Order.OrderStatus excluded);
+
+    // Copies run inside OrderArchiver's transaction, between locking the rows and deleting them
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query(value = "insert into archived_orders (id, user_id, total_amount, status, order_date, shipping_address, " +
+                   "version, archived_at) select id, user_id, total_amount, status, order_date, shipping_address, " +
+                   "version, :archivedAt from orders where id in (:ids)", nativeQuery = true)
+    int copyOrders(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query(value = "insert into archived_order_items (id, order_id, product_id, product_name, quantity, unit_price, " +
+                   "total_price) select id, order_id, product_id, product_name, quantity, unit_price, total_price " +
+                   "from order_items where order_id in (:ids)", nativeQuery = true)
+    int copyItems(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+    // A plain INSERT, so a key that is already taken fails on the primary key instead of
+    // being merged the way save() would treat an assigned id
+    @Transactional
+    @Modifying
+    @Query(value = "insert into idempotency_keys (idempotency_key, created_at, owner, lease_until, request_hash) " +
+                   "values (:key, :createdAt, :owner, :leaseUntil, :requestHash)", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("owner") String owner, @Param("requestHash") String requestHash,
+              @Param("createdAt") LocalDateTime createdAt, @Param("leaseUntil") LocalDateTime leaseUntil);
+    
+    // The writes below only touch the claim of the given owner, so an attempt whose claim was
+    // taken over can no longer renew, complete or release it
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyKey k set k.leaseUntil = :leaseUntil where k.key = :key and k.owner = :owner and k.orderId is null")
+    int renew(@Param("key") String key, @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil);
+    
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyKey k set k.orderId = :orderId where k.key = :key and k.owner = :owner and k.orderId is null")
+    int complete(@Param("key") String key, @Param("owner") String owner, @Param("orderId") Long orderId);
+    
+    // Drops a claim whose attempt failed, leaving completed keys alone
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.key = :key and k.owner = :owner and k.orderId is null")
+    int release(@Param("key") String key, @Param("owner") String owner);
+    
+    // Takes over the claim of an owner that stopped renewing it, and nothing newer
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.key = :key and k.owner = :owner and k.orderId is null and k.leaseUntil < :now")
+    int deleteIfLeaseExpired(@Param("key") String key, @Param("owner") String owner, @Param("now") LocalDateTime now);
+    
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.key = :key and k.createdAt < :cutoff")
+    int deleteIfCreatedBefore(@Param("key") String key, @Param("cutoff") LocalDateTime cutoff);
+    
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.model.OrderEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+    // Served by the (order_id, sequence_number) unique index
+    List<OrderEvent> findByOrderIdAndSequenceNumberGreaterThanOrderBySequenceNumber(Long orderId, long sequenceNumber);
+
+    // Events issued in an id range, i.e. a time range; served by the primary key
+    List<OrderEvent> findByIdBetweenOrderById(long fromId, long toId);
+
+    // Events after afterId not yet folded into a snapshot, in id order. The id range on the primary
+    // key keeps each pass to recent events; the snapshot check drops ones an earlier pass folded.
+    @Query("select e from OrderEvent e where e.id > :afterId and e.sequenceNumber > coalesce(" +
+           "(select s.sequenceNumber from OrderEventSnapshot s where s.orderId = e.orderId), -1) " +
+           "order by e.id")
+    List<OrderEvent> findUnsnapshottedAfter(@Param("afterId") long afterId, Pageable pageable);
+}
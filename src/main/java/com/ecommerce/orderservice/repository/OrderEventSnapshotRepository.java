@@ -0,0 +1,14 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.model.OrderEventSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface OrderEventSnapshotRepository extends JpaRepository<OrderEventSnapshot, Long> {
+    @Query("select max(s.takenAt) from OrderEventSnapshot s")
+    LocalDateTime findLastTakenAt();
+}
@@ -1,13 +1,225 @@
 package com.ecommerce.orderservice.repository;
 
+import com.ecommerce.orderservice.dto.OrderSummary;
 import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderItem;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    // Order entities are rendered straight to JSON outside a session (open-in-view is off),
+    // so every read path fetches orderItems in the same statement.
+    @Override
+    @EntityGraph(attributePaths = "orderItems")
+    Optional<Order> findById(Long id);
+    
+    @Override
+    @EntityGraph(attributePaths = "orderItems")
+    List<Order> findAll();
+    
+    @EntityGraph(attributePaths = "orderItems")
     List<Order> findByUserId(Long userId);
+    
+    @EntityGraph(attributePaths = "orderItems")
     List<Order> findByStatus(Order.OrderStatus status);
-}
\ No newline at end of file
+    
+    @Query("select new com.ecommerce.orderservice.dto.OrderSummary(o.id, o.userId, o.totalAmount, o.status, " +
+           "o.orderDate, o.shippingAddress, o.version) from Order o where o.userId = :userId")
+    List<OrderSummary> findSummariesByUserId(@Param("userId") Long userId);
+    
+    @Query("select new com.ecommerce.orderservice.dto.OrderSummary(o.id, o.userId, o.totalAmount, o.status, " +
+           "o.orderDate, o.shippingAddress, o.version) from Order o")
+    List<OrderSummary> findAllSummaries();
+    
+    // Keyset page of the orders containing a product, newest id first. The cursor and the sort are
+    // on order_items.order_id, so the (product_id, order_id) index delivers the rows in order and
+    // the scan stops at the page size. Each filter combination has its own statement rather than
+    // catch-all "is null or" predicates. An order with the product on two items comes back twice,
+    // and OrderService drops the repeat.
+    default List<OrderSummary> findSummariesByProductId(Long productId, Order.OrderStatus status,
+                                                        LocalDateTime from, LocalDateTime to,
+                                                        Long beforeId, Pageable pageable) {
+        long before = beforeId != null ? beforeId : Long.MAX_VALUE;
+        if (from == null && to == null) {
+            return status == null
+                ? findSummariesByProductIdBefore(productId, before, pageable)
+                : findSummariesByProductIdAndStatusBefore(productId, status, before, pageable);
+        }
+        LocalDateTime start = from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime end = to != null ? to : LocalDateTime.of(9999, 12, 31, 0, 0);
+        return status == null
+            ? findSummariesByProductIdInRangeBefore(productId, start, end, before, pageable)
+            : findSummariesByProductIdAndStatusInRangeBefore(productId, status, start, end, before, pageable);
+    }
+    
+    @Query("select new com.ecommerce.orderservice.dto.OrderSummary(o.id, o.userId, o.totalAmount, o.status, " +
+           "o.orderDate, o.shippingAddress, o.version) from OrderItem i join i.order o " +
+           "where i.productId = :productId and i.order.id < :beforeId " +
+           "order by i.order.id desc")
+    List<OrderSummary> findSummariesByProductIdBefore(@Param("productId") Long productId,
+                                                      @Param("beforeId") long beforeId,
+                                                      Pageable pageable);
+    
+    @Query("select new com.ecommerce.orderservice.dto.OrderSummary(o.id, o.userId, o.totalAmount, o.status, " +
+           "o.orderDate, o.shippingAddress, o.version) from OrderItem i join i.order o " +
+           "where i.productId = :productId and i.order.id < :beforeId and o.status = :status " +
+           "order by i.order.id desc")
+    List<OrderSummary> findSummariesByProductIdAndStatusBefore(@Param("productId") Long productId,
+                                                               @Param("status") Order.OrderStatus status,
+                                                               @Param("beforeId") long beforeId,
+                                                               Pageable pageable);
+    
+    @Query("select new com.ecommerce.orderservice.dto.OrderSummary(o.id, o.userId, o.totalAmount, o.status, " +
+           "o.orderDate, o.shippingAddress, o.version) from OrderItem i join i.order o " +
+           "where i.productId = :productId and i.order.id < :beforeId " +
+           "and o.orderDate >= :from and o.orderDate < :to " +
+           "order by i.order.id desc")
+    List<OrderSummary> findSummariesByProductIdInRangeBefore(@Param("productId") Long productId,
+                                                             @Param("from") LocalDateTime from,
+                                                             @Param("to") LocalDateTime to,
+                                                             @Param("beforeId") long beforeId,
+                                                             Pageable pageable);
+    
+    @Query("select new com.ecommerce.orderservice.dto.OrderSummary(o.id, o.userId, o.totalAmount, o.status, " +
+           "o.orderDate, o.shippingAddress, o.version) from OrderItem i join i.order o " +
+           "where i.productId = :productId and i.order.id < :beforeId and o.status = :status " +
+           "and o.orderDate >= :from and o.orderDate < :to " +
+           "order by i.order.id desc")
+    List<OrderSummary> findSummariesByProductIdAndStatusInRangeBefore(@Param("productId") Long productId,
+                                                                      @Param("status") Order.OrderStatus status,
+                                                                      @Param("from") LocalDateTime from,
+                                                                      @Param("to") LocalDateTime to,
+                                                                      @Param("beforeId") long beforeId,
+                                                                      Pageable pageable);
+    
+    @Query("select o.userId as userId, o.version as version, o.status as status, o.totalAmount as totalAmount, " +
+           "o.orderDate as orderDate from Order o where o.id = :id")
+    Optional<OrderVersionView> findVersionViewById(@Param("id") Long id);
+    
+    // Served by the unique constraint on idempotency_key
+    @Query("select o.id from Order o where o.idempotencyKey = :key")
+    Optional<Long> findIdByIdempotencyKey(@Param("key") String key);
+    
+    // Changes whenever an order of the user is created, deleted or has its version bumped. Ids are
+    // Snowflake values near 2^58, so they are compared by max rather than summed; a new order always
+    // has the highest id, and a deletion changes the count.
+    @Query("select count(o) as orderCount, coalesce(max(o.id), 0) as maxId, coalesce(sum(o.version), 0) as versionSum " +
+           "from Order o where o.userId = :userId")
+    UserOrdersVersionView findUserOrdersVersionView(@Param("userId") Long userId);
+    
+    // Compare-and-set on the version column; returns 0 when another writer got there first
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = :status, o.version = o.version + 1 where o.id = :id and o.version = :version")
+    int updateStatus(@Param("id") Long id, @Param("status") Order.OrderStatus status, @Param("version") long version);
+    
+    // Input for UserOrderSummaryService.rebuild(): one row per user and status
+    @Query("select o.userId as userId, o.status as status, count(o) as orderCount, " +
+           "coalesce(sum(o.totalAmount), 0) as totalAmount, max(o.orderDate) as lastOrderDate " +
+           "from Order o where o.userId in :userIds group by o.userId, o.status")
+    List<UserStatusTotalsView> findUserStatusTotals(@Param("userIds") Collection<Long> userIds);
+    
+    @Query("select o.status as status, count(o) as orderCount from Order o group by o.status")
+    List<StatusCountView> countGroupedByStatus();
+    
+    // Input for RevenueRollupService.backfill(): one row per hour of order dates and status
+    @Query("select extract(date from o.orderDate) as orderDay, extract(hour from o.orderDate) as hourOfDay, " +
+           "o.status as status, count(o) as orderCount, coalesce(sum(o.totalAmount), 0) as totalAmount " +
+           "from Order o where o.orderDate is not null " +
+           "group by extract(date from o.orderDate), extract(hour from o.orderDate), o.status")
+    List<HourlyRevenueView> findHourlyRevenueTotals();
+    
+    // Input for ProductSalesIndex.backfill(): units and revenue per product and hour of order date
+    @Query("select i.productId as productId, max(i.productName) as productName, " +
+           "extract(date from o.orderDate) as orderDay, extract(hour from o.orderDate) as hourOfDay, " +
+           "sum(i.quantity) as unitsSold, sum(i.totalPrice) as revenue " +
+           "from OrderItem i join i.order o where o.status <> :excluded and o.orderDate is not null " +
+           "group by i.productId, extract(date from o.orderDate), extract(hour from o.orderDate)")
+    List<HourlyProductSalesView> findHourlyProductSales(@Param("excluded") Order.OrderStatus excluded);
+    
+    // Oldest first, so each archival batch takes the orders that have been finished the longest.
+    // Locked until the batch commits, so a status change waits and then finds the order gone.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o.id from Order o where o.status in :statuses and o.orderDate < :before order by o.orderDate")
+    List<Long> lockArchivable(@Param("statuses") Collection<Order.OrderStatus> statuses,
+                              @Param("before") LocalDateTime before, Pageable pageable);
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query("delete from OrderItem i where i.order.id in :orderIds")
+    int deleteItemsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Order o where o.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+    
+    // POST /async shells still PENDING have not been completed by a worker yet
+    @Query("select o.id from Order o where o.submission = true and o.status = :status and o.orderDate < :before")
+    List<Long> findSubmissionIdsByStatus(@Param("status") Order.OrderStatus status,
+                                         @Param("before") LocalDateTime before, Pageable pageable);
+    
+    @Query("select i from OrderItem i where i.order.id = :orderId")
+    List<OrderItem> findItemsByOrderId(@Param("orderId") Long orderId);
+    
+    interface OrderVersionView {
+        Long getUserId();
+        Long getVersion();
+        Order.OrderStatus getStatus();
+        BigDecimal getTotalAmount();
+        LocalDateTime getOrderDate();
+    }
+    
+    interface UserOrdersVersionView {
+        Long getOrderCount();
+        Long getMaxId();
+        Long getVersionSum();
+    }
+    
+    interface UserStatusTotalsView {
+        Long getUserId();
+        Order.OrderStatus getStatus();
+        Long getOrderCount();
+        BigDecimal getTotalAmount();
+        LocalDateTime getLastOrderDate();
+    }
+    
+    interface HourlyRevenueView {
+        LocalDate getOrderDay();
+        Integer getHourOfDay();
+        Order.OrderStatus getStatus();
+        Long getOrderCount();
+        BigDecimal getTotalAmount();
+    }
+    
+    interface HourlyProductSalesView {
+        Long getProductId();
+        String getProductName();
+        LocalDate getOrderDay();
+        Integer getHourOfDay();
+        Long getUnitsSold();
+        BigDecimal getRevenue();
+    }
+    
+    interface StatusCountView {
+        Order.OrderStatus getStatus();
+        Long getOrderCount();
+    }
+}
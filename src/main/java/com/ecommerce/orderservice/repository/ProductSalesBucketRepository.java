@@ -0,0 +1,34 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.model.ProductSalesBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductSalesBucketRepository extends JpaRepository<ProductSalesBucket, ProductSalesBucket.Key> {
+    @Query("select b from ProductSalesBucket b where b.id.bucketStart >= :from")
+    List<ProductSalesBucket> findSince(@Param("from") LocalDateTime from);
+    
+    // Applies a delta in place, so instances flushing the same bucket add up instead of overwriting
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query("update ProductSalesBucket b set b.unitsSold = b.unitsSold + :units, b.revenue = b.revenue + :revenue, " +
+           "b.productName = :productName where b.id.productId = :productId and b.id.bucketStart = :bucketStart")
+    int increment(@Param("productId") Long productId, @Param("bucketStart") LocalDateTime bucketStart,
+                  @Param("productName") String productName,
+                  @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query("delete from ProductSalesBucket b where b.id.bucketStart < :before")
+    int deleteBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.RevenueRollup;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevenueRollupRepository extends JpaRepository<RevenueRollup, RevenueRollup.Key> {
+    @Query("select r from RevenueRollup r where r.id.granularity = :granularity " +
+           "and r.id.bucketStart >= :from and r.id.bucketStart < :to order by r.id.bucketStart")
+    List<RevenueRollup> findRange(@Param("granularity") RevenueRollup.Granularity granularity,
+                                  @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // Taken by RevenueRollupService.backfill() before it reads the order totals
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from RevenueRollup r")
+    List<RevenueRollup> findAllForUpdate();
+    
+    // Plain INSERT, so a row created concurrently fails on the primary key instead of being merged
+    @Transactional
+    @Modifying
+    @Query(value = "insert into revenue_rollups (granularity, bucket_start, status, order_count, gross_amount, version) " +
+                   "values (:granularity, :bucketStart, :status, 0, 0, 0)", nativeQuery = true)
+    int insertEmpty(@Param("granularity") String granularity, @Param("bucketStart") LocalDateTime bucketStart,
+                    @Param("status") String status);
+    
+    // Creates a row in the caller's transaction: one increment() found missing, or a bucket a
+    // backfill found with no row
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query(value = "insert into revenue_rollups (granularity, bucket_start, status, order_count, gross_amount, version) " +
+                   "values (:granularity, :bucketStart, :status, :count, :amount, 0)", nativeQuery = true)
+    int insert(@Param("granularity") String granularity, @Param("bucketStart") LocalDateTime bucketStart,
+               @Param("status") String status, @Param("count") long count, @Param("amount") BigDecimal amount);
+    
+    // In-place increment: the row lock it takes is held until the order write commits,
+    // and concurrent writers to the same bucket never read-modify-write
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query("update RevenueRollup r set r.orderCount = r.orderCount + :count, r.grossAmount = r.grossAmount + :amount " +
+           "where r.id.granularity = :granularity and r.id.bucketStart = :bucketStart and r.id.status = :status")
+    int increment(@Param("granularity") RevenueRollup.Granularity granularity,
+                  @Param("bucketStart") LocalDateTime bucketStart,
+                  @Param("status") Order.OrderStatus status,
+                  @Param("count") long count, @Param("amount") BigDecimal amount);
+}
@@ -0,0 +1,45 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.model.UserOrderSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserOrderSummaryRepository extends JpaRepository<UserOrderSummary, Long> {
+    // Row lock held until the order write commits, so concurrent writes for one user queue up
+    // instead of losing each other's increments
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UserOrderSummary s where s.userId = :userId")
+    Optional<UserOrderSummary> findForUpdate(@Param("userId") Long userId);
+    
+    // One rebuild() batch, locked before its order totals are read
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UserOrderSummary s where s.userId > :after order by s.userId")
+    List<UserOrderSummary> lockBatchAfter(@Param("after") Long after, Pageable pageable);
+    
+    @Query("select distinct o.userId from Order o " +
+           "where not exists (select s.userId from UserOrderSummary s where s.userId = o.userId)")
+    List<Long> findOrderUserIdsWithoutSummary();
+    
+    @Query("select distinct o.userId from ArchivedOrder o " +
+           "where not exists (select s.userId from UserOrderSummary s where s.userId = o.userId)")
+    List<Long> findArchivedOrderUserIdsWithoutSummary();
+    
+    // Plain INSERT, so a row created concurrently fails on the primary key instead of being merged
+    @Transactional
+    @Modifying
+    @Query(value = "insert into user_order_summaries (user_id, order_count, pending_count, confirmed_count, " +
+                   "processing_count, shipped_count, delivered_count, cancelled_count, rejected_count, total_spend, version) " +
+                   "values (:userId, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0)", nativeQuery = true)
+    int insertEmpty(@Param("userId") Long userId);
+}
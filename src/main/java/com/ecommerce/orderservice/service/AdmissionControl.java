@@ -0,0 +1,136 @@
+package com.ecommerce.orderservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Decides whether an order write may start, before any telemetry, downstream call or DB work.
+// Each user gets a token bucket; on top of that, the service as a whole sheds load once too many
+// writes are in flight or recent writes have been taking longer than the latency budget.
+@Component
+public class AdmissionControl {
+
+    // Weight of the newest sample in the moving average of write latency
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final Cache<Long, TokenBucket> buckets;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxInFlight;
+    private final long maxLatencyNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong averageLatencyNanos = new AtomicLong();
+    private final Counter userRateRejections;
+    private final Counter overloadRejections;
+
+    public AdmissionControl(@Value("${orders.admission.user-rate:10}") double userRatePerSecond,
+                            @Value("${orders.admission.user-burst:20}") int userBurst,
+                            @Value("${orders.admission.max-tracked-users:100000}") long maxTrackedUsers,
+                            @Value("${orders.admission.idle-timeout:PT10M}") Duration idleTimeout,
+                            @Value("${orders.admission.max-in-flight:200}") int maxInFlight,
+                            @Value("${orders.admission.max-latency:PT2S}") Duration maxLatency,
+                            MeterRegistry meterRegistry) {
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / userRatePerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * userBurst;
+        this.maxInFlight = maxInFlight;
+        this.maxLatencyNanos = maxLatency.toNanos();
+        // Bounded, and a user who stops sending drops out; a fresh bucket starts full anyway
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maxTrackedUsers)
+            .expireAfterAccess(idleTimeout)
+            .build();
+
+        meterRegistry.gauge("orders.admission.in_flight", inFlight);
+        this.userRateRejections = Counter.builder("orders.admission.rejected").tag("reason", "user_rate").register(meterRegistry);
+        this.overloadRejections = Counter.builder("orders.admission.rejected").tag("reason", "overloaded").register(meterRegistry);
+    }
+
+    // The returned ticket must be closed when the write finishes; that frees its in-flight slot
+    // and feeds its latency into the shedding decision.
+    public Ticket admit(Long userId) {
+        if (userId != null) {
+            long waitNanos = buckets.get(userId, key -> new TokenBucket())
+                .tryAcquire(System.nanoTime(), emissionIntervalNanos, burstToleranceNanos);
+            if (waitNanos > 0) {
+                userRateRejections.increment();
+                throw new RejectedException(429, "Too many orders for user " + userId, waitNanos);
+            }
+        }
+
+        int current = inFlight.incrementAndGet();
+        // Once latency is over budget, only let work in after what is already queued drains
+        if (current > maxInFlight || (current > 1 && averageLatencyNanos.get() > maxLatencyNanos)) {
+            inFlight.decrementAndGet();
+            overloadRejections.increment();
+            throw new RejectedException(503, "Order service is overloaded", TimeUnit.SECONDS.toNanos(1));
+        }
+
+        long start = System.nanoTime();
+        return () -> {
+            inFlight.decrementAndGet();
+            recordLatency(System.nanoTime() - start);
+        };
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void recordLatency(long latencyNanos) {
+        averageLatencyNanos.getAndUpdate(average -> average == 0
+            ? latencyNanos
+            : (long) (average + LATENCY_SMOOTHING * (latencyNanos - average)));
+    }
+
+    public interface Ticket extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static class RejectedException extends RuntimeException {
+        private final int status;
+        private final long retryAfterNanos;
+
+        public RejectedException(int status, String message, long retryAfterNanos) {
+            super(message);
+            this.status = status;
+            this.retryAfterNanos = retryAfterNanos;
+        }
+
+        public int getStatus() { return status; }
+
+        public long getRetryAfterSeconds() {
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        }
+    }
+
+    // Lock-free token bucket in its GCRA form: one timestamp per user, the theoretical arrival
+    // time of the next request, advanced by one emission interval per admitted request.
+    static final class TokenBucket {
+        private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+        // Returns 0 when a token was taken, otherwise how long until the next one is available
+        long tryAcquire(long now, long emissionIntervalNanos, long burstToleranceNanos) {
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                long next = Math.max(arrival, now) + emissionIntervalNanos;
+                long excess = next - now - burstToleranceNanos;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
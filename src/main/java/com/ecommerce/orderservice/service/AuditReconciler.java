@@ -0,0 +1,163 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.audit.AuditJournal;
+import com.ecommerce.orderservice.audit.AuditReader;
+import com.ecommerce.orderservice.audit.AuditRecord;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderEvent;
+import com.ecommerce.orderservice.model.SnowflakeIds;
+import com.ecommerce.orderservice.repository.OrderEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+// Mutations are journaled after their transaction commits, so a crash between the two, or an
+// append that fails, leaves a change in order_events with no audit record. Failed appends are
+// counted in orders.audit.dropped and the time of the first one is marked in the journal. On
+// startup the journal is compared with the events this instance wrote, from window before its
+// last record, or window before the first marked drop if that is earlier, and every event
+// without a matching record is appended, stamped with the time it was filled in.
+@Component
+public class AuditReconciler {
+
+    private static final int TAIL_STEP = 1024;
+
+    private final AuditJournal auditJournal;
+    private final OrderEventRepository eventRepository;
+    private final ShardRouting shardRouting;
+    private final Duration window;
+    private final int nodeId;
+    private final Counter dropped;
+    // Events issued and records appended from here on belong to this process
+    private final long startedAt = System.currentTimeMillis();
+    private final long lastSequenceAtStart;
+    // First append this process dropped; guarded by this
+    private long firstDroppedAt = Long.MAX_VALUE;
+
+    public AuditReconciler(AuditJournal auditJournal,
+                           OrderEventRepository eventRepository,
+                           ShardRouting shardRouting,
+                           MeterRegistry meterRegistry,
+                           @Value("${orders.audit.reconcile-window:PT1M}") Duration window,
+                           @Value("${spring.jpa.properties.orderservice.id.node_id:}") String nodeId) {
+        this.auditJournal = auditJournal;
+        this.eventRepository = eventRepository;
+        this.shardRouting = shardRouting;
+        this.window = window;
+        this.nodeId = nodeId.isBlank() ? 0 : Integer.parseInt(nodeId.trim());
+        this.dropped = Counter.builder("orders.audit.dropped").register(meterRegistry);
+        this.lastSequenceAtStart = auditJournal.lastSequence();
+    }
+
+    public synchronized void recordDropped() {
+        dropped.increment();
+        long now = System.currentTimeMillis();
+        firstDroppedAt = Math.min(firstDroppedAt, now);
+        try {
+            auditJournal.markGap(now);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to mark a dropped audit record: " + e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    // An event is matched to a journal record of the same order, type and status. The comparison
+    // starts window before the last record, or before the first drop marked by an earlier process,
+    // which covers events committed before it but journaled after. Returns the number of records
+    // appended.
+    public int reconcile() {
+        OptionalLong gap = auditJournal.gapSince();
+        boolean earlierGap = gap.isPresent() && gap.getAsLong() < startedAt;
+        if (lastSequenceAtStart == 0 && !earlierGap) {
+            // A new journal has nothing to line the database up against
+            return 0;
+        }
+        long from = Long.MAX_VALUE;
+        if (lastSequenceAtStart > 0) {
+            from = auditJournal.read(lastSequenceAtStart).next().timestamp().toEpochMilli() - window.toMillis();
+        }
+        if (earlierGap) {
+            from = Math.min(from, gap.getAsLong() - window.toMillis());
+        }
+        Map<String, Integer> journaled = journaledSince(from);
+
+        long lowestId = SnowflakeIds.lowestIdAt(from);
+        List<OrderEvent> events = new ArrayList<>(ShardRouting.concat(shardRouting.scatter(() ->
+            eventRepository.findByIdBetweenOrderById(lowestId, SnowflakeIds.lowestIdAt(startedAt) - 1))));
+        events.sort(Comparator.comparing(OrderEvent::getId));
+        int appended = 0;
+        for (OrderEvent event : events) {
+            if (SnowflakeIds.nodeOf(event.getId()) != nodeId) {
+                // Journaled by the instance that wrote it
+                continue;
+            }
+            String key = key(event.getOrderId(), event.getType(), event.getStatus());
+            if (journaled.merge(key, -1, Integer::sum) < 0) {
+                journaled.put(key, 0);
+                auditJournal.append(event.getType(), event.getOrderId(), event.getUserId(), event.getStatus());
+                appended++;
+            }
+        }
+        if (appended > 0) {
+            System.err.println("Audit journal was missing " + appended + " order changes since "
+                + Instant.ofEpochMilli(from) + "; appended them");
+        }
+        gapFilled();
+        return appended;
+    }
+
+    // The earlier gap is filled; one this process dropped since it started is kept
+    private synchronized void gapFilled() {
+        auditJournal.clearGap();
+        if (firstDroppedAt != Long.MAX_VALUE) {
+            auditJournal.markGap(firstDroppedAt);
+        }
+    }
+
+    // Records from the first one at or after from up to the last one from before startup, counted
+    // by key. The read starts TAIL_STEP records back and widens until it reaches past from.
+    private Map<String, Integer> journaledSince(long from) {
+        Map<String, Integer> journaled = new HashMap<>();
+        if (lastSequenceAtStart == 0) {
+            return journaled;
+        }
+        long start;
+        for (long back = TAIL_STEP; ; back *= 2) {
+            start = Math.max(1, lastSequenceAtStart - back + 1);
+            if (start == 1 || auditJournal.read(start).next().timestamp().toEpochMilli() < from) {
+                break;
+            }
+        }
+        AuditReader reader = auditJournal.read(start);
+        while (reader.hasNext()) {
+            AuditRecord record = reader.next();
+            if (record.sequence() > lastSequenceAtStart) {
+                break;
+            }
+            if (record.timestamp().toEpochMilli() >= from) {
+                journaled.merge(key(record.orderId(), record.type(), record.status()), 1, Integer::sum);
+            }
+        }
+        return journaled;
+    }
+
+    private static String key(Long orderId, OrderEvent.Type type, Order.OrderStatus status) {
+        return orderId + ":" + type + ":" + status;
+    }
+}
@@ -0,0 +1,190 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.model.IdempotencyKey;
+import com.ecommerce.orderservice.repository.IdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Maps Idempotency-Key values to the order they created. Replays on this instance are answered
+// from the in-memory hot set, and a replay of an attempt that is still running waits on its
+// future. The idempotency_keys table covers restarts and replays that land on another instance.
+// A running attempt holds its claim under a random owner token and renews the claim's lease
+// while it runs, so only a claim whose owner stopped renewing is ever taken over. The claim is
+// completed in a transaction of its own after the action commits, so an action must leave its
+// result findable by key itself; OrderService writes the key into the order row.
+@Component
+public class IdempotencyStore {
+
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private final IdempotencyKeyRepository repository;
+    private final Cache<String, Attempt> hot;
+    private final Map<String, String> ownedClaims = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Duration lease;
+
+    public IdempotencyStore(IdempotencyKeyRepository repository,
+                            @Value("${orders.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${orders.idempotency.hot-set-size:100000}") long hotSetSize,
+                            @Value("${orders.idempotency.wait-timeout:PT30S}") Duration waitTimeout,
+                            @Value("${orders.idempotency.lease:PT30S}") Duration lease) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.lease = lease;
+        this.hot = Caffeine.newBuilder()
+            .maximumSize(hotSetSize)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    // Runs action at most once per key and returns the order id it produced. A failed attempt
+    // is forgotten, so the next replay (including one already waiting) runs the action again.
+    // fingerprint identifies the request; reusing a key for a different one is rejected.
+    public Long execute(String key, String fingerprint, Supplier<Long> action) {
+        while (true) {
+            Attempt attempt = new Attempt(fingerprint, new CompletableFuture<>());
+            Attempt inFlight = hot.asMap().putIfAbsent(key, attempt);
+            if (inFlight == null) {
+                return runClaimed(key, attempt, action);
+            }
+            if (!inFlight.fingerprint().equals(fingerprint)) {
+                throw new KeyReusedException(key);
+            }
+            try {
+                return inFlight.result().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                // The attempt we waited on failed and has been removed; try to take it over
+            } catch (TimeoutException e) {
+                throw new KeyInProgressException(key);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for Idempotency-Key " + key);
+            }
+        }
+    }
+
+    private Long runClaimed(String key, Attempt attempt, Supplier<Long> action) {
+        String owner = UUID.randomUUID().toString();
+        try {
+            Long orderId = claimOrAwait(key, owner, attempt.fingerprint());
+            if (orderId == null) {
+                ownedClaims.put(key, owner);
+                try {
+                    orderId = action.get();
+                } catch (RuntimeException e) {
+                    repository.release(key, owner);
+                    throw e;
+                } finally {
+                    ownedClaims.remove(key, owner);
+                }
+                if (repository.complete(key, owner, orderId) == 0) {
+                    // Only possible if renewals failed for a whole lease and another attempt took over
+                    System.err.println("Idempotency-Key " + key + " was taken over before order " + orderId + " was recorded for it");
+                }
+            }
+            attempt.result().complete(orderId);
+            return orderId;
+        } catch (RuntimeException e) {
+            hot.asMap().remove(key, attempt);
+            attempt.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Returns null once this instance holds the claim, or the order id of an earlier attempt.
+    // Waits while another attempt holds a live claim, and takes over a claim whose lease ran
+    // out, since its owner stopped renewing it and most likely died before finishing.
+    private Long claimOrAwait(String key, String owner, String fingerprint) {
+        long deadline = System.currentTimeMillis() + waitTimeout.toMillis();
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                repository.claim(key, owner, fingerprint, now, now.plus(lease));
+                return null;
+            } catch (DataIntegrityViolationException e) {
+                // Claimed before, by an earlier attempt or by another instance
+            }
+
+            Optional<IdempotencyKey> existing = repository.findById(key);
+            if (existing.isEmpty()) {
+                continue;
+            }
+            IdempotencyKey claimed = existing.get();
+            now = LocalDateTime.now();
+            if (claimed.getOrderId() != null && !claimed.getCreatedAt().isAfter(now.minus(ttl))) {
+                repository.deleteIfCreatedBefore(key, now.minus(ttl));
+            } else if (!fingerprint.equals(claimed.getRequestHash())) {
+                throw new KeyReusedException(key);
+            } else if (claimed.getOrderId() != null) {
+                return claimed.getOrderId();
+            } else if (claimed.getLeaseUntil().isBefore(now)) {
+                repository.deleteIfLeaseExpired(key, claimed.getOwner(), now);
+            } else if (System.currentTimeMillis() > deadline) {
+                throw new KeyInProgressException(key);
+            } else {
+                sleep();
+            }
+        }
+    }
+
+    // Keeps the claims of attempts still running on this instance from being taken over
+    @Scheduled(fixedDelayString = "${orders.idempotency.heartbeat-interval:PT10S}")
+    public void renewClaims() {
+        LocalDateTime leaseUntil = LocalDateTime.now().plus(lease);
+        ownedClaims.forEach((key, owner) -> {
+            if (repository.renew(key, owner, leaseUntil) == 0 && ownedClaims.containsKey(key)) {
+                System.err.println("Lost the claim on Idempotency-Key " + key + " while its attempt is still running");
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${orders.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int purged = repository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (purged > 0) {
+            System.out.println("Purged " + purged + " expired idempotency keys");
+        }
+    }
+
+    public static class KeyInProgressException extends RuntimeException {
+        public KeyInProgressException(String key) {
+            super("Request with Idempotency-Key " + key + " is still in progress");
+        }
+    }
+
+    public static class KeyReusedException extends RuntimeException {
+        public KeyReusedException(String key) {
+            super("Idempotency-Key " + key + " was already used for a different request");
+        }
+    }
+
+    private record Attempt(String fingerprint, CompletableFuture<Long> result) {
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an Idempotency-Key claim");
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.util.Map;
 
@@ -30,90 +31,62 @@ public class NotificationServiceClient {
     }
     
     public void sendOrderConfirmation(Long orderId, Long userId) {
-        long startTime = System.currentTimeMillis();
-        String url = notificationServiceUrl + "/api/notifications/order-confirmation";
-        int statusCode = 200;
-        
-        try {
-            webClient.post()
-                .uri(url)
-                .header("Content-Type", "application/json")
-                .header("Accept", "application/json")
-                .bodyValue(Map.of("orderId", orderId, "userId", userId))
-                .retrieve()
-                .bodyToMono(Void.class)
-                .block();
-            
-            long duration = System.currentTimeMillis() - startTime;
-            if (telemetryClient != null) {
-                telemetryClient.recordServiceCall("notification-service", "send_order_confirmation", "POST", url, duration, statusCode);
-            }
-        } catch (Exception e) {
-            long duration = System.currentTimeMillis() - startTime;
-            statusCode = 500;
-            if (telemetryClient != null) {
-                telemetryClient.recordServiceCall("notification-service", "send_order_confirmation", "POST", url, duration, statusCode);
-            }
-            // Log error but don't fail order creation
-            System.err.println("Failed to send order confirmation notification: " + e.getMessage());
-        }
+        sendOrderConfirmationReactive(orderId, userId).block();
+    }
+    
+    public Mono<Void> sendOrderConfirmationReactive(Long orderId, Long userId) {
+        // Log error but don't fail order creation
+        return post("/api/notifications/order-confirmation", "send_order_confirmation",
+            Map.of("orderId", orderId, "userId", userId),
+            "Failed to send order confirmation notification: ");
     }
     
     public void sendOrderStatusUpdate(Long orderId, Long userId, String status) {
-        long startTime = System.currentTimeMillis();
-        String url = notificationServiceUrl + "/api/notifications/order-status";
-        int statusCode = 200;
-        
-        try {
-            webClient.post()
-                .uri(url)
-                .header("Content-Type", "application/json")
-                .header("Accept", "application/json")
-                .bodyValue(Map.of("orderId", orderId, "userId", userId, "status", status))
-                .retrieve()
-                .bodyToMono(Void.class)
-                .block();
-            
-            long duration = System.currentTimeMillis() - startTime;
-            if (telemetryClient != null) {
-                telemetryClient.recordServiceCall("notification-service", "send_order_status_update", "POST", url, duration, statusCode);
-            }
-        } catch (Exception e) {
-            long duration = System.currentTimeMillis() - startTime;
-            statusCode = 500;
-            if (telemetryClient != null) {
-                telemetryClient.recordServiceCall("notification-service", "send_order_status_update", "POST", url, duration, statusCode);
-            }
-            System.err.println("Failed to send order status notification: " + e.getMessage());
-        }
+        sendOrderStatusUpdateReactive(orderId, userId, status).block();
+    }
+    
+    public Mono<Void> sendOrderStatusUpdateReactive(Long orderId, Long userId, String status) {
+        return post("/api/notifications/order-status", "send_order_status_update",
+            Map.of("orderId", orderId, "userId", userId, "status", status),
+            "Failed to send order status notification: ");
     }
     
     public void sendOrderCancellation(Long orderId, Long userId) {
-        long startTime = System.currentTimeMillis();
-        String url = notificationServiceUrl + "/api/notifications/order-cancellation";
-        int statusCode = 200;
+        sendOrderCancellationReactive(orderId, userId).block();
+    }
+    
+    public Mono<Void> sendOrderCancellationReactive(Long orderId, Long userId) {
+        return post("/api/notifications/order-cancellation", "send_order_cancellation",
+            Map.of("orderId", orderId, "userId", userId),
+            "Failed to send order cancellation notification: ");
+    }
+    
+    // Notifications are best effort: failures are recorded and logged, never propagated
+    private Mono<Void> post(String path, String operation, Map<String, Object> body, String failureMessage) {
+        String url = notificationServiceUrl + path;
         
-        try {
-            webClient.post()
+        return TelemetryClient.withSpan(span -> {
+            long startTime = System.currentTimeMillis();
+            return webClient.post()
                 .uri(url)
                 .header("Content-Type", "application/json")
                 .header("Accept", "application/json")
-                .bodyValue(Map.of("orderId", orderId, "userId", userId))
+                .bodyValue(body)
                 .retrieve()
                 .bodyToMono(Void.class)
-                .block();
-            
-            long duration = System.currentTimeMillis() - startTime;
-            if (telemetryClient != null) {
-                telemetryClient.recordServiceCall("notification-service", "send_order_cancellation", "POST", url, duration, statusCode);
-            }
-        } catch (Exception e) {
-            long duration = System.currentTimeMillis() - startTime;
-            statusCode = 500;
-            if (telemetryClient != null) {
-                telemetryClient.recordServiceCall("notification-service", "send_order_cancellation", "POST", url, duration, statusCode);
-            }
-            System.err.println("Failed to send order cancellation notification: " + e.getMessage());
+                .doOnSuccess(ignored -> recordCall(span, operation, url, startTime, 200))
+                .onErrorResume(e -> {
+                    recordCall(span, operation, url, startTime, 500);
+                    System.err.println(failureMessage + e.getMessage());
+                    return Mono.empty();
+                });
+        });
+    }
+    
+    private void recordCall(TelemetryClient.TraceSpan span, String operation, String url, long startTime, int statusCode) {
+        long duration = System.currentTimeMillis() - startTime;
+        if (telemetryClient != null) {
+            telemetryClient.recordServiceCall(span, "notification-service", operation, "POST", url, duration, statusCode);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.repository.ArchivedOrderRepository;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Moves finished orders older than the minimum age from orders/order_items into
+// archived_orders/archived_order_items on the same shard, so the hot tables and their indexes
+// only hold orders that can still change. Each batch is copied and deleted in one transaction,
+// so an order is always in exactly one of the two. OrderService reads fall back to the archive.
+@Component
+public class OrderArchiver {
+
+    // Orders in these states take no more status changes
+    static final Set<Order.OrderStatus> ARCHIVABLE = EnumSet.of(Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouting shardRouting;
+    private final Duration minAge;
+    private final int batchSize;
+
+    public OrderArchiver(OrderRepository orderRepository,
+                         ArchivedOrderRepository archivedOrderRepository,
+                         TransactionTemplate transactionTemplate,
+                         ShardRouting shardRouting,
+                         @Value("${orders.archive.min-age:P90D}") Duration minAge,
+                         @Value("${orders.archive.batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouting = shardRouting;
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.archive.interval:PT1H}",
+               initialDelayString = "${orders.archive.interval:PT1H}")
+    public void scheduledArchive() {
+        archive();
+    }
+
+    // Returns the number of orders moved across all shards
+    public int archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(minAge);
+        int archived = shardRouting.scatter(() -> archiveShard(cutoff)).stream().mapToInt(Integer::intValue).sum();
+        if (archived > 0) {
+            System.out.println("Archived " + archived + " orders placed before " + cutoff);
+        }
+        return archived;
+    }
+
+    // Short transactions, so writers never wait on more than one batch of row locks
+    private int archiveShard(LocalDateTime cutoff) {
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(tx -> {
+                List<Long> ids = orderRepository.lockArchivable(ARCHIVABLE, cutoff, PageRequest.ofSize(batchSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                archivedOrderRepository.copyOrders(ids, LocalDateTime.now());
+                archivedOrderRepository.copyItems(ids);
+                orderRepository.deleteItemsByOrderIds(ids);
+                return orderRepository.deleteByIds(ids);
+            });
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+}
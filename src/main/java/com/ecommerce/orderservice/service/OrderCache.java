@@ -0,0 +1,69 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.OrderSnapshot;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+@Component
+public class OrderCache {
+    
+    private final AsyncCache<Long, OrderSnapshot> cache;
+    
+    public OrderCache(@Value("${orders.cache.maximum-size:10000}") long maximumSize,
+                      @Value("${orders.cache.expire-after-write:PT10M}") Duration expireAfterWrite,
+                      MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .buildAsync();
+        // Publishes cache.gets{result=hit|miss}, cache.evictions and cache.size under cache=orders
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "orders");
+    }
+    
+    // Only an empty future is installed under the map lock; the winning caller then runs the
+    // loader on its own thread. Blocking JDBC inside the lock would pin virtual threads.
+    // Concurrent readers of the same id wait on that future, and an invalidate() unmaps it,
+    // so a load that started before a write is never served to reads that start after it.
+    public OrderSnapshot get(Long id, Function<Long, OrderSnapshot> loader) {
+        CompletableFuture<OrderSnapshot> pending = new CompletableFuture<>();
+        CompletableFuture<OrderSnapshot> future = cache.get(id, (key, executor) -> pending);
+        if (future == pending) {
+            try {
+                pending.complete(loader.apply(id));
+            } catch (Throwable e) {
+                // Anything left uncompleted would hang every waiter on this id
+                pending.completeExceptionally(e);
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    public void invalidate(Long id) {
+        cache.synchronous().invalidate(id);
+    }
+    
+    public long size() {
+        cache.synchronous().cleanUp();
+        return cache.synchronous().estimatedSize();
+    }
+}
@@ -0,0 +1,177 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderEvent;
+import com.ecommerce.orderservice.model.OrderEventSnapshot;
+import com.ecommerce.orderservice.model.SnowflakeIds;
+import com.ecommerce.orderservice.repository.OrderEventRepository;
+import com.ecommerce.orderservice.repository.OrderEventSnapshotRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Append-only history of every order, written in the same transaction as the order change it
+// records, so the log and the orders table never disagree. Events are only ever inserted. This
+// is a dual write rather than event sourcing: the orders table is still written first and read
+// by the rest of the service, and every order mutation pays one more insert for its event.
+// replay() rebuilds an order from its latest snapshot plus the events after it, for history and
+// repair, not for serving reads.
+@Component
+public class OrderEventStore {
+
+    private final OrderEventRepository eventRepository;
+    private final OrderEventSnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouting shardRouting;
+    private final int snapshotBatchSize;
+    private final Duration reorderWindow;
+    // Highest event id folded so far, per shard
+    private final Map<Integer, Long> watermarks = new ConcurrentHashMap<>();
+
+    public OrderEventStore(OrderEventRepository eventRepository,
+                           OrderEventSnapshotRepository snapshotRepository,
+                           TransactionTemplate transactionTemplate,
+                           ShardRouting shardRouting,
+                           @Value("${orders.events.snapshot-batch-size:1000}") int snapshotBatchSize,
+                           @Value("${orders.events.reorder-window:PT1M}") Duration reorderWindow) {
+        this.eventRepository = eventRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouting = shardRouting;
+        this.snapshotBatchSize = snapshotBatchSize;
+        this.reorderWindow = reorderWindow;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Order order) {
+        eventRepository.save(new OrderEvent(order.getId(), order.getVersion(), OrderEvent.Type.CREATED, order.getStatus(),
+            order.getUserId(), order.getTotalAmount(), order.getOrderDate()));
+    }
+
+    // newVersion is the order's version after the change. Pending order writes are flushed first,
+    // so a lost version race fails as the optimistic lock conflict it is, not on the event key.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChange(Long orderId, Long userId, Order.OrderStatus status, BigDecimal totalAmount, long newVersion) {
+        eventRepository.flush();
+        eventRepository.save(new OrderEvent(orderId, newVersion,
+            status == Order.OrderStatus.CANCELLED ? OrderEvent.Type.CANCELLED : OrderEvent.Type.STATUS_CHANGED,
+            status, userId, totalAmount, LocalDateTime.now()));
+    }
+
+    // Events of the current shard's order, oldest first
+    public List<OrderEvent> history(Long orderId) {
+        return eventRepository.findByOrderIdAndSequenceNumberGreaterThanOrderBySequenceNumber(orderId, -1);
+    }
+
+    public Optional<State> replay(Long orderId) {
+        State state = snapshotRepository.findById(orderId).map(State::of).orElse(null);
+        long after = state != null ? state.sequenceNumber() : -1;
+        return Optional.ofNullable(fold(state, eventRepository.findByOrderIdAndSequenceNumberGreaterThanOrderBySequenceNumber(orderId, after)));
+    }
+
+    public static State fold(State state, List<OrderEvent> events) {
+        for (OrderEvent event : events) {
+            state = State.apply(state, event);
+        }
+        return state;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.events.snapshot-interval:PT5M}",
+               initialDelayString = "${orders.events.snapshot-interval:PT5M}")
+    public void scheduledSnapshot() {
+        snapshot();
+    }
+
+    // Folds the events written since the last pass into the snapshots of their orders, a page
+    // at a time on every shard. Returns the number of events folded.
+    public int snapshot() {
+        int folded = shardRouting.scatter(this::snapshotShard).stream().mapToInt(Integer::intValue).sum();
+        if (folded > 0) {
+            System.out.println("Folded " + folded + " order events into snapshots");
+        }
+        return folded;
+    }
+
+    // Snowflake ids are time-ordered, so a pass only scans ids above the watermark. They are not
+    // commit-ordered, though: a transaction still open, or an instance whose clock runs behind,
+    // can commit an event below ids already folded. Each pass therefore starts reorder-window
+    // before the watermark, and the snapshot check skips what it folded last time.
+    private int snapshotShard() {
+        int shard = ShardRouting.currentShard();
+        long watermark = watermarks.computeIfAbsent(shard, s -> initialWatermark());
+        long[] cursor = {watermark < 0 ? -1 : SnowflakeIds.lowestIdAt(SnowflakeIds.timestampOf(watermark) - reorderWindow.toMillis()) - 1};
+        int total = 0;
+        int scanned;
+        do {
+            scanned = transactionTemplate.execute(tx -> {
+                List<OrderEvent> events = eventRepository.findUnsnapshottedAfter(cursor[0], PageRequest.ofSize(snapshotBatchSize));
+                if (events.isEmpty()) {
+                    return 0;
+                }
+                cursor[0] = events.get(events.size() - 1).getId();
+                Map<Long, List<OrderEvent>> byOrder = events.stream()
+                    .sorted(Comparator.comparing(OrderEvent::getOrderId).thenComparingLong(OrderEvent::getSequenceNumber))
+                    .collect(Collectors.groupingBy(OrderEvent::getOrderId, LinkedHashMap::new, Collectors.toList()));
+                Map<Long, OrderEventSnapshot> snapshots = snapshotRepository.findAllById(byOrder.keySet()).stream()
+                    .collect(Collectors.toMap(OrderEventSnapshot::getOrderId, Function.identity()));
+                LocalDateTime now = LocalDateTime.now();
+                byOrder.forEach((orderId, orderEvents) -> {
+                    OrderEventSnapshot snapshot = snapshots.computeIfAbsent(orderId, OrderEventSnapshot::new);
+                    State state = fold(snapshot.getStatus() != null ? State.of(snapshot) : null, orderEvents);
+                    snapshot.update(state.sequenceNumber(), state.status(), state.userId(), state.totalAmount(),
+                        state.createdAt(), now);
+                });
+                snapshotRepository.saveAll(snapshots.values());
+                return events.size();
+            });
+            total += scanned;
+        } while (scanned == snapshotBatchSize);
+        watermarks.put(shard, Math.max(watermark, cursor[0]));
+        return total;
+    }
+
+    // After a restart, every event older than the last pass has been folded
+    private long initialWatermark() {
+        LocalDateTime lastTakenAt = snapshotRepository.findLastTakenAt();
+        return lastTakenAt == null
+            ? -1
+            : SnowflakeIds.lowestIdAt(lastTakenAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    // An order as of one of its events
+    public record State(Long orderId, long sequenceNumber, Order.OrderStatus status, Long userId,
+                        BigDecimal totalAmount, LocalDateTime createdAt) {
+
+        static State of(OrderEventSnapshot snapshot) {
+            return new State(snapshot.getOrderId(), snapshot.getSequenceNumber(), snapshot.getStatus(),
+                snapshot.getUserId(), snapshot.getTotalAmount(), snapshot.getCreatedAt());
+        }
+
+        // Orders from before the log have no CREATED event; their state starts at the first change
+        static State apply(State state, OrderEvent event) {
+            if (event.getType() == OrderEvent.Type.CREATED || state == null) {
+                return new State(event.getOrderId(), event.getSequenceNumber(), event.getStatus(), event.getUserId(),
+                    event.getTotalAmount(), event.getType() == OrderEvent.Type.CREATED ? event.getOccurredAt() : null);
+            }
+            return new State(state.orderId(), event.getSequenceNumber(), event.getStatus(), state.userId(),
+                event.getTotalAmount(), state.createdAt());
+        }
+    }
+}
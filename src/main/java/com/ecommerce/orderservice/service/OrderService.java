@@ -1,16 +1,49 @@
 package com.ecommerce.orderservice.service;
 
+import com.ecommerce.orderservice.audit.AuditJournal;
 import com.ecommerce.orderservice.dto.OrderRequest;
+import com.ecommerce.orderservice.dto.OrderSnapshot;
+import com.ecommerce.orderservice.dto.OrderSummary;
+import com.ecommerce.orderservice.dto.OrderSummaryPage;
+import com.ecommerce.orderservice.dto.ProductSales;
+import com.ecommerce.orderservice.dto.RevenueBucket;
+import com.ecommerce.orderservice.model.ArchivedOrder;
 import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderEvent;
 import com.ecommerce.orderservice.model.OrderItem;
+import com.ecommerce.orderservice.model.RevenueRollup;
+import com.ecommerce.orderservice.model.UserOrderSummary;
+import com.ecommerce.orderservice.repository.ArchivedOrderRepository;
 import com.ecommerce.orderservice.repository.OrderRepository;
 import com.ecommerce.orderservice.telemetry.TelemetryClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,9 +64,63 @@ public class OrderService {
     @Autowired
     private TelemetryClient telemetryClient;
     
+    @Autowired
+    private OrderCache orderCache;
+    
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
+    @Autowired
+    private UserOrderSummaryService userOrderSummaryService;
+    
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+    
+    @Autowired
+    private OrderStatusCounters orderStatusCounters;
+    
+    @Autowired
+    private ProductSalesIndex productSalesIndex;
+    
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+    
+    @Autowired
+    private OrderArchiver orderArchiver;
+    
+    @Autowired
+    private OrderEventStore orderEventStore;
+    
+    @Autowired
+    private AuditJournal auditJournal;
+    
+    @Autowired
+    private AuditReconciler auditReconciler;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ReadRouting readRouting;
+    
+    @Autowired
+    private ShardRouting shardRouting;
+    
+    @Autowired
+    private Scheduler persistenceScheduler;
+    
+    @Autowired
+    private Scheduler submissionScheduler;
+    
+    private static final int PRODUCT_LOOKUP_CONCURRENCY = 8;
+    
     private final WebClient webClient = WebClient.builder().build();
     
     public Order createOrder(OrderRequest orderRequest) {
+        return createNewOrder(orderRequest, null);
+    }
+    
+    private Order createNewOrder(OrderRequest orderRequest, String idempotencyKey) {
         telemetryClient.logEvent("Validating user: " + orderRequest.getUserId(), "INFO");
         
         // Validate user exists
@@ -45,10 +132,6 @@ public class OrderService {
         
         telemetryClient.logEvent("User validated successfully: " + orderRequest.getUserId(), "INFO");
         
-        Order order = new Order();
-        order.setUserId(orderRequest.getUserId());
-        order.setShippingAddress(orderRequest.getShippingAddress());
-        
         telemetryClient.logEvent("Processing " + orderRequest.getItems().size() + " order items", "INFO");
         
         // Process order items
@@ -56,27 +139,15 @@ public class OrderService {
             .map(itemRequest -> {
                 // Get product details from product service
                 ProductDto product = productServiceClient.getProduct(itemRequest.getProductId());
-                
-                OrderItem orderItem = new OrderItem(
-                    product.getId(),
-                    product.getName(),
-                    itemRequest.getQuantity(),
-                    product.getPrice()
-                );
-                orderItem.setOrder(order);
-                return orderItem;
+                return toOrderItem(product, itemRequest);
             })
             .collect(Collectors.toList());
         
-        order.setOrderItems(orderItems);
+        Order order = buildOrder(orderRequest, orderItems);
+        order.setIdempotencyKey(idempotencyKey);
+        BigDecimal totalAmount = order.getTotalAmount();
         
-        // Calculate total amount
-        BigDecimal totalAmount = orderItems.stream()
-            .map(OrderItem::getTotalPrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        order.setTotalAmount(totalAmount);
-        
-        Order savedOrder = orderRepository.save(order);
+        Order savedOrder = saveNewOrder(order);
         telemetryClient.logEvent("Order saved to database with ID: " + savedOrder.getId(), "INFO");
         
         // Send notification
@@ -87,45 +158,507 @@ public class OrderService {
         return savedOrder;
     }
     
+    // A retry with the same Idempotency-Key gets the order of the first attempt instead of a
+    // second one, and a retry that arrives while that attempt is still running waits for it.
+    // The key cannot be reused for a request with a different user, address or items. The order
+    // row carries the key, so an attempt that committed its order but died before the store
+    // recorded it is found by the retry that takes over its claim, instead of being repeated.
+    public Order createOrder(OrderRequest orderRequest, String idempotencyKey) {
+        AtomicReference<Order> created = new AtomicReference<>();
+        Long orderId = idempotencyStore.execute(idempotencyKey, fingerprint(orderRequest), () -> {
+            // The fingerprint pins the key to one user, so the order can only be on that user's shard
+            Optional<Long> existing = shardRouting.forUser(orderRequest.getUserId(),
+                () -> orderRepository.findIdByIdempotencyKey(idempotencyKey));
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+            try {
+                created.set(createNewOrder(orderRequest, idempotencyKey));
+            } catch (DataIntegrityViolationException e) {
+                // An attempt whose claim was taken over committed the same key meanwhile
+                return shardRouting.forUser(orderRequest.getUserId(),
+                    () -> orderRepository.findIdByIdempotencyKey(idempotencyKey)).orElseThrow(() -> e);
+            }
+            return created.get().getId();
+        });
+        if (created.get() != null) {
+            return created.get();
+        }
+        telemetryClient.logEvent("Replaying order " + orderId + " for Idempotency-Key " + idempotencyKey, "INFO");
+        // The first attempt may have just committed, possibly on another instance
+        return loadOrder(orderId);
+    }
+    
+    // Same steps as createOrder, composed without blocking: product lookups run concurrently,
+    // and only the JPA save occupies a thread, on the bounded persistence scheduler.
+    public Mono<Order> createOrderReactive(OrderRequest orderRequest) {
+        return TelemetryClient.withSpan(span -> {
+            telemetryClient.logEvent(span, "Validating user: " + orderRequest.getUserId(), "INFO");
+            
+            return userServiceClient.validateUserReactive(orderRequest.getUserId())
+                .flatMap(userExists -> {
+                    if (!userExists) {
+                        telemetryClient.logEvent(span, "User validation failed: " + orderRequest.getUserId(), "ERROR");
+                        return Mono.<List<OrderItem>>error(new RuntimeException("User not found"));
+                    }
+                    telemetryClient.logEvent(span, "User validated successfully: " + orderRequest.getUserId(), "INFO");
+                    
+                    return Flux.fromIterable(orderRequest.getItems())
+                        .flatMapSequential(itemRequest -> productServiceClient.getProductReactive(itemRequest.getProductId())
+                            .map(product -> toOrderItem(product, itemRequest)), PRODUCT_LOOKUP_CONCURRENCY)
+                        .collectList();
+                })
+                .map(orderItems -> buildOrder(orderRequest, orderItems))
+                .flatMap(order -> Mono.fromCallable(() -> saveNewOrder(order))
+                    .subscribeOn(persistenceScheduler))
+                .flatMap(savedOrder -> {
+                    telemetryClient.logEvent(span, "Order saved to database with ID: " + savedOrder.getId(), "INFO");
+                    return notificationServiceClient.sendOrderConfirmationReactive(savedOrder.getId(), savedOrder.getUserId())
+                        .thenReturn(savedOrder);
+                });
+        });
+    }
+    
+    // Accepts an order without waiting on downstream services: only the payload check and one
+    // insert of a PENDING shell happen on the caller's thread. Pricing, user validation and the
+    // notification run on the submission scheduler, which moves the order to CONFIRMED or REJECTED.
+    public Order submitOrder(OrderRequest orderRequest) {
+        validateSubmission(orderRequest);
+        telemetryClient.logEvent("Accepting order for user: " + orderRequest.getUserId(), "INFO");
+        
+        Order unsaved = buildOrder(orderRequest, new ArrayList<>());
+        unsaved.setSubmission(true);
+        Order shell = saveNewOrder(unsaved);
+        TelemetryClient.TraceSpan span = TelemetryClient.TraceContext.current();
+        try {
+            submissionScheduler.schedule(() -> completeSubmittedOrder(shell.getId(), orderRequest, span));
+        } catch (RejectedExecutionException e) {
+            telemetryClient.logEvent("Submission queue full, rejecting order: " + shell.getId(), "ERROR");
+            changeStatus(shell.getId(), Order.OrderStatus.PENDING, Order.OrderStatus.REJECTED);
+            throw e;
+        }
+        
+        telemetryClient.logEvent("Order accepted with ID: " + shell.getId(), "INFO");
+        return shell;
+    }
+    
+    private void validateSubmission(OrderRequest orderRequest) {
+        if (orderRequest.getUserId() == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        if (orderRequest.getItems() == null || orderRequest.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Order must contain at least one item");
+        }
+        for (OrderRequest.OrderItemRequest item : orderRequest.getItems()) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Each item needs a productId and a positive quantity");
+            }
+        }
+    }
+    
+    private void completeSubmittedOrder(Long orderId, OrderRequest orderRequest, TelemetryClient.TraceSpan span) {
+        TelemetryClient.TraceContext.set(span);
+        try {
+            Order order;
+            try {
+                order = confirmSubmittedOrder(orderId, orderRequest);
+            } catch (ObjectOptimisticLockingFailureException e) {
+                telemetryClient.logEvent("Order " + orderId + " changed while being completed, leaving it as is", "INFO");
+                return;
+            } catch (RuntimeException e) {
+                rejectSubmittedOrder(orderId, e.getMessage());
+                return;
+            }
+            if (order == null) {
+                return;
+            }
+            
+            // CONFIRMED has committed: a failure from here on must not turn the order into REJECTED
+            try {
+                audit(OrderEvent.Type.STATUS_CHANGED, orderId, order.getUserId(), Order.OrderStatus.CONFIRMED);
+                orderStatusCounters.changed(Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED);
+                productSalesIndex.record(order.getOrderItems(), order.getOrderDate(), 1);
+                readRouting.recordWrite(order.getUserId(), orderId);
+                orderCache.invalidate(orderId);
+                telemetryClient.logEvent("Order confirmed with total amount: " + order.getTotalAmount(), "INFO");
+                
+                notificationServiceClient.sendOrderConfirmation(orderId, order.getUserId());
+            } catch (RuntimeException e) {
+                System.err.println("Order " + orderId + " was confirmed, but a follow-up step failed: " + e.getMessage());
+            }
+        } finally {
+            TelemetryClient.TraceContext.clear();
+        }
+    }
+    
+    // Prices the shell and commits it as CONFIRMED. Returns null if the order was rejected here
+    // or had already left PENDING.
+    private Order confirmSubmittedOrder(Long orderId, OrderRequest orderRequest) {
+        if (!userServiceClient.validateUser(orderRequest.getUserId())) {
+            rejectSubmittedOrder(orderId, "User not found");
+            return null;
+        }
+        
+        List<OrderItem> orderItems = Flux.fromIterable(orderRequest.getItems())
+            .flatMapSequential(itemRequest -> productServiceClient.getProductReactive(itemRequest.getProductId())
+                .map(product -> toOrderItem(product, itemRequest)), PRODUCT_LOOKUP_CONCURRENCY)
+            .collectList()
+            .block();
+        
+        Order order = loadOrder(orderId);
+        if (order.getStatus() != Order.OrderStatus.PENDING) {
+            telemetryClient.logEvent("Order " + orderId + " left PENDING before it was completed", "INFO");
+            return null;
+        }
+        orderItems.forEach(orderItem -> orderItem.setOrder(order));
+        order.setOrderItems(orderItems);
+        order.setTotalAmount(totalOf(orderItems));
+        order.setStatus(Order.OrderStatus.CONFIRMED);
+        
+        // Versioned merge, so a cancel that lands in the meantime wins
+        shardRouting.forOrder(orderId, () -> {
+            revenueRollupService.ensureBuckets(order.getOrderDate(), Order.OrderStatus.CONFIRMED);
+            transactionTemplate.executeWithoutResult(tx -> {
+                orderRepository.save(order);
+                orderEventStore.recordStatusChange(orderId, order.getUserId(), Order.OrderStatus.CONFIRMED,
+                    order.getTotalAmount(), order.getVersion() + 1);
+                userOrderSummaryService.recordChange(order.getUserId(), Order.OrderStatus.PENDING, BigDecimal.ZERO,
+                    Order.OrderStatus.CONFIRMED, order.getTotalAmount());
+                revenueRollupService.recordChange(order.getOrderDate(), Order.OrderStatus.PENDING, BigDecimal.ZERO,
+                    Order.OrderStatus.CONFIRMED, order.getTotalAmount());
+            });
+            return null;
+        });
+        return order;
+    }
+    
+    // Only a shell still in PENDING is rejected; returns whether this call rejected it
+    private boolean rejectSubmittedOrder(Long orderId, String reason) {
+        telemetryClient.logEvent("Rejecting order " + orderId + ": " + reason, "ERROR");
+        try {
+            Long userId = changeStatus(orderId, Order.OrderStatus.PENDING, Order.OrderStatus.REJECTED);
+            if (userId == null) {
+                telemetryClient.logEvent("Order " + orderId + " left PENDING, not rejecting it", "INFO");
+                return false;
+            }
+            notificationServiceClient.sendOrderStatusUpdate(orderId, userId, Order.OrderStatus.REJECTED.toString());
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("Failed to reject order " + orderId + ": " + e.getMessage());
+            return false;
+        }
+    }
+    
+    // Shells accepted before the cutoff and still PENDING were lost before a worker completed
+    // them, e.g. queued on an instance that stopped; they are rejected. Orders created by the
+    // synchronous POST are never shells, with or without items.
+    public int rejectAbandonedSubmissions(LocalDateTime acceptedBefore, int batchSize) {
+        List<Long> ids = shardRouting.scatter(() -> orderRepository.findSubmissionIdsByStatus(Order.OrderStatus.PENDING,
+                acceptedBefore, PageRequest.ofSize(batchSize)))
+            .stream()
+            .flatMap(List::stream)
+            .toList();
+        int rejected = 0;
+        for (Long id : ids) {
+            if (rejectSubmittedOrder(id, "not completed before " + acceptedBefore)) {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+    
+    private OrderItem toOrderItem(ProductDto product, OrderRequest.OrderItemRequest itemRequest) {
+        return new OrderItem(
+            product.getId(),
+            product.getName(),
+            itemRequest.getQuantity(),
+            product.getPrice()
+        );
+    }
+    
+    private Order buildOrder(OrderRequest orderRequest, List<OrderItem> orderItems) {
+        Order order = new Order();
+        order.setUserId(orderRequest.getUserId());
+        order.setShippingAddress(orderRequest.getShippingAddress());
+        orderItems.forEach(orderItem -> orderItem.setOrder(order));
+        order.setOrderItems(orderItems);
+        order.setTotalAmount(totalOf(orderItems));
+        return order;
+    }
+    
+    static String fingerprint(OrderRequest orderRequest) {
+        StringBuilder request = new StringBuilder()
+            .append(orderRequest.getUserId()).append('|')
+            .append(orderRequest.getShippingAddress()).append('|');
+        if (orderRequest.getItems() != null) {
+            for (OrderRequest.OrderItemRequest item : orderRequest.getItems()) {
+                request.append(item.getProductId()).append('x').append(item.getQuantity()).append(',');
+            }
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(request.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private static BigDecimal totalOf(List<OrderItem> orderItems) {
+        return orderItems.stream()
+            .map(OrderItem::getTotalPrice)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+    
     public Order getOrderById(Long id) {
-        return orderRepository.findById(id)
+        return readRouting.read(null, id, () -> loadOrder(id));
+    }
+    
+    // The hot table is read first: an order archived in between is then found in the archive,
+    // while the other way round it could be missed in both
+    private Order loadOrder(Long id) {
+        return shardRouting.forOrder(id, () -> orderRepository.findById(id)
+                .or(() -> archivedOrderRepository.findById(id).map(ArchivedOrder::toOrder)))
             .orElseThrow(() -> new RuntimeException("Order not found"));
     }
     
+    // Every recorded change of the order, oldest first; archived orders keep their history
+    public List<OrderEvent> getOrderHistory(Long id) {
+        List<OrderEvent> events = readRouting.read(null, id, () -> shardRouting.forOrder(id, () -> orderEventStore.history(id)));
+        if (events.isEmpty()) {
+            // Orders from before the event log have none; anything else is an unknown id
+            getOrderVersion(id);
+        }
+        return events;
+    }
+    
+    // Cached snapshots are always loaded from the primary, so a lagging replica copy is never
+    // cached. One older than minVersion, left behind by a write on another instance, is dropped
+    // and reloaded.
+    public OrderSnapshot getOrderSnapshot(Long id, long minVersion) {
+        OrderSnapshot snapshot = orderCache.get(id, key -> OrderSnapshot.from(loadOrder(key)));
+        if (snapshot.version() < minVersion) {
+            orderCache.invalidate(id);
+            snapshot = orderCache.get(id, key -> OrderSnapshot.from(loadOrder(key)));
+        }
+        return snapshot;
+    }
+    
     public List<Order> getOrdersByUserId(Long userId) {
-        return orderRepository.findByUserId(userId);
+        return readRouting.read(userId, null, () -> shardRouting.forUser(userId, () -> withArchived(
+            orderRepository.findByUserId(userId),
+            archivedOrderRepository.findByUserId(userId).stream().map(ArchivedOrder::toOrder).collect(Collectors.toList()),
+            Order::getId)));
+    }
+    
+    // Version lookups for conditional GETs; neither touches order_items
+    public long getOrderVersion(Long id) {
+        return readRouting.read(null, id, () -> shardRouting.forOrder(id, () -> orderRepository.findVersionViewById(id)
+                .or(() -> archivedOrderRepository.findVersionViewById(id))))
+            .map(OrderRepository.OrderVersionView::getVersion)
+            .orElseThrow(() -> new RuntimeException("Order not found"));
+    }
+    
+    public String getUserOrdersVersion(Long userId) {
+        // Archiving moves an order without changing it, so hot and archived rows are combined
+        List<OrderRepository.UserOrdersVersionView> views = readRouting.read(userId, null,
+            () -> shardRouting.forUser(userId, () -> List.of(orderRepository.findUserOrdersVersionView(userId),
+                archivedOrderRepository.findUserOrdersVersionView(userId))));
+        return views.stream().mapToLong(OrderRepository.UserOrdersVersionView::getOrderCount).sum() + "-"
+            + views.stream().mapToLong(OrderRepository.UserOrdersVersionView::getMaxId).max().orElse(0) + "-"
+            + views.stream().mapToLong(OrderRepository.UserOrdersVersionView::getVersionSum).sum();
     }
     
     public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+        return readRouting.read(null, null, () -> ShardRouting.concat(shardRouting.scatter(() -> withArchived(
+            orderRepository.findAll(),
+            archivedOrderRepository.findAll().stream().map(ArchivedOrder::toOrder).collect(Collectors.toList()),
+            Order::getId))));
+    }
+    
+    public List<OrderSummary> getOrderSummariesByUserId(Long userId) {
+        return readRouting.read(userId, null, () -> shardRouting.forUser(userId, () -> withArchived(
+            orderRepository.findSummariesByUserId(userId), archivedOrderRepository.findSummariesByUserId(userId),
+            OrderSummary::id)));
+    }
+    
+    // Hot rows read before archived ones; an order archived between the two reads shows up in
+    // both and is kept once
+    private static <T> List<T> withArchived(List<T> hot, List<T> archived, Function<T, Long> id) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Set<Long> seen = hot.stream().map(id).collect(Collectors.toSet());
+        List<T> all = new ArrayList<>(hot);
+        archived.stream().filter(row -> !seen.contains(id.apply(row))).forEach(all::add);
+        return all;
+    }
+    
+    public List<OrderSummary> getAllOrderSummaries() {
+        return readRouting.read(null, null, () -> ShardRouting.concat(shardRouting.scatter(() -> withArchived(
+            orderRepository.findAllSummaries(), archivedOrderRepository.findAllSummaries(), OrderSummary::id))));
+    }
+    
+    // Orders containing the product, newest first, `limit` per page; afterId is the nextCursor
+    // of the previous page. Each shard returns its own first limit + 1 hot and limit + 1 archived
+    // rows and the merge keeps the highest ids of all of them, so the cursor stays valid across
+    // shards and the archive.
+    public OrderSummaryPage getOrdersByProductId(Long productId, Order.OrderStatus status, LocalDateTime from,
+                                                 LocalDateTime to, Long afterId, int limit) {
+        List<OrderSummary> rows = readRouting.read(null, null, () -> ShardRouting.concat(shardRouting.scatter(() -> {
+            List<OrderSummary> shardRows = new ArrayList<>(
+                orderRepository.findSummariesByProductId(productId, status, from, to, afterId, PageRequest.ofSize(limit + 1)));
+            shardRows.addAll(
+                archivedOrderRepository.findSummariesByProductId(productId, status, from, to, afterId, PageRequest.ofSize(limit + 1)));
+            return shardRows;
+        })));
+        rows.sort(Comparator.comparing(OrderSummary::id).reversed());
+        rows = rows.subList(0, Math.min(rows.size(), limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<OrderSummary> page = hasMore ? rows.subList(0, limit) : rows;
+        
+        Set<Long> seen = new HashSet<>();
+        List<OrderSummary> orders = page.stream()
+            .filter(order -> seen.add(order.id()))
+            .collect(Collectors.toList());
+        return new OrderSummaryPage(orders, hasMore ? page.get(limit - 1).id() : null);
+    }
+    
+    public UserOrderSummary getUserOrderSummary(Long userId) {
+        return readRouting.read(userId, null,
+            () -> shardRouting.forUser(userId, () -> userOrderSummaryService.getSummary(userId)));
+    }
+    
+    // Each shard rebuilds the summaries of its own users
+    public int rebuildUserOrderSummaries() {
+        return shardRouting.scatter(userOrderSummaryService::rebuild).stream().mapToInt(Integer::intValue).sum();
+    }
+    
+    public List<RevenueBucket> getRevenue(RevenueRollup.Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        return readRouting.read(null, null, () -> revenueRollupService.getRevenue(granularity, from, to));
+    }
+    
+    // Each shard keeps rollups of its own orders, and getRevenue sums them
+    public int backfillRevenueRollups() {
+        return shardRouting.scatter(revenueRollupService::backfill).stream().mapToInt(Integer::intValue).sum();
+    }
+    
+    // Moves finished orders past the archive age out of the hot tables now instead of on the schedule
+    public int archiveOrders() {
+        return orderArchiver.archive();
+    }
+    
+    public List<ProductSales> getTopProducts(Duration window, int limit) {
+        return productSalesIndex.topProducts(window, limit);
+    }
+    
+    // In-memory counts by default; fresh runs the GROUP BY against the database instead
+    public Map<Order.OrderStatus, Long> getStatusCounts(boolean fresh) {
+        return fresh
+            ? readRouting.read(null, null, orderStatusCounters::countInDatabase)
+            : orderStatusCounters.snapshot();
     }
     
     public Order updateOrderStatus(Long id, Order.OrderStatus status) {
         telemetryClient.logEvent("Updating order status: " + id + " to " + status, "INFO");
         
-        Order order = getOrderById(id);
-        order.setStatus(status);
-        Order updatedOrder = orderRepository.save(order);
+        Long userId = changeStatus(id, status);
         
         telemetryClient.logEvent("Order status updated successfully: " + id, "INFO");
         
         // Send status update notification
-        notificationServiceClient.sendOrderStatusUpdate(updatedOrder.getId(), updatedOrder.getUserId(), status.toString());
+        notificationServiceClient.sendOrderStatusUpdate(id, userId, status.toString());
         
-        return updatedOrder;
+        return getOrderById(id);
     }
     
     public void cancelOrder(Long id) {
         telemetryClient.logEvent("Cancelling order: " + id, "INFO");
         
-        Order order = getOrderById(id);
-        order.setStatus(Order.OrderStatus.CANCELLED);
-        orderRepository.save(order);
+        Long userId = changeStatus(id, Order.OrderStatus.CANCELLED);
         
         telemetryClient.logEvent("Order cancelled successfully: " + id, "INFO");
         
         // Send cancellation notification
-        notificationServiceClient.sendOrderCancellation(order.getId(), order.getUserId());
+        notificationServiceClient.sendOrderCancellation(id, userId);
+    }
+    
+    // Writes the new status with a single versioned UPDATE instead of loading and re-saving
+    // the order graph, so no row lock is held while the notification goes out.
+    private Long changeStatus(Long id, Order.OrderStatus status) {
+        return changeStatus(id, null, status);
+    }
+    
+    // With expected set, an order no longer in that status is left alone and null is returned
+    private Long changeStatus(Long id, Order.OrderStatus expected, Order.OrderStatus status) {
+        OrderRepository.OrderVersionView current = shardRouting.forOrder(id, () -> {
+            OrderRepository.OrderVersionView view = orderRepository.findVersionViewById(id)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+            if (expected != null && view.getStatus() != expected) {
+                return null;
+            }
+            
+            revenueRollupService.ensureBuckets(view.getOrderDate(), view.getStatus(), status);
+            transactionTemplate.executeWithoutResult(tx -> {
+                int updated = orderRepository.updateStatus(id, status, view.getVersion());
+                if (updated == 0) {
+                    telemetryClient.logEvent("Concurrent modification detected for order: " + id, "ERROR");
+                    throw new ObjectOptimisticLockingFailureException(Order.class, id);
+                }
+                orderEventStore.recordStatusChange(id, view.getUserId(), status, view.getTotalAmount(), view.getVersion() + 1);
+                userOrderSummaryService.recordChange(view.getUserId(), view.getStatus(), view.getTotalAmount(),
+                    status, view.getTotalAmount());
+                revenueRollupService.recordChange(view.getOrderDate(), view.getStatus(), view.getTotalAmount(),
+                    status, view.getTotalAmount());
+            });
+            return view;
+        });
+        if (current == null) {
+            return null;
+        }
+        audit(status == Order.OrderStatus.CANCELLED ? OrderEvent.Type.CANCELLED : OrderEvent.Type.STATUS_CHANGED,
+            id, current.getUserId(), status);
+        orderStatusCounters.changed(current.getStatus(), status);
+        readRouting.recordWrite(current.getUserId(), id);
+        // Product sales count every order that is not cancelled
+        if ((status == Order.OrderStatus.CANCELLED) != (current.getStatus() == Order.OrderStatus.CANCELLED)) {
+            productSalesIndex.record(shardRouting.forOrder(id, () -> orderRepository.findItemsByOrderId(id)), current.getOrderDate(),
+                status == Order.OrderStatus.CANCELLED ? -1 : 1);
+        }
+        orderCache.invalidate(id);
+        return current.getUserId();
+    }
+    
+    // The order, its CREATED event, its user's summary and its revenue buckets commit together
+    // on the user's shard, or none does
+    private Order saveNewOrder(Order order) {
+        Order saved = shardRouting.forUser(order.getUserId(), () -> {
+            userOrderSummaryService.ensureSummary(order.getUserId());
+            revenueRollupService.ensureBuckets(order.getOrderDate(), order.getStatus());
+            return transactionTemplate.execute(tx -> {
+                Order persisted = orderRepository.save(order);
+                orderEventStore.recordCreated(persisted);
+                userOrderSummaryService.recordCreated(persisted);
+                revenueRollupService.recordCreated(persisted);
+                return persisted;
+            });
+        });
+        audit(OrderEvent.Type.CREATED, saved.getId(), saved.getUserId(), saved.getStatus());
+        orderStatusCounters.created(saved.getStatus());
+        readRouting.recordWrite(saved.getUserId(), saved.getId());
+        productSalesIndex.record(saved.getOrderItems(), saved.getOrderDate(), 1);
+        return saved;
+    }
+    
+    // Journaled once the change has committed, so the journal never holds a change that rolled
+    // back. A failed append is logged and counted rather than failing a change that already
+    // happened; AuditReconciler fills it in from order_events on the next startup.
+    private void audit(OrderEvent.Type type, Long orderId, Long userId, Order.OrderStatus status) {
+        try {
+            auditJournal.append(type, orderId, userId, status);
+        } catch (RuntimeException e) {
+            auditReconciler.recordDropped();
+            System.err.println("Failed to journal " + type + " of order " + orderId + ": " + e.getMessage());
+        }
     }
     
     public static class ProductDto {
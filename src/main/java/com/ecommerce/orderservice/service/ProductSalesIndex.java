@@ -0,0 +1,255 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.ProductSales;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderItem;
+import com.ecommerce.orderservice.model.ProductSalesBucket;
+import com.ecommerce.orderservice.repository.ArchivedOrderRepository;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import com.ecommerce.orderservice.repository.ProductSalesBucketRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Units and revenue per product per hour of order date, held in memory for the retention period
+// so top-K queries never touch order_items. Creations and cancellations are applied as they
+// commit and flushed to product_sales_buckets as deltas every flush interval; on startup, and
+// every reload interval after that, the retained buckets are loaded back so the ranking takes in
+// what other instances flushed. Buckets past the retention are deleted on reload. Deltas not yet
+// flushed are lost if the instance dies. The table lives on the home shard, since it covers the
+// orders of every shard.
+@Component
+public class ProductSalesIndex {
+
+    private static final Comparator<ProductSales> BY_UNITS = Comparator.comparingLong(ProductSales::unitsSold)
+        .thenComparing(ProductSales::revenue);
+
+    private final ProductSalesBucketRepository repository;
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouting shardRouting;
+    private final Duration retention;
+
+    private final ConcurrentSkipListMap<LocalDateTime, Map<Long, Cell>> buckets = new ConcurrentSkipListMap<>();
+    private final Set<Cell> dirty = ConcurrentHashMap.newKeySet();
+
+    public ProductSalesIndex(ProductSalesBucketRepository repository,
+                             OrderRepository orderRepository,
+                             ArchivedOrderRepository archivedOrderRepository,
+                             TransactionTemplate transactionTemplate,
+                             ShardRouting shardRouting,
+                             @Value("${orders.product-sales.retention:P30D}") Duration retention) {
+        this.repository = repository;
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouting = shardRouting;
+        this.retention = retention;
+    }
+
+    // sign is 1 for a new order and -1 for a cancelled one
+    public void record(List<OrderItem> items, LocalDateTime orderDate, int sign) {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+        LocalDateTime bucketStart = orderDate.truncatedTo(ChronoUnit.HOURS);
+        Map<Long, Cell> bucket = buckets.computeIfAbsent(bucketStart, start -> new ConcurrentHashMap<>());
+        for (OrderItem item : items) {
+            Cell cell = bucket.computeIfAbsent(item.getProductId(), productId -> new Cell(productId, bucketStart));
+            cell.add(item.getProductName(), (long) sign * item.getQuantity(),
+                sign < 0 ? item.getTotalPrice().negate() : item.getTotalPrice());
+            dirty.add(cell);
+        }
+    }
+
+    // Sums the hourly buckets that overlap the window and keeps the best `limit` products in a
+    // min-heap, so ranking costs O(products * log limit) rather than a full sort
+    public List<ProductSales> topProducts(Duration window, int limit) {
+        if (window.compareTo(retention) > 0) {
+            throw new IllegalArgumentException("Window must not exceed the retention of " + retention);
+        }
+        LocalDateTime from = LocalDateTime.now().minus(window).truncatedTo(ChronoUnit.HOURS);
+        Map<Long, ProductSales> totals = new HashMap<>();
+        for (Map<Long, Cell> bucket : buckets.tailMap(from, true).values()) {
+            for (Cell cell : bucket.values()) {
+                totals.merge(cell.productId, cell.sales(), (a, b) -> new ProductSales(a.productId(),
+                    b.productName() != null ? b.productName() : a.productName(),
+                    a.unitsSold() + b.unitsSold(), a.revenue().add(b.revenue())));
+            }
+        }
+
+        PriorityQueue<ProductSales> heap = new PriorityQueue<>(limit + 1, BY_UNITS);
+        for (ProductSales sales : totals.values()) {
+            if (sales.unitsSold() <= 0) {
+                continue;
+            }
+            heap.offer(sales);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<ProductSales> top = new ArrayList<>(heap);
+        top.sort(BY_UNITS.reversed());
+        return top;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.product-sales.flush-interval:PT30S}")
+    public synchronized void flush() {
+        List<Delta> deltas = new ArrayList<>();
+        for (Cell cell : dirty) {
+            // Removed before draining: a delta added in between is drained now and re-marks the cell
+            dirty.remove(cell);
+            Delta delta = cell.drain();
+            if (delta.units() != 0 || delta.revenue().signum() != 0) {
+                deltas.add(delta);
+            }
+        }
+        if (!deltas.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(tx -> deltas.forEach(this::write));
+            } catch (RuntimeException e) {
+                System.err.println("Failed to flush " + deltas.size() + " product sales buckets, retrying next time: " + e.getMessage());
+                deltas.forEach(delta -> {
+                    delta.cell().restore(delta);
+                    dirty.add(delta.cell());
+                });
+            }
+        }
+        buckets.headMap(LocalDateTime.now().minus(retention).truncatedTo(ChronoUnit.HOURS)).clear();
+    }
+
+    private void write(Delta delta) {
+        Cell cell = delta.cell();
+        if (repository.increment(cell.productId, cell.bucketStart, cell.productName, delta.units(), delta.revenue()) == 0) {
+            repository.save(new ProductSalesBucket(new ProductSalesBucket.Key(cell.productId, cell.bucketStart),
+                cell.productName, delta.units(), delta.revenue()));
+        }
+    }
+
+    // Synchronized with flush: a delta drained but not yet written would be in neither the
+    // persisted totals nor the pending ones
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        List<ProductSalesBucket> persisted = repository.findSince(LocalDateTime.now().minus(retention).truncatedTo(ChronoUnit.HOURS));
+        for (ProductSalesBucket row : persisted) {
+            LocalDateTime bucketStart = row.getId().getBucketStart();
+            buckets.computeIfAbsent(bucketStart, start -> new ConcurrentHashMap<>())
+                .computeIfAbsent(row.getId().getProductId(), productId -> new Cell(productId, bucketStart))
+                .load(row.getProductName(), row.getUnitsSold(), row.getRevenue());
+        }
+        System.out.println("Loaded " + persisted.size() + " product sales buckets");
+    }
+
+    @Scheduled(initialDelayString = "${orders.product-sales.reload-interval:PT5M}",
+               fixedDelayString = "${orders.product-sales.reload-interval:PT5M}")
+    public void reload() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention).truncatedTo(ChronoUnit.HOURS);
+        try {
+            int deleted = transactionTemplate.execute(tx -> repository.deleteBefore(cutoff));
+            if (deleted > 0) {
+                System.out.println("Deleted " + deleted + " product sales buckets older than " + cutoff);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Failed to delete expired product sales buckets, retrying next time: " + e.getMessage());
+        }
+        load();
+    }
+
+    // Recomputes product_sales_buckets from hot and archived order items, skipping cancelled orders, and reloads
+    // the in-memory index from it. Meant for setup or repair while writes are quiet.
+    public int backfill() {
+        // A product sold in the same hour on several shards, or in both tables, comes back once for each
+        Map<ProductSalesBucket.Key, ProductSalesBucket> rebuilt = new HashMap<>();
+        for (OrderRepository.HourlyProductSalesView sales : ShardRouting.concat(shardRouting.scatter(() -> {
+                List<OrderRepository.HourlyProductSalesView> rows =
+                    new ArrayList<>(orderRepository.findHourlyProductSales(Order.OrderStatus.CANCELLED));
+                rows.addAll(archivedOrderRepository.findHourlyProductSales(Order.OrderStatus.CANCELLED));
+                return rows;
+            }))) {
+            ProductSalesBucket.Key key = new ProductSalesBucket.Key(sales.getProductId(),
+                sales.getOrderDay().atTime(sales.getHourOfDay(), 0));
+            rebuilt.merge(key, new ProductSalesBucket(key, sales.getProductName(), sales.getUnitsSold(), sales.getRevenue()),
+                (a, b) -> new ProductSalesBucket(key, a.getProductName(), a.getUnitsSold() + b.getUnitsSold(),
+                    a.getRevenue().add(b.getRevenue())));
+        }
+        int rows = shardRouting.onShard(ShardRouting.HOME_SHARD, () -> transactionTemplate.execute(tx -> {
+            repository.deleteAllInBatch();
+            repository.saveAll(rebuilt.values());
+            return rebuilt.size();
+        }));
+        dirty.clear();
+        buckets.clear();
+        load();
+        return rows;
+    }
+
+    private record Delta(Cell cell, long units, BigDecimal revenue) {}
+
+    private static final class Cell {
+        private final Long productId;
+        private final LocalDateTime bucketStart;
+        private volatile String productName;
+        private final AtomicLong units = new AtomicLong();
+        private final AtomicReference<BigDecimal> revenue = new AtomicReference<>(BigDecimal.ZERO);
+        // Not yet written to product_sales_buckets
+        private final AtomicLong pendingUnits = new AtomicLong();
+        private final AtomicReference<BigDecimal> pendingRevenue = new AtomicReference<>(BigDecimal.ZERO);
+
+        Cell(Long productId, LocalDateTime bucketStart) {
+            this.productId = productId;
+            this.bucketStart = bucketStart;
+        }
+
+        synchronized void add(String name, long unitDelta, BigDecimal revenueDelta) {
+            if (name != null) {
+                productName = name;
+            }
+            units.addAndGet(unitDelta);
+            revenue.accumulateAndGet(revenueDelta, BigDecimal::add);
+            pendingUnits.addAndGet(unitDelta);
+            pendingRevenue.accumulateAndGet(revenueDelta, BigDecimal::add);
+        }
+
+        // Persisted totals plus whatever this instance has not flushed yet
+        synchronized void load(String name, long persistedUnits, BigDecimal persistedRevenue) {
+            if (productName == null) {
+                productName = name;
+            }
+            units.set(persistedUnits + pendingUnits.get());
+            revenue.set(persistedRevenue.add(pendingRevenue.get()));
+        }
+
+        Delta drain() {
+            return new Delta(this, pendingUnits.getAndSet(0), pendingRevenue.getAndSet(BigDecimal.ZERO));
+        }
+
+        void restore(Delta delta) {
+            pendingUnits.addAndGet(delta.units());
+            pendingRevenue.accumulateAndGet(delta.revenue(), BigDecimal::add);
+        }
+
+        ProductSales sales() {
+            return new ProductSales(productId, productName, units.get(), revenue.get());
+        }
+    }
+}
@@ -5,8 +5,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-
-import java.math.BigDecimal;
+import reactor.core.publisher.Mono;
 
 @Service
 public class ProductServiceClient {
@@ -30,30 +29,28 @@ public class ProductServiceClient {
     }
     
     public OrderService.ProductDto getProduct(Long productId) {
-        long startTime = System.currentTimeMillis();
+        return getProductReactive(productId).block();
+    }
+    
+    public Mono<OrderService.ProductDto> getProductReactive(Long productId) {
         String url = productServiceUrl + "/api/products/" + productId;
-        int statusCode = 200;
         
-        try {
-            OrderService.ProductDto product = webClient.get()
+        return TelemetryClient.withSpan(span -> {
+            long startTime = System.currentTimeMillis();
+            return webClient.get()
                 .uri(url)
                 .header("Accept", "application/json")
                 .retrieve()
                 .bodyToMono(OrderService.ProductDto.class)
-                .block();
-            
-            long duration = System.currentTimeMillis() - startTime;
-            if (telemetryClient != null) {
-                telemetryClient.recordServiceCall("product-service", "get_product", "GET", url, duration, statusCode);
-            }
-            return product;
-        } catch (Exception e) {
-            long duration = System.currentTimeMillis() - startTime;
-            statusCode = 500;
-            if (telemetryClient != null) {
-                telemetryClient.recordServiceCall("product-service", "get_product", "GET", url, duration, statusCode);
-            }
-            throw e;
+                .doOnSuccess(product -> recordCall(span, url, startTime, 200))
+                .doOnError(e -> recordCall(span, url, startTime, 500));
+        });
+    }
+    
+    private void recordCall(TelemetryClient.TraceSpan span, String url, long startTime, int statusCode) {
+        long duration = System.currentTimeMillis() - startTime;
+        if (telemetryClient != null) {
+            telemetryClient.recordServiceCall(span, "product-service", "get_product", "GET", url, duration, statusCode);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.orderservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// Decides which database a query reads from. Queries run through read() go to the replica
+// (when ReplicaDataSourceConfig is active) unless the user or order was written by this instance
+// within the read-your-writes window; everything else, including every write, uses the primary.
+// Read-your-writes only covers queries keyed by a user or an order. Queries read with neither
+// (all orders, orders by product, revenue, fresh status counts) always go to the replica and can
+// miss any write made within the replica lag; their endpoints say so.
+@Component
+public class ReadRouting {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Target> TARGET = new ThreadLocal<>();
+
+    private final Cache<Long, Boolean> recentUserWrites;
+    private final Cache<Long, Boolean> recentOrderWrites;
+
+    public ReadRouting(@Value("${orders.datasource.replica.read-your-writes-window:PT5S}") Duration readYourWritesWindow,
+                       @Value("${orders.datasource.replica.max-tracked-writes:100000}") long maxTrackedWrites) {
+        this.recentUserWrites = Caffeine.newBuilder()
+            .maximumSize(maxTrackedWrites)
+            .expireAfterWrite(readYourWritesWindow)
+            .build();
+        this.recentOrderWrites = Caffeine.newBuilder()
+            .maximumSize(maxTrackedWrites)
+            .expireAfterWrite(readYourWritesWindow)
+            .build();
+    }
+
+    public static Target currentTarget() {
+        Target target = TARGET.get();
+        return target != null ? target : Target.PRIMARY;
+    }
+
+    // Called once a write has committed, before any cache entry for it is dropped, so the
+    // reload that follows cannot pick up a lagging copy from the replica
+    public void recordWrite(Long userId, Long orderId) {
+        if (userId != null) {
+            recentUserWrites.put(userId, Boolean.TRUE);
+        }
+        if (orderId != null) {
+            recentOrderWrites.put(orderId, Boolean.TRUE);
+        }
+    }
+
+    // userId and orderId name what the query reads, where known; either may be null
+    public <T> T read(Long userId, Long orderId, Supplier<T> query) {
+        if ((userId != null && recentUserWrites.getIfPresent(userId) != null)
+                || (orderId != null && recentOrderWrites.getIfPresent(orderId) != null)) {
+            return query.get();
+        }
+        Target previous = TARGET.get();
+        TARGET.set(Target.REPLICA);
+        try {
+            return query.get();
+        } finally {
+            if (previous == null) {
+                TARGET.remove();
+            } else {
+                TARGET.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.RevenueBucket;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.RevenueRollup;
+import com.ecommerce.orderservice.repository.ArchivedOrderRepository;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import com.ecommerce.orderservice.repository.RevenueRollupRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class RevenueRollupService {
+    
+    private static final RevenueRollup.Granularity[] GRANULARITIES = RevenueRollup.Granularity.values();
+    
+    @Autowired
+    private RevenueRollupRepository rollupRepository;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+    
+    @Autowired
+    private ShardRouting shardRouting;
+    
+    // Rows known to exist, so writes to a current bucket skip the existence check. Every shard
+    // has rollups of its own orders, so a row is known per shard.
+    private final Cache<KnownRow, Boolean> knownRows = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .build();
+    
+    // Creates the bucket rows an order write will increment before its transaction starts, so
+    // the first writers of a new hour race on these inserts rather than on their order transactions
+    public void ensureBuckets(LocalDateTime orderDate, Order.OrderStatus... statuses) {
+        for (RevenueRollup.Granularity granularity : GRANULARITIES) {
+            for (Order.OrderStatus status : statuses) {
+                RevenueRollup.Key key = RevenueRollup.Key.of(granularity, orderDate, status);
+                KnownRow knownRow = new KnownRow(ShardRouting.currentShard(), key);
+                if (knownRows.getIfPresent(knownRow) != null) {
+                    continue;
+                }
+                if (!rollupRepository.existsById(key)) {
+                    try {
+                        rollupRepository.insertEmpty(granularity.name(), key.getBucketStart(), status.name());
+                    } catch (DataIntegrityViolationException e) {
+                        // Created concurrently; nothing to do
+                    }
+                }
+                knownRows.put(knownRow, Boolean.TRUE);
+            }
+        }
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Order order) {
+        add(order.getOrderDate(), order.getStatus(), 1, order.getTotalAmount());
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(LocalDateTime orderDate, Order.OrderStatus from, BigDecimal fromAmount,
+                             Order.OrderStatus to, BigDecimal toAmount) {
+        add(orderDate, from, -1, fromAmount.negate());
+        add(orderDate, to, 1, toAmount);
+    }
+    
+    // A row can be missing although knownRows lists it, e.g. after it was deleted by hand. The
+    // change then creates the row itself; should another writer create it at the same moment,
+    // the order write fails instead of losing the change.
+    private void add(LocalDateTime orderDate, Order.OrderStatus status, long count, BigDecimal amount) {
+        for (RevenueRollup.Granularity granularity : GRANULARITIES) {
+            RevenueRollup.Key key = RevenueRollup.Key.of(granularity, orderDate, status);
+            if (rollupRepository.increment(granularity, key.getBucketStart(), status, count, amount) == 0) {
+                knownRows.invalidate(new KnownRow(ShardRouting.currentShard(), key));
+                rollupRepository.insert(granularity.name(), key.getBucketStart(), status.name(), count, amount);
+            }
+        }
+    }
+    
+    // Sums the rollups of every shard
+    public List<RevenueBucket> getRevenue(RevenueRollup.Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        Map<LocalDateTime, List<RevenueRollup>> byBucket = new TreeMap<>();
+        for (RevenueRollup rollup : ShardRouting.concat(shardRouting.scatter(() -> rollupRepository.findRange(granularity, from, to)))) {
+            byBucket.computeIfAbsent(rollup.getId().getBucketStart(), bucket -> new ArrayList<>()).add(rollup);
+        }
+        List<RevenueBucket> buckets = new ArrayList<>(byBucket.size());
+        byBucket.forEach((bucketStart, rollups) -> buckets.add(toBucket(bucketStart, rollups)));
+        return buckets;
+    }
+    
+    private static RevenueBucket toBucket(LocalDateTime bucketStart, List<RevenueRollup> rollups) {
+        long orderCount = 0;
+        BigDecimal grossAmount = BigDecimal.ZERO;
+        long cancelledCount = 0;
+        BigDecimal cancelledAmount = BigDecimal.ZERO;
+        Map<Order.OrderStatus, Long> statusCounts = new EnumMap<>(Order.OrderStatus.class);
+        for (RevenueRollup rollup : rollups) {
+            orderCount += rollup.getOrderCount();
+            grossAmount = grossAmount.add(rollup.getGrossAmount());
+            statusCounts.merge(rollup.getId().getStatus(), rollup.getOrderCount(), Long::sum);
+            if (rollup.getId().getStatus() == Order.OrderStatus.CANCELLED) {
+                cancelledCount += rollup.getOrderCount();
+                cancelledAmount = cancelledAmount.add(rollup.getGrossAmount());
+            }
+        }
+        return new RevenueBucket(bucketStart, orderCount, grossAmount, cancelledCount, cancelledAmount,
+            grossAmount.subtract(cancelledAmount), statusCounts);
+    }
+    
+    // Recomputes every rollup of the current shard from its hot and archived orders in one grouped pass each;
+    // daily rows are summed from the hourly ones. All rollup rows are locked before the totals are read, so an
+    // order write either committed before and is counted, or waits and applies its increment on top of the
+    // rebuilt row. Rows are overwritten in place, never deleted. A bucket with orders but no row gets one; if a
+    // writer creates that row meanwhile, the insert fails and the backfill rolls back rather than overwrite it.
+    @Transactional
+    public int backfill() {
+        Map<RevenueRollup.Key, RevenueRollup> rebuilt = new HashMap<>();
+        for (RevenueRollup row : rollupRepository.findAllForUpdate()) {
+            row.reset();
+            rebuilt.put(row.getId(), row);
+        }
+        int existing = rebuilt.size();
+        List<RevenueRollup> created = new ArrayList<>();
+        List<OrderRepository.HourlyRevenueView> hours = new ArrayList<>(orderRepository.findHourlyRevenueTotals());
+        hours.addAll(archivedOrderRepository.findHourlyRevenueTotals());
+        for (OrderRepository.HourlyRevenueView totals : hours) {
+            LocalDateTime hour = totals.getOrderDay().atTime(totals.getHourOfDay(), 0);
+            for (RevenueRollup.Granularity granularity : GRANULARITIES) {
+                rebuilt.computeIfAbsent(RevenueRollup.Key.of(granularity, hour, totals.getStatus()), key -> {
+                    RevenueRollup row = new RevenueRollup(key);
+                    created.add(row);
+                    return row;
+                }).add(totals.getOrderCount(), totals.getTotalAmount());
+            }
+        }
+        for (RevenueRollup row : created) {
+            RevenueRollup.Key key = row.getId();
+            rollupRepository.insert(key.getGranularity().name(), key.getBucketStart(), key.getStatus().name(),
+                row.getOrderCount(), row.getGrossAmount());
+        }
+        System.out.println("Backfilled " + existing + " revenue rollup rows and created " + created.size());
+        return rebuilt.size();
+    }
+    
+    private record KnownRow(int shard, RevenueRollup.Key key) {}
+}
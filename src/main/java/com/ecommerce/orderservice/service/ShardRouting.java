@@ -0,0 +1,147 @@
+package com.ecommerce.orderservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// Decides which shard database a query runs on. A user's orders all live on the shard their
+// userId lands on in a consistent-hash ring, and every order id carries its shard in the low
+// SHARD_BITS, so id lookups go straight to one shard. Queries not keyed by user or order run on
+// every shard in parallel and the caller merges the results. Shard 0 is spring.datasource and
+// also holds the tables that are not keyed by user. With one shard everything runs inline.
+@Component
+public class ShardRouting {
+
+    public static final int SHARD_BITS = 8;
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+    public static final int HOME_SHARD = 0;
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private final int shardCount;
+    // Hash of each virtual node to its shard; a user belongs to the first node at or after its hash
+    private final TreeMap<Long, Integer> ring = new TreeMap<>();
+    private final ExecutorService scatterExecutor;
+
+    public ShardRouting(@Value("${orders.sharding.shard-count:1}") int shardCount,
+                        @Value("${orders.sharding.virtual-nodes:160}") int virtualNodes) {
+        if (shardCount < 1 || shardCount > MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard count must be between 1 and " + MAX_SHARDS);
+        }
+        this.shardCount = shardCount;
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring.put(mix(((long) shard << 32) | node), shard);
+            }
+        }
+        this.scatterExecutor = shardCount > 1
+            ? Executors.newFixedThreadPool(shardCount, Thread.ofPlatform().name("order-shard-", 0).daemon().factory())
+            : null;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public static int currentShard() {
+        Integer shard = SHARD.get();
+        return shard != null ? shard : HOME_SHARD;
+    }
+
+    public int shardForUser(Long userId) {
+        Map.Entry<Long, Integer> node = ring.ceilingEntry(mix(userId));
+        return (node != null ? node : ring.firstEntry()).getValue();
+    }
+
+    public static long encode(long sequence, int shard) {
+        return (sequence << SHARD_BITS) | shard;
+    }
+
+    public static int shardOf(Long orderId) {
+        return (int) (orderId & (MAX_SHARDS - 1));
+    }
+
+    public <T> T forUser(Long userId, Supplier<T> query) {
+        return shardCount == 1 ? query.get() : onShard(shardForUser(userId), query);
+    }
+
+    public <T> T forOrder(Long orderId, Supplier<T> query) {
+        if (shardCount == 1) {
+            return query.get();
+        }
+        int shard = shardOf(orderId);
+        if (shard >= shardCount) {
+            throw new RuntimeException("Order not found");
+        }
+        return onShard(shard, query);
+    }
+
+    // Connections are bound when a transaction starts, so a running transaction cannot move;
+    // work for another shard has to start its own outside of it
+    public <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = SHARD.get();
+        if (shard != currentShard() && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction on shard " + currentShard());
+        }
+        SHARD.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                SHARD.remove();
+            } else {
+                SHARD.set(previous);
+            }
+        }
+    }
+
+    // Runs query on every shard and returns the results in shard order
+    public <T> List<T> scatter(Supplier<T> query) {
+        if (shardCount == 1) {
+            return Collections.singletonList(query.get());
+        }
+        List<CompletableFuture<T>> pending = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            pending.add(CompletableFuture.supplyAsync(() -> onShard(target, query), scatterExecutor));
+        }
+        List<T> results = new ArrayList<>(shardCount);
+        for (CompletableFuture<T> result : pending) {
+            try {
+                results.add(result.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    // Concatenates the per-shard lists that scatter() returns
+    public static <T> List<T> concat(List<List<T>> perShard) {
+        List<T> all = new ArrayList<>();
+        perShard.forEach(all::addAll);
+        return all;
+    }
+
+    // SplitMix64 finalizer, so neighbouring userIds spread over the whole ring
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
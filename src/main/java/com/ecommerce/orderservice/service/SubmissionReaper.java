@@ -0,0 +1,42 @@
+package com.ecommerce.orderservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// A POST /async payload only reaches its worker in memory, so a restart loses whatever was still
+// queued and leaves the PENDING shells behind, counted in every read model. Shells older than
+// abandon-after, which no completion takes that long, are moved to REJECTED.
+@Component
+public class SubmissionReaper {
+
+    private final OrderService orderService;
+    private final Duration abandonAfter;
+    private final int batchSize;
+
+    public SubmissionReaper(OrderService orderService,
+                            @Value("${orders.async.abandon-after:PT15M}") Duration abandonAfter,
+                            @Value("${orders.async.reap-batch-size:500}") int batchSize) {
+        this.orderService = orderService;
+        this.abandonAfter = abandonAfter;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.async.reap-interval:PT1M}",
+               initialDelayString = "${orders.async.reap-interval:PT1M}")
+    public void scheduledReap() {
+        reap();
+    }
+
+    public int reap() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(abandonAfter);
+        int rejected = orderService.rejectAbandonedSubmissions(cutoff, batchSize);
+        if (rejected > 0) {
+            System.out.println("Rejected " + rejected + " submitted orders not completed before " + cutoff);
+        }
+        return rejected;
+    }
+}
@@ -0,0 +1,121 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.UserOrderSummary;
+import com.ecommerce.orderservice.repository.ArchivedOrderRepository;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import com.ecommerce.orderservice.repository.UserOrderSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class UserOrderSummaryService {
+    
+    @Autowired
+    private UserOrderSummaryRepository summaryRepository;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${orders.summaries.rebuild-batch-size:500}")
+    private int rebuildBatchSize;
+    
+    public UserOrderSummary getSummary(Long userId) {
+        return summaryRepository.findById(userId).orElseGet(() -> new UserOrderSummary(userId));
+    }
+    
+    // Creates the user's row before the order transaction starts, so two first orders of one
+    // user race on this insert rather than one of them failing its whole order transaction
+    public void ensureSummary(Long userId) {
+        if (summaryRepository.existsById(userId)) {
+            return;
+        }
+        try {
+            summaryRepository.insertEmpty(userId);
+        } catch (DataIntegrityViolationException e) {
+            // Created concurrently; nothing to do
+        }
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Order order) {
+        lock(order.getUserId()).addOrders(order.getStatus(), 1, order.getTotalAmount(), order.getOrderDate());
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(Long userId, Order.OrderStatus from, BigDecimal fromAmount,
+                             Order.OrderStatus to, BigDecimal toAmount) {
+        lock(userId).changeOrder(from, fromAmount, to, toAmount);
+    }
+    
+    // Recomputes every summary from the orders and archived_orders tables, e.g. after a backfill or once summaries
+    // are suspected to have drifted. Summaries are rebuilt in batches of users by id. A batch's rows are locked
+    // before its totals are read, so an order write either committed before and is counted, or waits and applies
+    // its change on top of the rebuilt row. Rows are overwritten in place, never deleted, so a waiting write
+    // still finds its row.
+    public int rebuild() {
+        // Rows created after this belong to users whose every order went through them
+        summaryRepository.findOrderUserIdsWithoutSummary().forEach(this::ensureSummary);
+        summaryRepository.findArchivedOrderUserIdsWithoutSummary().forEach(this::ensureSummary);
+        
+        int rebuilt = 0;
+        long after = Long.MIN_VALUE;
+        int batch;
+        do {
+            long from = after;
+            List<Long> userIds = transactionTemplate.execute(tx -> rebuildBatch(from));
+            batch = userIds.size();
+            rebuilt += batch;
+            if (batch > 0) {
+                after = userIds.get(batch - 1);
+            }
+        } while (batch == rebuildBatchSize);
+        System.out.println("Rebuilt order summaries for " + rebuilt + " users");
+        return rebuilt;
+    }
+    
+    // Short transactions, so order writes never wait on more than one batch of row locks.
+    // Returns the ids of the users rebuilt, in order.
+    private List<Long> rebuildBatch(long after) {
+        Map<Long, UserOrderSummary> summaries = new LinkedHashMap<>();
+        for (UserOrderSummary summary : summaryRepository.lockBatchAfter(after, PageRequest.ofSize(rebuildBatchSize))) {
+            summary.reset();
+            summaries.put(summary.getUserId(), summary);
+        }
+        if (summaries.isEmpty()) {
+            return List.of();
+        }
+        List<OrderRepository.UserStatusTotalsView> rows = new ArrayList<>(orderRepository.findUserStatusTotals(summaries.keySet()));
+        rows.addAll(archivedOrderRepository.findUserStatusTotals(summaries.keySet()));
+        for (OrderRepository.UserStatusTotalsView totals : rows) {
+            UserOrderSummary summary = summaries.get(totals.getUserId());
+            if (summary != null) {
+                summary.addOrders(totals.getStatus(), totals.getOrderCount(), totals.getTotalAmount(), totals.getLastOrderDate());
+            }
+        }
+        return new ArrayList<>(summaries.keySet());
+    }
+    
+    private UserOrderSummary lock(Long userId) {
+        return summaryRepository.findForUpdate(userId)
+            .orElseGet(() -> summaryRepository.save(new UserOrderSummary(userId)));
+    }
+}
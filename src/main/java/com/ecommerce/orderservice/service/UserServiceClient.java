@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 @Service
 public class UserServiceClient {
@@ -28,28 +29,32 @@ public class UserServiceClient {
     }
     
     public boolean validateUser(Long userId) {
-        long startTime = System.currentTimeMillis();
+        return Boolean.TRUE.equals(validateUserReactive(userId).block());
+    }
+    
+    public Mono<Boolean> validateUserReactive(Long userId) {
         String url = userServiceUrl + "/api/users/" + userId;
         
-        try {
-            webClient.get()
+        return TelemetryClient.withSpan(span -> {
+            long startTime = System.currentTimeMillis();
+            return webClient.get()
                 .uri(url)
                 .header("Accept", "application/json")
                 .retrieve()
                 .bodyToMono(Object.class)
-                .block();
-            
-            long duration = System.currentTimeMillis() - startTime;
-            if (telemetryClient != null) {
-                telemetryClient.recordServiceCall("user-service", "validate_user", "GET", url, duration, 200);
-            }
-            return true;
-        } catch (Exception e) {
-            long duration = System.currentTimeMillis() - startTime;
-            if (telemetryClient != null) {
-                telemetryClient.recordServiceCall("user-service", "validate_user", "GET", url, duration, 404);
-            }
-            return false;
+                .then(Mono.just(true))
+                .doOnNext(exists -> recordCall(span, url, startTime, 200))
+                .onErrorResume(e -> {
+                    recordCall(span, url, startTime, 404);
+                    return Mono.just(false);
+                });
+        });
+    }
+    
+    private void recordCall(TelemetryClient.TraceSpan span, String url, long startTime, int statusCode) {
+        long duration = System.currentTimeMillis() - startTime;
+        if (telemetryClient != null) {
+            telemetryClient.recordServiceCall(span, "user-service", "validate_user", "GET", url, duration, statusCode);
         }
     }
-}
\ No newline at end of file
+}
@@ -3,11 +3,14 @@ package com.ecommerce.orderservice.telemetry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 
 @Component
 public class TelemetryClient {
@@ -49,25 +52,26 @@ public class TelemetryClient {
         sendTelemetryEvent(eventData);
         
         // Store in thread local for span context
-        TraceContext.setTraceId(traceId);
-        TraceContext.setSpanId(spanId);
-        TraceContext.setStartTime(System.currentTimeMillis());
+        TraceContext.set(new TraceSpan(traceId, spanId, System.currentTimeMillis()));
         
         return traceId;
     }
     
     public void finishTrace(String operation, int httpStatusCode, String errorMessage) {
-        String traceId = TraceContext.getTraceId();
-        String spanId = TraceContext.getSpanId();
-        Long startTime = TraceContext.getStartTime();
+        finishTrace(TraceContext.current(), operation, httpStatusCode, errorMessage);
         
-        if (traceId == null || spanId == null) return;
+        // Clear trace context
+        TraceContext.clear();
+    }
+    
+    public void finishTrace(TraceSpan span, String operation, int httpStatusCode, String errorMessage) {
+        if (span == null || span.traceId() == null || span.spanId() == null) return;
         
-        long duration = startTime != null ? System.currentTimeMillis() - startTime : 0;
+        long duration = span.startTime() != null ? System.currentTimeMillis() - span.startTime() : 0;
         
         Map<String, Object> eventData = createEventData();
-        eventData.put("traceId", traceId);
-        eventData.put("spanId", spanId);
+        eventData.put("traceId", span.traceId());
+        eventData.put("spanId", span.spanId());
         eventData.put("serviceName", serviceName);
         eventData.put("operation", operation + "_complete");
         eventData.put("eventType", "SPAN");
@@ -77,23 +81,21 @@ public class TelemetryClient {
         eventData.put("httpStatusCode", httpStatusCode);
         eventData.put("errorMessage", errorMessage != null ? errorMessage : "");
         sendTelemetryEvent(eventData);
-        
-        // Clear trace context
-        TraceContext.clear();
     }
     
     public void recordServiceCall(String targetService, String operation, String httpMethod, String url, long duration, int statusCode) {
-        String traceId = TraceContext.getTraceId();
-        String parentSpanId = TraceContext.getSpanId();
-        
-        if (traceId == null) return;
+        recordServiceCall(TraceContext.current(), targetService, operation, httpMethod, url, duration, statusCode);
+    }
+    
+    public void recordServiceCall(TraceSpan span, String targetService, String operation, String httpMethod, String url, long duration, int statusCode) {
+        if (span == null || span.traceId() == null) return;
         
         String spanId = generateSpanId();
         
         Map<String, Object> eventData = createEventData();
-        eventData.put("traceId", traceId);
+        eventData.put("traceId", span.traceId());
         eventData.put("spanId", spanId);
-        eventData.put("parentSpanId", parentSpanId);
+        eventData.put("parentSpanId", span.spanId());
         eventData.put("serviceName", serviceName);
         eventData.put("operation", targetService + "_" + operation);
         eventData.put("eventType", "SPAN");
@@ -108,14 +110,15 @@ public class TelemetryClient {
     }
     
     public void logEvent(String message, String level) {
-        String traceId = TraceContext.getTraceId();
-        String spanId = TraceContext.getSpanId();
-        
-        if (traceId == null) return;
+        logEvent(TraceContext.current(), message, level);
+    }
+    
+    public void logEvent(TraceSpan span, String message, String level) {
+        if (span == null || span.traceId() == null) return;
         
         Map<String, Object> eventData = createEventData();
-        eventData.put("traceId", traceId);
-        eventData.put("spanId", spanId);
+        eventData.put("traceId", span.traceId());
+        eventData.put("spanId", span.spanId());
         eventData.put("serviceName", serviceName);
         eventData.put("operation", "log_" + level.toLowerCase());
         eventData.put("eventType", "LOG");
@@ -125,6 +128,18 @@ public class TelemetryClient {
         sendTelemetryEvent(eventData);
     }
     
+    // Runs reactive work with the active span: the subscriber context wins, otherwise the span
+    // on the assembling thread. The span is written back into the context for inner publishers,
+    // since they are assembled on threads that never saw the ThreadLocal.
+    public static <T> Mono<T> withSpan(Function<TraceSpan, Mono<T>> body) {
+        TraceSpan assembled = TraceContext.current();
+        return Mono.deferContextual(context -> {
+            TraceSpan span = context.getOrDefault(TraceSpan.class, assembled);
+            Mono<T> result = body.apply(span);
+            return span == null ? result : result.contextWrite(Context.of(TraceSpan.class, span));
+        });
+    }
+    
     private void sendTelemetryEvent(Map<String, Object> eventData) {
         try {
             webClient.post()
@@ -155,29 +170,35 @@ public class TelemetryClient {
         return "span_" + Long.toHexString(ThreadLocalRandom.current().nextLong());
     }
     
+    public record TraceSpan(String traceId, String spanId, Long startTime) {}
+    
+    // Backed by a single ThreadLocal holding an immutable span, so a request thread (or a
+    // short-lived virtual thread) carries one map entry instead of three.
     public static class TraceContext {
-        private static final ThreadLocal<String> traceId = new ThreadLocal<>();
-        private static final ThreadLocal<String> spanId = new ThreadLocal<>();
-        private static final ThreadLocal<Long> startTime = new ThreadLocal<>();
+        private static final ThreadLocal<TraceSpan> span = new ThreadLocal<>();
         
-        public static void setTraceId(String id) { traceId.set(id); }
-        public static String getTraceId() { return traceId.get(); }
+        public static void set(TraceSpan current) { span.set(current); }
         
-        public static void setSpanId(String id) { spanId.set(id); }
-        public static String getSpanId() { return spanId.get(); }
+        public static void setTraceId(String id) { span.set(new TraceSpan(id, getSpanId(), getStartTime())); }
+        public static String getTraceId() { TraceSpan current = span.get(); return current == null ? null : current.traceId(); }
         
-        public static void setStartTime(Long time) { startTime.set(time); }
-        public static Long getStartTime() { return startTime.get(); }
+        public static void setSpanId(String id) { span.set(new TraceSpan(getTraceId(), id, getStartTime())); }
+        public static String getSpanId() { TraceSpan current = span.get(); return current == null ? null : current.spanId(); }
+        
+        public static void setStartTime(Long time) { span.set(new TraceSpan(getTraceId(), getSpanId(), time)); }
+        public static Long getStartTime() { TraceSpan current = span.get(); return current == null ? null : current.startTime(); }
+        
+        public static TraceSpan current() {
+            TraceSpan current = span.get();
+            return current == null || current.traceId() == null ? null : current;
+        }
         
         public static void clear() {
-            traceId.remove();
-            spanId.remove();
-            startTime.remove();
+            span.remove();
         }
         
-        public static void propagate(String trace, String span) {
-            traceId.set(trace);
-            spanId.set(span);
+        public static void propagate(String trace, String spanId) {
+            span.set(new TraceSpan(trace, spanId, getStartTime()));
         }
     }
 }
\ No newline at end of file
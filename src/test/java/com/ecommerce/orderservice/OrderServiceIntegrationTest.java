@@ -119,9 +119,13 @@ public class OrderServiceIntegrationTest {
         assertThat(retrievedOrder.getId()).isEqualTo(createdOrder.getId());
         assertThat(retrievedOrder.getUserId()).isEqualTo(123L);
 
+        // Warm the read cache before mutating
+        assertThat(orderService.getOrderSnapshot(createdOrder.getId(), 0L).status()).isEqualTo(Order.OrderStatus.PENDING);
+
         // Update order status
         Order confirmedOrder = orderService.updateOrderStatus(createdOrder.getId(), Order.OrderStatus.CONFIRMED);
         assertThat(confirmedOrder.getStatus()).isEqualTo(Order.OrderStatus.CONFIRMED);
+        assertThat(orderService.getOrderSnapshot(createdOrder.getId(), 0L).status()).isEqualTo(Order.OrderStatus.CONFIRMED);
 
         // Verify status persisted
         Order statusUpdatedOrder = orderRepository.findById(createdOrder.getId()).orElse(null);
@@ -141,6 +145,7 @@ public class OrderServiceIntegrationTest {
         orderService.cancelOrder(createdOrder.getId());
         Order cancelledOrder = orderRepository.findById(createdOrder.getId()).orElse(null);
         assertThat(cancelledOrder.getStatus()).isEqualTo(Order.OrderStatus.CANCELLED);
+        assertThat(orderService.getOrderSnapshot(createdOrder.getId(), 0L).status()).isEqualTo(Order.OrderStatus.CANCELLED);
 
         // Verify notifications were sent
         verify(notificationServiceClient).sendOrderConfirmation(createdOrder.getId(), 123L);
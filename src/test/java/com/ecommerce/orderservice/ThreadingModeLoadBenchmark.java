@@ -0,0 +1,190 @@
+package com.ecommerce.orderservice;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives POST /api/orders against a slow stub of the user, product and notification services,
+ * once with platform request threads and once with spring.threads.virtual.enabled, and reports
+ * how many orders were in flight at once and what each one cost in heap and platform threads.
+ * Run with {@code ./gradlew benchmark --tests '*ThreadingModeLoadBenchmark'}.
+ */
+@Tag("benchmark")
+public class ThreadingModeLoadBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 1000);
+    private static final long DOWNSTREAM_DELAY_MS = Long.getLong("benchmark.downstream-delay-ms", 200L);
+
+    private static final String ORDER_JSON = "{\"userId\":1,\"shippingAddress\":\"123 Main St\"," +
+        "\"items\":[{\"productId\":1,\"quantity\":1},{\"productId\":2,\"quantity\":2}]}";
+
+    private static HttpServer downstream;
+    private static ExecutorService downstreamExecutor;
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger peakInFlight = new AtomicInteger();
+
+    @BeforeAll
+    static void startDownstream() throws IOException {
+        downstreamExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        downstream = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        downstream.setExecutor(downstreamExecutor);
+
+        // An order is in flight from its user validation until its confirmation notification
+        downstream.createContext("/api/users/", exchange -> {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            respond(exchange, "{\"id\":1}", DOWNSTREAM_DELAY_MS);
+        });
+        downstream.createContext("/api/products/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            String id = path.substring(path.lastIndexOf('/') + 1);
+            respond(exchange, "{\"id\":" + id + ",\"name\":\"Product " + id + "\",\"price\":9.99}", DOWNSTREAM_DELAY_MS);
+        });
+        downstream.createContext("/api/notifications/", exchange -> {
+            respond(exchange, "", DOWNSTREAM_DELAY_MS);
+            inFlight.decrementAndGet();
+        });
+        downstream.createContext("/api/telemetry/", exchange -> respond(exchange, "", 0));
+        downstream.start();
+    }
+
+    @AfterAll
+    static void stopDownstream() {
+        downstream.stop(0);
+        downstreamExecutor.shutdownNow();
+    }
+
+    @Test
+    void compareInFlightOrdersAndMemoryPerRequest() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%-10s %10s %10s %12s %14s %18s%n",
+            "mode", "requests", "wall (ms)", "peak orders", "peak threads", "heap/order (KB)");
+        for (Result result : List.of(platform, virtual)) {
+            System.out.printf("%-10s %10d %10d %12d %14d %18.1f%n", result.mode(), result.succeeded(),
+                result.wallMillis(), result.peakInFlight(), result.peakPlatformThreads(), result.heapPerOrderKb());
+        }
+
+        assertThat(platform.succeeded()).isEqualTo(REQUESTS);
+        assertThat(virtual.succeeded()).isEqualTo(REQUESTS);
+        assertThat(virtual.peakInFlight()).isGreaterThan(platform.peakInFlight());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        String downstreamUrl = "http://localhost:" + downstream.getAddress().getPort();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(OrderServiceApplication.class)
+            .properties(
+                "server.port=0",
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "spring.datasource.url=jdbc:h2:mem:load-" + mode,
+                "spring.jpa.show-sql=false",
+                "logging.level.com.ecommerce.orderservice=INFO",
+                // Every request comes from one user; admission control would shed the load under test
+                "orders.admission.user-rate=1000000",
+                "orders.admission.user-burst=1000000",
+                "orders.admission.max-in-flight=1000000",
+                "orders.admission.max-latency=PT1H",
+                "orders.lanes.creates.concurrency=100000",
+                "services.user-service.url=" + downstreamUrl,
+                "services.product-service.url=" + downstreamUrl,
+                "services.notification-service.url=" + downstreamUrl,
+                "telemetry.service.url=" + downstreamUrl)
+            .run();
+
+        try (ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            HttpClient client = HttpClient.newBuilder().executor(clientExecutor).build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(ORDER_JSON, StandardCharsets.UTF_8))
+                .build();
+
+            inFlight.set(0);
+            peakInFlight.set(0);
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            System.gc();
+            long baselineHeap = memory.getHeapMemoryUsage().getUsed();
+            AtomicLong peakHeap = new AtomicLong(baselineHeap);
+            AtomicInteger peakThreads = new AtomicInteger(threads.getThreadCount());
+
+            Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                    peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+
+            long start = System.currentTimeMillis();
+            List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+            }
+            int succeeded = 0;
+            for (CompletableFuture<HttpResponse<Void>> response : responses) {
+                if (response.join().statusCode() == 200) {
+                    succeeded++;
+                }
+            }
+            long wallMillis = System.currentTimeMillis() - start;
+            sampler.interrupt();
+
+            int peak = Math.max(1, peakInFlight.get());
+            double heapPerOrderKb = (peakHeap.get() - baselineHeap) / 1024.0 / peak;
+            return new Result(mode, succeeded, wallMillis, peakInFlight.get(), peakThreads.get(), heapPerOrderKb);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String body, long delayMillis) throws IOException {
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private record Result(String mode, int succeeded, long wallMillis, int peakInFlight,
+                          int peakPlatformThreads, double heapPerOrderKb) {
+    }
+}
@@ -0,0 +1,113 @@
+package com.ecommerce.orderservice.audit;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderEvent;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JMH measurements of appending to the audit journal, from one thread and from four contending
+ * ones, next to writing the same record as an auto-committed row in an in-process H2 table.
+ * The flusher runs at its default interval throughout, so its msyncs are part of what the
+ * appends compete with. Run with
+ * {@code ./gradlew benchmark --tests '*AuditJournalBenchmark' -Dbenchmark.forks=1}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuditJournalBenchmark {
+
+    private final AtomicLong nextOrderId = new AtomicLong();
+    private Path directory;
+    private AuditJournal journal;
+    private Connection connection;
+    private PreparedStatement insertRecord;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("audit-journal-benchmark");
+        journal = new AuditJournal(directory, DataSize.ofMegabytes(64), Duration.ofMillis(10));
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:audit-journal-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS audit_records");
+            statement.execute("CREATE TABLE audit_records (sequence BIGINT AUTO_INCREMENT PRIMARY KEY, recorded_at TIMESTAMP, " +
+                "type VARCHAR(20), order_id BIGINT, user_id BIGINT, status VARCHAR(20))");
+        }
+        insertRecord = connection.prepareStatement("INSERT INTO audit_records (recorded_at, type, order_id, user_id, status) " +
+            "VALUES (?, ?, ?, ?, ?)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+        journal.close();
+        FileSystemUtils.deleteRecursively(directory);
+        connection.close();
+    }
+
+    @Benchmark
+    public long append() {
+        return journal.append(OrderEvent.Type.STATUS_CHANGED, nextOrderId.incrementAndGet(), 123L, Order.OrderStatus.SHIPPED);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long appendContended() {
+        return journal.append(OrderEvent.Type.STATUS_CHANGED, nextOrderId.incrementAndGet(), 123L, Order.OrderStatus.SHIPPED);
+    }
+
+    // Auto-commit on, so each call pays its own commit like an audit row written per mutation would
+    @Benchmark
+    public int insertRow() throws SQLException {
+        insertRecord.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+        insertRecord.setString(2, OrderEvent.Type.STATUS_CHANGED.name());
+        insertRecord.setLong(3, nextOrderId.incrementAndGet());
+        insertRecord.setLong(4, 123L);
+        insertRecord.setString(5, Order.OrderStatus.SHIPPED.name());
+        return insertRecord.executeUpdate();
+    }
+
+    @Test
+    void runBenchmarks() throws Exception {
+        Options options = new OptionsBuilder()
+            .include(AuditJournalBenchmark.class.getName() + "\\.")
+            .forks(Integer.getInteger("benchmark.forks", 1))
+            .warmupIterations(3)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(5)
+            .measurementTime(TimeValue.seconds(1))
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,225 @@
+package com.ecommerce.orderservice.audit;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AuditJournalTest {
+
+    // A CREATED record of a PENDING order with a user: header, sequence, timestamp, type, ids, status
+    private static final int RECORD_BYTES = 8 + 8 + 8 + (1 + 7) + 8 + 8 + (1 + 7);
+    private static final DataSize FOUR_RECORDS = DataSize.ofBytes(AuditJournal.SEGMENT_HEADER_BYTES + 4 * RECORD_BYTES);
+
+    @TempDir
+    Path directory;
+
+    private AuditJournal journal;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void append_ShouldBeReadBackInSequenceOrder() {
+        // Given
+        journal = open(DataSize.ofMegabytes(1));
+        journal.append(OrderEvent.Type.CREATED, 1L, 123L, Order.OrderStatus.PENDING);
+        journal.append(OrderEvent.Type.STATUS_CHANGED, 1L, 123L, Order.OrderStatus.CONFIRMED);
+        journal.append(OrderEvent.Type.CANCELLED, 2L, null, Order.OrderStatus.CANCELLED);
+
+        // When
+        List<AuditRecord> records = drain(journal.read(1));
+
+        // Then
+        assertThat(records).extracting(AuditRecord::sequence).containsExactly(1L, 2L, 3L);
+        assertThat(records.get(1).type()).isEqualTo(OrderEvent.Type.STATUS_CHANGED);
+        assertThat(records.get(1).status()).isEqualTo(Order.OrderStatus.CONFIRMED);
+        assertThat(records.get(2).orderId()).isEqualTo(2L);
+        assertThat(records.get(2).userId()).isNull();
+        assertThat(journal.lastSequence()).isEqualTo(3L);
+    }
+
+    @Test
+    void append_PastSegmentSize_ShouldRollAndReadAcrossSegments() {
+        // Given
+        journal = open(FOUR_RECORDS);
+        appendCreated(10);
+
+        // When
+        List<AuditRecord> fromStart = drain(journal.read(1));
+        List<AuditRecord> fromMiddle = drain(journal.read(6));
+
+        // Then
+        assertThat(AuditJournal.segments(directory)).hasSize(3);
+        assertThat(fromStart).extracting(AuditRecord::sequence).containsExactlyElementsOf(LongStream.rangeClosed(1, 10).boxed().toList());
+        assertThat(fromMiddle).extracting(AuditRecord::orderId).containsExactly(6L, 7L, 8L, 9L, 10L);
+    }
+
+    @Test
+    void reopen_ShouldContinueSequenceAndChain() throws IOException {
+        // Given
+        journal = open(FOUR_RECORDS);
+        appendCreated(3);
+        journal.close();
+
+        // When
+        journal = open(FOUR_RECORDS);
+        long sequence = journal.append(OrderEvent.Type.CREATED, 4L, 123L, Order.OrderStatus.PENDING);
+        journal.append(OrderEvent.Type.CREATED, 5L, 123L, Order.OrderStatus.PENDING);
+
+        // Then
+        assertThat(sequence).isEqualTo(4L);
+        assertThat(drain(journal.read(1))).extracting(AuditRecord::orderId).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void markGap_ShouldKeepTheEarliestTimeAcrossReopen() throws IOException {
+        // Given
+        journal = open(FOUR_RECORDS);
+        journal.markGap(2_000L);
+        journal.markGap(1_000L);
+        journal.markGap(3_000L);
+        journal.close();
+
+        // When
+        journal = open(FOUR_RECORDS);
+
+        // Then
+        assertThat(journal.gapSince()).hasValue(1_000L);
+        journal.clearGap();
+        assertThat(journal.gapSince()).isEmpty();
+    }
+
+    @Test
+    void read_WithModifiedRecordInEarlierSegment_ShouldFailAtThatRecord() throws IOException {
+        // Given: the order id of sequence 6, the second record of the second segment, is changed
+        journal = open(FOUR_RECORDS);
+        appendCreated(10);
+        flipByte(directory.resolve(AuditJournal.segmentName(5)), recordOffset(1) + 32);
+
+        // When
+        AuditReader reader = journal.read(1);
+        List<AuditRecord> verified = new ArrayList<>();
+
+        // Then
+        assertThatThrownBy(() -> reader.forEachRemaining(verified::add))
+            .isInstanceOf(AuditReader.CorruptJournalException.class)
+            .hasMessageContaining("sequence 6");
+        assertThat(verified).extracting(AuditRecord::sequence).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void read_WithModifiedRecordInActiveSegment_ShouldFail() throws IOException {
+        // Given
+        journal = open(DataSize.ofMegabytes(1));
+        appendCreated(3);
+        flipByte(directory.resolve(AuditJournal.segmentName(1)), recordOffset(1) + 32);
+
+        // When & Then
+        assertThrows(AuditReader.CorruptJournalException.class, () -> drain(journal.read(1)));
+    }
+
+    @Test
+    void reopen_AfterTornLastRecord_ShouldContinueAfterLastValidRecord() throws IOException {
+        // Given: the CRC of the third record no longer matches, as if its write never finished
+        journal = open(DataSize.ofMegabytes(1));
+        appendCreated(3);
+        journal.close();
+        flipByte(directory.resolve(AuditJournal.segmentName(1)), recordOffset(2) + 4);
+
+        // When
+        journal = open(DataSize.ofMegabytes(1));
+        long sequence = journal.append(OrderEvent.Type.CANCELLED, 2L, 123L, Order.OrderStatus.CANCELLED);
+
+        // Then
+        assertThat(sequence).isEqualTo(3L);
+        assertThat(AuditJournal.segments(directory)).hasSize(2);
+        List<AuditRecord> records = drain(new AuditReader(directory, 1));
+        assertThat(records).extracting(AuditRecord::sequence).containsExactly(1L, 2L, 3L);
+        assertThat(records.get(2).type()).isEqualTo(OrderEvent.Type.CANCELLED);
+    }
+
+    @Test
+    void open_WhileDirectoryInUse_ShouldFail() {
+        // Given
+        journal = open(DataSize.ofMegabytes(1));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> open(DataSize.ofMegabytes(1)));
+    }
+
+    @Test
+    void append_FromManyThreads_ShouldKeepSequencesGapless() throws Exception {
+        // Given
+        journal = open(DataSize.ofKilobytes(64));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<?>> appends = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            appends.add(executor.submit(() -> appendCreated(1_000)));
+        }
+        for (Future<?> append : appends) {
+            append.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(drain(journal.read(1))).extracting(AuditRecord::sequence)
+            .containsExactlyElementsOf(LongStream.rangeClosed(1, 8_000).boxed().toList());
+    }
+
+    private AuditJournal open(DataSize segmentSize) {
+        return new AuditJournal(directory, segmentSize, Duration.ofMillis(10));
+    }
+
+    private void appendCreated(int count) {
+        for (long orderId = 1; orderId <= count; orderId++) {
+            journal.append(OrderEvent.Type.CREATED, orderId, 123L, Order.OrderStatus.PENDING);
+        }
+    }
+
+    private static long recordOffset(int index) {
+        return AuditJournal.SEGMENT_HEADER_BYTES + (long) index * RECORD_BYTES;
+    }
+
+    private static List<AuditRecord> drain(Iterator<AuditRecord> reader) {
+        List<AuditRecord> records = new ArrayList<>();
+        reader.forEachRemaining(records::add);
+        return records;
+    }
+
+    private static void flipByte(Path file, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer octet = ByteBuffer.allocate(1);
+            channel.read(octet, offset);
+            octet.put(0, (byte) (octet.get(0) ^ 0x01));
+            octet.rewind();
+            channel.write(octet, offset);
+        }
+    }
+}
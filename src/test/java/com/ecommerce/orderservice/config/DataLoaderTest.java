@@ -2,6 +2,11 @@ package com.ecommerce.orderservice.config;
 
 import com.ecommerce.orderservice.model.Order;
 import com.ecommerce.orderservice.repository.OrderRepository;
+import com.ecommerce.orderservice.service.OrderEventStore;
+import com.ecommerce.orderservice.service.ProductSalesIndex;
+import com.ecommerce.orderservice.service.RevenueRollupService;
+import com.ecommerce.orderservice.service.ShardRouting;
+import com.ecommerce.orderservice.service.UserOrderSummaryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,6 +15,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -25,13 +33,32 @@ public class DataLoaderTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private UserOrderSummaryService userOrderSummaryService;
+
+    @Mock
+    private RevenueRollupService revenueRollupService;
+
+    @Mock
+    private ProductSalesIndex productSalesIndex;
+
+    @Mock
+    private OrderEventStore orderEventStore;
+
     @InjectMocks
     private DataLoader dataLoader;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dataLoader, "shardRouting", new ShardRouting(1, 16));
+        ReflectionTestUtils.setField(dataLoader, "transactionTemplate",
+            new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
     @Test
     void run_WithEmptyDatabase_ShouldLoadSeedData() throws Exception {
         // Given
-        when(orderRepository.count()).thenReturn(0L);
+        givenEmptyDatabase();
 
         // When
         dataLoader.run("arg1", "arg2");
@@ -39,6 +66,30 @@ public class DataLoaderTest {
         // Then
         verify(orderRepository).count();
         verify(orderRepository, times(6)).save(any(Order.class));
+        verify(orderEventStore, times(6)).recordCreated(any(Order.class));
+        verify(userOrderSummaryService).rebuild();
+        verify(revenueRollupService).backfill();
+        verify(productSalesIndex).backfill();
+    }
+
+    @Test
+    void run_ShouldRecordCreatedEventsOfThePersistedOrders() throws Exception {
+        // Given: save returns the managed copy, as a merge does
+        when(orderRepository.count()).thenReturn(0L);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order persisted = new Order();
+            persisted.setId(100L + ((Order) invocation.getArgument(0)).getUserId());
+            return persisted;
+        });
+        ArgumentCaptor<Order> eventCaptor = ArgumentCaptor.forClass(Order.class);
+
+        // When
+        dataLoader.run();
+
+        // Then
+        verify(orderEventStore, times(6)).recordCreated(eventCaptor.capture());
+        assertThat(eventCaptor.getAllValues()).extracting(Order::getId)
+            .containsExactly(101L, 102L, 103L, 104L, 105L, 106L);
     }
 
     @Test
@@ -52,12 +103,15 @@ public class DataLoaderTest {
         // Then
         verify(orderRepository).count();
         verify(orderRepository, never()).save(any(Order.class));
+        verify(userOrderSummaryService, never()).rebuild();
+        verify(revenueRollupService, never()).backfill();
+        verify(productSalesIndex, never()).backfill();
     }
 
     @Test
     void run_ShouldCreateOrdersWithCorrectData() throws Exception {
         // Given
-        when(orderRepository.count()).thenReturn(0L);
+        givenEmptyDatabase();
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
 
         // When
@@ -71,7 +125,7 @@ public class DataLoaderTest {
 
         // Verify first order (John Doe's gaming setup)
         Order firstOrder = savedOrders.get(0);
-        assertThat(firstOrder.getId()).isEqualTo(1L);
+        assertThat(firstOrder.getId()).isNull();
         assertThat(firstOrder.getUserId()).isEqualTo(1L);
         assertThat(firstOrder.getShippingAddress()).isEqualTo("123 Main St, Anytown, ST 12345");
         assertThat(firstOrder.getStatus()).isEqualTo(Order.OrderStatus.DELIVERED);
@@ -94,7 +148,7 @@ public class DataLoaderTest {
     @Test
     void run_ShouldCreateOrdersWithDifferentStatuses() throws Exception {
         // Given
-        when(orderRepository.count()).thenReturn(0L);
+        givenEmptyDatabase();
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
 
         // When
@@ -117,7 +171,7 @@ public class DataLoaderTest {
     @Test
     void run_ShouldCreateOrdersWithCorrectTotalAmounts() throws Exception {
         // Given
-        when(orderRepository.count()).thenReturn(0L);
+        givenEmptyDatabase();
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
 
         // When
@@ -140,7 +194,7 @@ public class DataLoaderTest {
     @Test
     void run_ShouldSetOrderItemReferences() throws Exception {
         // Given
-        when(orderRepository.count()).thenReturn(0L);
+        givenEmptyDatabase();
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
 
         // When
@@ -162,7 +216,7 @@ public class DataLoaderTest {
     @Test
     void run_ShouldCreateOrdersForDifferentUsers() throws Exception {
         // Given
-        when(orderRepository.count()).thenReturn(0L);
+        givenEmptyDatabase();
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
 
         // When
@@ -181,7 +235,7 @@ public class DataLoaderTest {
     @Test
     void run_ShouldCreateOrdersWithValidOrderDates() throws Exception {
         // Given
-        when(orderRepository.count()).thenReturn(0L);
+        givenEmptyDatabase();
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
 
         // When
@@ -207,7 +261,7 @@ public class DataLoaderTest {
     @Test
     void run_ShouldCreateOrderItemsWithCorrectPrices() throws Exception {
         // Given
-        when(orderRepository.count()).thenReturn(0L);
+        givenEmptyDatabase();
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
 
         // When
@@ -232,4 +286,9 @@ public class DataLoaderTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    private void givenEmptyDatabase() {
+        when(orderRepository.count()).thenReturn(0L);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+}
@@ -0,0 +1,106 @@
+package com.ecommerce.orderservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExecutionLaneInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutionLaneInterceptor.Lane reads;
+    private ExecutionLaneInterceptor.Lane creates;
+    private ExecutionLaneInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reads = new ExecutionLaneInterceptor.Lane("reads", 10, 0, Duration.ZERO, meterRegistry);
+        creates = new ExecutionLaneInterceptor.Lane("creates", 1, 1, Duration.ofMillis(100), meterRegistry);
+        ExecutionLaneInterceptor.Lane mutations = new ExecutionLaneInterceptor.Lane("mutations", 1, 0, Duration.ZERO, meterRegistry);
+        interceptor = new ExecutionLaneInterceptor(reads, creates, mutations);
+    }
+
+    @Test
+    void preHandle_WithCreateLaneFull_ShouldRejectCreatesButStillAdmitReads() {
+        // Given
+        assertThat(interceptor.preHandle(request("POST"), new MockHttpServletResponse(), null)).isTrue();
+
+        // When
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        boolean secondCreate = interceptor.preHandle(request("POST"), rejected, null);
+        boolean read = interceptor.preHandle(request("GET"), new MockHttpServletResponse(), null);
+
+        // Then
+        assertThat(secondCreate).isFalse();
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(read).isTrue();
+        assertThat(meterRegistry.get("orders.lane.rejected").tag("lane", "creates").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.lane.rejected").tag("lane", "reads").counter().count()).isZero();
+    }
+
+    @Test
+    void afterCompletion_ShouldReleaseThePermit() {
+        // Given
+        MockHttpServletRequest request = request("POST");
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        assertThat(creates.active()).isEqualTo(1);
+
+        // When
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        // Then
+        assertThat(creates.active()).isZero();
+    }
+
+    @Test
+    void asyncRequest_ShouldReleasePermitWhenThreadIsFreedAndNotTakeOneOnRedispatch() {
+        // Given
+        MockHttpServletRequest request = request("POST");
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        // When
+        interceptor.afterConcurrentHandlingStarted(request, new MockHttpServletResponse(), null);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        // Then
+        assertThat(creates.active()).isZero();
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        assertThat(creates.active()).isZero();
+    }
+
+    @Test
+    void preHandle_WithRoomInQueue_ShouldWaitForAPermit() throws Exception {
+        // Given
+        creates = new ExecutionLaneInterceptor.Lane("creates", 1, 1, Duration.ofSeconds(2), meterRegistry);
+        interceptor = new ExecutionLaneInterceptor(reads, creates, creates);
+        MockHttpServletRequest first = request("POST");
+        interceptor.preHandle(first, new MockHttpServletResponse(), null);
+
+        // When
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(
+            () -> interceptor.preHandle(request("POST"), new MockHttpServletResponse(), null));
+        Thread.sleep(20);
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), null, null);
+
+        // Then
+        assertThat(queued.get(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(creates.active()).isEqualTo(1);
+        assertThat(reads.active()).isZero();
+    }
+
+    private static MockHttpServletRequest request(String method) {
+        return new MockHttpServletRequest(method, "/api/orders");
+    }
+}
@@ -0,0 +1,122 @@
+package com.ecommerce.orderservice.config;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderItem;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares payload size (raw and gzipped) and serialization CPU of List<Order> in the three
+ * encodings OrderController can produce. Run with
+ * {@code ./gradlew benchmark --tests '*OrderEncodingBenchmark' -Dbenchmark.order-counts=100,1000,10000}.
+ */
+@Tag("benchmark")
+public class OrderEncodingBenchmark {
+
+    private static final String ORDER_COUNTS = System.getProperty("benchmark.order-counts", "100,1000,10000");
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 50);
+
+    private static final String[] PRODUCT_NAMES = {
+        "Gaming Laptop Pro", "Wireless Gaming Mouse", "Mechanical Keyboard", "27-inch 4K Monitor",
+        "USB-C Docking Station", "Noise Cancelling Headphones", "Ergonomic Office Chair", "Webcam HD 1080p"
+    };
+
+    @Test
+    void comparePayloadBytesAndSerializationCpu() throws IOException {
+        // Configured like the converters: Boot's builder writes dates as ISO strings
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", mapper(null));
+        mappers.put("cbor", mapper(new CBORFactory()));
+        mappers.put("smile", mapper(new SmileFactory()));
+
+        System.out.printf("%-8s %-7s %12s %12s %16s%n", "orders", "format", "bytes", "gzip bytes", "cpu ms/list");
+        for (int count : Arrays.stream(ORDER_COUNTS.split(",")).mapToInt(value -> Integer.parseInt(value.trim())).toArray()) {
+            List<Order> orders = orders(count);
+            Map<String, Integer> sizes = new LinkedHashMap<>();
+            for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+                byte[] encoded = entry.getValue().writeValueAsBytes(orders);
+                sizes.put(entry.getKey(), encoded.length);
+                System.out.printf("%-8d %-7s %12d %12d %16.3f%n", count, entry.getKey(), encoded.length,
+                    gzip(encoded).length, cpuMillisPerSerialization(entry.getValue(), orders));
+            }
+            assertThat(sizes.get("cbor")).isLessThan(sizes.get("json"));
+            assertThat(sizes.get("smile")).isLessThan(sizes.get("json"));
+        }
+    }
+
+    private static ObjectMapper mapper(JsonFactory factory) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (factory != null) {
+            builder.factory(factory);
+        }
+        return builder.build();
+    }
+
+    private static double cpuMillisPerSerialization(ObjectMapper mapper, List<Order> orders) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        // Warm up the serializers before timing
+        for (int i = 0; i < 10; i++) {
+            mapper.writeValueAsBytes(orders);
+        }
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(orders);
+        }
+        return (threads.getCurrentThreadCpuTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    // Shaped like the seed data: one to four items per order and varied addresses and prices
+    private static List<Order> orders(int count) {
+        List<Order> orders = new ArrayList<>(count);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            Order order = new Order((long) (i % 500) + 1, BigDecimal.ZERO, (100 + i) + " Main St, Anytown, ST " + (10000 + i % 90000));
+            order.setId((long) i + 1);
+            order.setOrderDate(now.minusMinutes(i));
+            order.setStatus(Order.OrderStatus.values()[i % Order.OrderStatus.values().length]);
+            List<OrderItem> items = new ArrayList<>();
+            for (int j = 0; j <= i % 4; j++) {
+                int product = (i + j) % PRODUCT_NAMES.length;
+                OrderItem item = new OrderItem((long) product + 1, PRODUCT_NAMES[product], j + 1,
+                    new BigDecimal(19 + product * 37 + ".99"));
+                item.setId((long) i * 4 + j + 1);
+                item.setOrder(order);
+                items.add(item);
+            }
+            order.setOrderItems(items);
+            order.setTotalAmount(items.stream().map(OrderItem::getTotalPrice).reduce(BigDecimal.ZERO, BigDecimal::add));
+            orders.add(order);
+        }
+        return orders;
+    }
+}
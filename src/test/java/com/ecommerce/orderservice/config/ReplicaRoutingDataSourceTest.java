@@ -0,0 +1,81 @@
+package com.ecommerce.orderservice.config;
+
+import com.ecommerce.orderservice.service.ReadRouting;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ReadRouting readRouting;
+
+    @BeforeEach
+    void setUp() {
+        // Two separate in-memory databases, each marked with its own name
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        jdbcTemplate = new JdbcTemplate(new ReplicaRoutingDataSource(primary, replica));
+        readRouting = new ReadRouting(Duration.ofSeconds(5), 1000);
+    }
+
+    @Test
+    void query_OutsideReadRouting_ShouldUsePrimary() {
+        // When & Then
+        assertThat(database()).isEqualTo("primary");
+    }
+
+    @Test
+    void read_ShouldUseReplicaAndRestorePrimaryAfterwards() {
+        // When
+        String inside = readRouting.read(1L, 10L, this::database);
+
+        // Then
+        assertThat(inside).isEqualTo("replica");
+        assertThat(database()).isEqualTo("primary");
+    }
+
+    @Test
+    void read_WithinReadYourWritesWindow_ShouldUsePrimary() {
+        // Given
+        readRouting.recordWrite(1L, 10L);
+
+        // When & Then
+        assertThat(readRouting.read(1L, null, this::database)).isEqualTo("primary");
+        assertThat(readRouting.read(null, 10L, this::database)).isEqualTo("primary");
+        assertThat(readRouting.read(2L, 20L, this::database)).isEqualTo("replica");
+    }
+
+    @Test
+    void read_AfterReadYourWritesWindow_ShouldUseReplicaAgain() throws Exception {
+        // Given
+        ReadRouting shortWindow = new ReadRouting(Duration.ofMillis(50), 1000);
+        shortWindow.recordWrite(1L, 10L);
+
+        // When
+        Thread.sleep(100);
+
+        // Then
+        assertThat(shortWindow.read(1L, 10L, this::database)).isEqualTo("replica");
+    }
+
+    private String database() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS marker (name VARCHAR(20))");
+        jdbc.update("DELETE FROM marker");
+        jdbc.update("INSERT INTO marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
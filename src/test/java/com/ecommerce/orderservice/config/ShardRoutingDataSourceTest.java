@@ -0,0 +1,115 @@
+package com.ecommerce.orderservice.config;
+
+import com.ecommerce.orderservice.service.ShardRouting;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ShardRoutingDataSourceTest {
+
+    private static final int SHARDS = 3;
+
+    private List<JdbcTemplate> shardDatabases;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ShardRouting shardRouting;
+
+    @BeforeEach
+    void setUp() {
+        // Three separate in-memory databases, each with an empty orders table
+        List<DataSource> shards = new ArrayList<>();
+        shardDatabases = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:shard-" + shard + ";DB_CLOSE_DELAY=-1", "sa", "");
+            JdbcTemplate direct = new JdbcTemplate(dataSource);
+            direct.execute("CREATE TABLE IF NOT EXISTS orders (id BIGINT PRIMARY KEY, user_id BIGINT)");
+            shards.add(dataSource);
+            shardDatabases.add(direct);
+        }
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(shards);
+        jdbcTemplate = new JdbcTemplate(routingDataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(routingDataSource));
+        shardRouting = new ShardRouting(SHARDS, 160);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardDatabases.forEach(shard -> shard.update("DELETE FROM orders"));
+    }
+
+    @Test
+    void forUser_ShouldWriteEveryOrderOfAUserToItsShardOnly() {
+        // When
+        for (long userId = 1; userId <= 30; userId++) {
+            insertOrder(userId, userId * 10);
+        }
+
+        // Then
+        for (long userId = 1; userId <= 30; userId++) {
+            int home = shardRouting.shardForUser(userId);
+            for (int shard = 0; shard < SHARDS; shard++) {
+                Integer orders = shardDatabases.get(shard).queryForObject(
+                    "SELECT count(*) FROM orders WHERE user_id = ?", Integer.class, userId);
+                assertThat(orders).isEqualTo(shard == home ? 1 : 0);
+            }
+        }
+    }
+
+    @Test
+    void forOrder_ShouldReadFromTheShardEncodedInTheId() {
+        // Given
+        long orderId = insertOrder(42L, 1L);
+
+        // When
+        Long userId = shardRouting.forOrder(orderId,
+            () -> jdbcTemplate.queryForObject("SELECT user_id FROM orders WHERE id = ?", Long.class, orderId));
+
+        // Then
+        assertThat(userId).isEqualTo(42L);
+    }
+
+    @Test
+    void scatter_ShouldGatherRowsOfEveryShard() {
+        // Given
+        for (long userId = 1; userId <= 30; userId++) {
+            insertOrder(userId, userId);
+        }
+
+        // When
+        List<Long> perShard = shardRouting.scatter(() -> jdbcTemplate.queryForObject("SELECT count(*) FROM orders", Long.class));
+        List<Long> userIds = ShardRouting.concat(shardRouting.scatter(
+            () -> jdbcTemplate.queryForList("SELECT user_id FROM orders", Long.class)));
+
+        // Then
+        assertThat(perShard).hasSize(SHARDS);
+        assertThat(perShard.stream().mapToLong(Long::longValue).sum()).isEqualTo(30);
+        assertThat(userIds).hasSize(30).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void onShard_InsideTransactionOnAnotherShard_ShouldThrow() {
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> shardRouting.onShard(0, () -> transactionTemplate.execute(
+            tx -> shardRouting.onShard(1, () -> jdbcTemplate.queryForObject("SELECT count(*) FROM orders", Long.class)))));
+    }
+
+    // Same shape as a create: the user's shard is picked first, and the id records it
+    private long insertOrder(Long userId, long sequence) {
+        return shardRouting.forUser(userId, () -> transactionTemplate.execute(tx -> {
+            long orderId = ShardRouting.encode(sequence, ShardRouting.currentShard());
+            jdbcTemplate.update("INSERT INTO orders (id, user_id) VALUES (?, ?)", orderId, userId);
+            return orderId;
+        }));
+    }
+}
@@ -1,31 +1,55 @@
 package com.ecommerce.orderservice.controller;
 
+import com.ecommerce.orderservice.config.ContentNegotiationConfig;
 import com.ecommerce.orderservice.dto.OrderRequest;
+import com.ecommerce.orderservice.dto.OrderSnapshot;
+import com.ecommerce.orderservice.dto.OrderSummary;
+import com.ecommerce.orderservice.dto.OrderSummaryPage;
+import com.ecommerce.orderservice.dto.ProductSales;
+import com.ecommerce.orderservice.dto.RevenueBucket;
 import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderEvent;
 import com.ecommerce.orderservice.model.OrderItem;
+import com.ecommerce.orderservice.model.RevenueRollup;
+import com.ecommerce.orderservice.model.UserOrderSummary;
+import com.ecommerce.orderservice.service.AdmissionControl;
+import com.ecommerce.orderservice.service.IdempotencyStore;
 import com.ecommerce.orderservice.service.OrderService;
 import com.ecommerce.orderservice.telemetry.TelemetryClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(OrderController.class)
+@Import({ContentNegotiationConfig.class, SimpleMeterRegistry.class})
 @ActiveProfiles("test")
 public class OrderControllerTest {
 
@@ -38,6 +62,9 @@ public class OrderControllerTest {
     @MockBean
     private TelemetryClient telemetryClient;
 
+    @MockBean
+    private AdmissionControl admissionControl;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -46,6 +73,8 @@ public class OrderControllerTest {
 
     @BeforeEach
     void setUp() {
+        when(admissionControl.admit(any())).thenReturn(() -> {});
+
         // Setup test order
         testOrder = new Order();
         testOrder.setId(1L);
@@ -91,7 +120,7 @@ public class OrderControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(testOrderRequest)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.id").value("1"))
                 .andExpect(jsonPath("$.userId").value(123))
                 .andExpect(jsonPath("$.totalAmount").value(149.98))
                 .andExpect(jsonPath("$.status").value("PENDING"))
@@ -123,25 +152,192 @@ public class OrderControllerTest {
         verify(telemetryClient).finishTrace(eq("create_order"), eq(500), eq("User not found"));
     }
 
+    @Test
+    void createOrder_OverUserRate_ShouldReturnTooManyRequestsBeforeAnyWork() throws Exception {
+        // Given
+        when(admissionControl.admit(123L))
+                .thenThrow(new AdmissionControl.RejectedException(429, "Too many orders for user 123", 2_500_000_000L));
+
+        // When & Then
+        mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "3"));
+
+        verifyNoInteractions(orderService, telemetryClient);
+    }
+
+    @Test
+    void submitOrder_WhenOverloaded_ShouldReturnServiceUnavailableBeforeAnyWork() throws Exception {
+        // Given
+        when(admissionControl.admit(123L))
+                .thenThrow(new AdmissionControl.RejectedException(503, "Order service is overloaded", 1_000_000_000L));
+
+        // When & Then
+        mockMvc.perform(post("/api/orders/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verifyNoInteractions(orderService, telemetryClient);
+    }
+
+    @Test
+    void createOrder_WithIdempotencyKey_ShouldUseKeyedCreate() throws Exception {
+        // Given
+        when(orderService.createOrder(any(OrderRequest.class), eq("retry-123"))).thenReturn(testOrder);
+
+        // When & Then
+        mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", "retry-123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("1"));
+
+        verify(orderService, never()).createOrder(any(OrderRequest.class));
+    }
+
+    @Test
+    void createOrder_WithIdempotencyKeyStillInProgress_ShouldReturnConflict() throws Exception {
+        // Given
+        when(orderService.createOrder(any(OrderRequest.class), eq("retry-123")))
+                .thenThrow(new IdempotencyStore.KeyInProgressException("retry-123"));
+
+        // When & Then
+        mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", "retry-123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderRequest)))
+                .andExpect(status().isConflict());
+
+        verify(telemetryClient).finishTrace(eq("create_order"), eq(409), anyString());
+    }
+
+    @Test
+    void createOrder_WithIdempotencyKeyOfDifferentRequest_ShouldReturnUnprocessableEntity() throws Exception {
+        // Given
+        when(orderService.createOrder(any(OrderRequest.class), eq("retry-123")))
+                .thenThrow(new IdempotencyStore.KeyReusedException("retry-123"));
+
+        // When & Then
+        mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", "retry-123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderRequest)))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(telemetryClient).finishTrace(eq("create_order"), eq(422), anyString());
+    }
+
+    @Test
+    void createOrderReactive_ShouldCompleteAsynchronously() throws Exception {
+        // Given
+        when(orderService.createOrderReactive(any(OrderRequest.class))).thenReturn(Mono.just(testOrder));
+
+        // When
+        MvcResult result = mockMvc.perform(post("/api/orders/reactive")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("1"))
+                .andExpect(jsonPath("$.userId").value(123));
+
+        verify(telemetryClient).startTrace(eq("create_order_reactive"), eq("POST"), anyString(), eq("123"));
+        verify(orderService, never()).createOrder(any(OrderRequest.class));
+    }
+
+    @Test
+    void createOrderReactive_WhenFailingBeforePipelineIsReturned_ShouldReleaseAdmissionTicket() throws Exception {
+        // Given
+        AdmissionControl.Ticket ticket = mock(AdmissionControl.Ticket.class);
+        when(admissionControl.admit(any())).thenReturn(ticket);
+        when(orderService.createOrderReactive(any(OrderRequest.class))).thenThrow(new IllegalStateException("boom"));
+        testOrderRequest.setUserId(null);
+
+        // When & Then
+        assertThatThrownBy(() -> mockMvc.perform(post("/api/orders/reactive")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderRequest))))
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+        verify(telemetryClient).startTrace(eq("create_order_reactive"), eq("POST"), anyString(), eq("null"));
+        verify(ticket).close();
+    }
+
+    @Test
+    void submitOrder_ShouldReturnAcceptedWithLocation() throws Exception {
+        // Given
+        testOrder.setOrderItems(List.of());
+        when(orderService.submitOrder(any(OrderRequest.class))).thenReturn(testOrder);
+
+        // When & Then
+        mockMvc.perform(post("/api/orders/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderRequest)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/orders/1"))
+                .andExpect(header().string("ETag", "\"v0\""))
+                .andExpect(jsonPath("$.id").value("1"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verify(orderService, never()).createOrder(any(OrderRequest.class));
+        verify(telemetryClient).finishTrace(eq("submit_order"), eq(202), isNull());
+    }
+
+    @Test
+    void submitOrder_WithFullQueue_ShouldReturnServiceUnavailable() throws Exception {
+        // Given
+        when(orderService.submitOrder(any(OrderRequest.class)))
+                .thenThrow(new RejectedExecutionException("queue full"));
+
+        // When & Then
+        mockMvc.perform(post("/api/orders/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void submitOrder_WithInvalidPayload_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(orderService.submitOrder(any(OrderRequest.class)))
+                .thenThrow(new IllegalArgumentException("Order must contain at least one item"));
+
+        // When & Then
+        mockMvc.perform(post("/api/orders/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderRequest)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getOrderById_ShouldReturnOrder() throws Exception {
         // Given
-        when(orderService.getOrderById(1L)).thenReturn(testOrder);
+        when(orderService.getOrderSnapshot(eq(1L), anyLong())).thenReturn(OrderSnapshot.from(testOrder));
 
         // When & Then
         mockMvc.perform(get("/api/orders/1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.id").value("1"))
                 .andExpect(jsonPath("$.userId").value(123))
-                .andExpect(jsonPath("$.totalAmount").value(149.98));
+                .andExpect(jsonPath("$.totalAmount").value(149.98))
+                .andExpect(jsonPath("$.orderItems.length()").value(2));
 
-        verify(orderService).getOrderById(1L);
+        verify(orderService).getOrderSnapshot(eq(1L), anyLong());
     }
 
     @Test
     void getOrderById_WithNonExistentOrder_ShouldHandleException() throws Exception {
         // Given
-        when(orderService.getOrderById(999L)).thenThrow(new RuntimeException("Order not found"));
+        when(orderService.getOrderSnapshot(eq(999L), anyLong())).thenThrow(new RuntimeException("Order not found"));
 
         // When & Then
         try {
@@ -150,7 +346,7 @@ public class OrderControllerTest {
             // Exception is expected
         }
 
-        verify(orderService).getOrderById(999L);
+        verify(orderService).getOrderSnapshot(eq(999L), anyLong());
     }
 
     @Test
@@ -190,6 +386,360 @@ public class OrderControllerTest {
         verify(orderService).getOrdersByUserId(456L);
     }
 
+    @Test
+    void getStatusCounts_ShouldReturnInMemoryCountsByDefault() throws Exception {
+        // Given
+        when(orderService.getStatusCounts(false)).thenReturn(Map.of(
+                Order.OrderStatus.PENDING, 3L, Order.OrderStatus.SHIPPED, 1L));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/status-counts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.PENDING").value(3))
+                .andExpect(jsonPath("$.SHIPPED").value(1));
+
+        verify(orderService).getStatusCounts(false);
+    }
+
+    @Test
+    void getStatusCounts_WithFresh_ShouldCountInDatabase() throws Exception {
+        // Given
+        when(orderService.getStatusCounts(true)).thenReturn(Map.of(Order.OrderStatus.PENDING, 4L));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/status-counts").param("fresh", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.PENDING").value(4));
+    }
+
+    @Test
+    void getRevenue_ShouldReturnBucketsForRange() throws Exception {
+        // Given
+        LocalDateTime day = LocalDateTime.of(2024, 1, 15, 0, 0);
+        RevenueBucket bucket = new RevenueBucket(day, 4, new BigDecimal("340.00"), 1, new BigDecimal("40.00"),
+                new BigDecimal("300.00"), Map.of(Order.OrderStatus.DELIVERED, 3L, Order.OrderStatus.CANCELLED, 1L));
+        when(orderService.getRevenue(RevenueRollup.Granularity.DAY, day, day.plusDays(1))).thenReturn(List.of(bucket));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/revenue")
+                        .param("from", "2024-01-15T00:00:00")
+                        .param("to", "2024-01-16T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bucketStart").value("2024-01-15T00:00:00"))
+                .andExpect(jsonPath("$[0].orderCount").value(4))
+                .andExpect(jsonPath("$[0].netAmount").value(300.00))
+                .andExpect(jsonPath("$[0].statusCounts.CANCELLED").value(1));
+    }
+
+    @Test
+    void getRevenue_WithEmptyRange_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/orders/revenue")
+                        .param("granularity", "HOUR")
+                        .param("from", "2024-01-16T00:00:00")
+                        .param("to", "2024-01-15T00:00:00"))
+                .andExpect(status().isBadRequest());
+
+        verify(orderService, never()).getRevenue(any(), any(), any());
+    }
+
+    @Test
+    void getTopProducts_ShouldReturnRankingForWindow() throws Exception {
+        // Given
+        when(orderService.getTopProducts(Duration.ofDays(7), 2)).thenReturn(List.of(
+                new ProductSales(2L, "Keyboard", 4, new BigDecimal("320.00")),
+                new ProductSales(1L, "Mouse", 2, new BigDecimal("40.00"))));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/products/top").param("window", "P7D").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].productId").value(2))
+                .andExpect(jsonPath("$[0].unitsSold").value(4));
+    }
+
+    @Test
+    void getTopProducts_WithWindowBeyondRetention_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(orderService.getTopProducts(Duration.ofDays(365), 10))
+                .thenThrow(new IllegalArgumentException("Window must not exceed the retention of PT720H"));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/products/top").param("window", "P365D"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getOrdersByProductId_ShouldPassFiltersAndReturnPage() throws Exception {
+        // Given
+        OrderSummary summary = new OrderSummary(7L, 123L, new BigDecimal("49.99"), Order.OrderStatus.SHIPPED,
+                LocalDateTime.of(2024, 1, 15, 10, 30), "123 Test St, Test City, TC 12345", 0L);
+        when(orderService.getOrdersByProductId(1L, Order.OrderStatus.SHIPPED, LocalDateTime.of(2024, 1, 1, 0, 0),
+                null, 20L, 50)).thenReturn(new OrderSummaryPage(List.of(summary), 7L));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/product/1")
+                        .param("status", "SHIPPED")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("after", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[0].id").value("7"))
+                .andExpect(jsonPath("$.orders[0].orderItems").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("7"));
+    }
+
+    @Test
+    void getOrdersByProductId_WithOversizedPage_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/orders/product/1").param("limit", "10000"))
+                .andExpect(status().isBadRequest());
+
+        verify(orderService, never()).getOrdersByProductId(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getUserOrderSummary_ShouldReturnCountsSpendAndLastOrderDate() throws Exception {
+        // Given
+        UserOrderSummary summary = new UserOrderSummary(123L);
+        summary.addOrders(Order.OrderStatus.DELIVERED, 2, new BigDecimal("229.98"), LocalDateTime.of(2024, 1, 15, 10, 30));
+        when(orderService.getUserOrderSummary(123L)).thenReturn(summary);
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/user/123/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(123))
+                .andExpect(jsonPath("$.orderCount").value(2))
+                .andExpect(jsonPath("$.statusCounts.DELIVERED").value(2))
+                .andExpect(jsonPath("$.statusCounts.PENDING").value(0))
+                .andExpect(jsonPath("$.totalSpend").value(229.98))
+                .andExpect(jsonPath("$.lastOrderDate").value("2024-01-15T10:30:00"));
+
+        verify(orderService, never()).getOrdersByUserId(anyLong());
+    }
+
+    @Test
+    void rebuildUserOrderSummaries_ShouldReturnNumberOfUsers() throws Exception {
+        // Given
+        when(orderService.rebuildUserOrderSummaries()).thenReturn(5);
+
+        // When & Then
+        mockMvc.perform(post("/api/orders/summaries/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users").value(5));
+    }
+
+    @Test
+    void getOrderHistory_ShouldReturnEventsOldestFirst() throws Exception {
+        // Given
+        LocalDateTime placedAt = LocalDateTime.of(2024, 1, 15, 10, 30);
+        when(orderService.getOrderHistory(1L)).thenReturn(List.of(
+            new OrderEvent(1L, 0L, OrderEvent.Type.CREATED, Order.OrderStatus.PENDING, 123L, new BigDecimal("149.98"), placedAt),
+            new OrderEvent(1L, 1L, OrderEvent.Type.STATUS_CHANGED, Order.OrderStatus.SHIPPED, 123L, new BigDecimal("149.98"), placedAt.plusDays(1))));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/1/history"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].type").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("SHIPPED"))
+                .andExpect(jsonPath("$[1].sequenceNumber").value(1));
+    }
+
+    @Test
+    void archiveOrders_ShouldReturnNumberOfOrdersMoved() throws Exception {
+        // Given
+        when(orderService.archiveOrders()).thenReturn(12);
+
+        // When & Then
+        mockMvc.perform(post("/api/orders/archive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.archived").value(12));
+    }
+
+    @Test
+    void getOrderById_ShouldReturnETagFromOrderVersion() throws Exception {
+        // Given
+        testOrder.setVersion(4L);
+        when(orderService.getOrderVersion(1L)).thenReturn(4L);
+        when(orderService.getOrderSnapshot(eq(1L), anyLong())).thenReturn(OrderSnapshot.from(testOrder));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    void getOrderById_WithMatchingIfNoneMatch_ShouldReturnNotModifiedWithoutLoadingOrder() throws Exception {
+        // Given
+        when(orderService.getOrderVersion(1L)).thenReturn(4L);
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/1").header("If-None-Match", "\"v3\", \"v4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v4\""))
+                .andExpect(content().string(""));
+
+        verify(orderService, never()).getOrderSnapshot(anyLong(), anyLong());
+    }
+
+    @Test
+    void getOrderById_WithStaleIfNoneMatch_ShouldReturnOrder() throws Exception {
+        // Given
+        testOrder.setVersion(5L);
+        when(orderService.getOrderVersion(1L)).thenReturn(5L);
+        when(orderService.getOrderSnapshot(eq(1L), anyLong())).thenReturn(OrderSnapshot.from(testOrder));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/1").header("If-None-Match", "\"v4\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v5\""))
+                .andExpect(jsonPath("$.id").value("1"));
+    }
+
+    @Test
+    void getOrderById_WithCborAccept_ShouldTagRepresentationAndVaryOnAccept() throws Exception {
+        // Given
+        testOrder.setVersion(4L);
+        when(orderService.getOrderVersion(1L)).thenReturn(4L);
+        when(orderService.getOrderSnapshot(eq(1L), anyLong())).thenReturn(OrderSnapshot.from(testOrder));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v4-cbor\""))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+    }
+
+    @Test
+    void getOrderById_WithJsonETagButCborAccept_ShouldReturnCborBody() throws Exception {
+        // Given
+        testOrder.setVersion(4L);
+        when(orderService.getOrderVersion(1L)).thenReturn(4L);
+        when(orderService.getOrderSnapshot(eq(1L), anyLong())).thenReturn(OrderSnapshot.from(testOrder));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/1").header("If-None-Match", "\"v4\"").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("ETag", "\"v4-cbor\""));
+    }
+
+    @Test
+    void getOrdersByUserId_WithMatchingIfNoneMatch_ShouldReturnNotModifiedWithoutLoadingOrders() throws Exception {
+        // Given
+        when(orderService.getUserOrdersVersion(123L)).thenReturn("2-3-1");
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/user/123").header("If-None-Match", "\"u2-3-1\""))
+                .andExpect(status().isNotModified());
+
+        verify(orderService, never()).getOrdersByUserId(anyLong());
+    }
+
+    @Test
+    void getOrdersByUserId_ShouldReturnAggregateETag() throws Exception {
+        // Given
+        when(orderService.getUserOrdersVersion(123L)).thenReturn("1-1-0");
+        when(orderService.getOrdersByUserId(123L)).thenReturn(Arrays.asList(testOrder));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/user/123"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"u1-1-0\""))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void getOrdersByUserId_WithFieldsWithoutItems_ShouldReturnSummaries() throws Exception {
+        // Given
+        OrderSummary summary = new OrderSummary(1L, 123L, new BigDecimal("149.98"), Order.OrderStatus.PENDING,
+                LocalDateTime.now(), "123 Test St, Test City, TC 12345", 0L);
+        when(orderService.getOrderSummariesByUserId(123L)).thenReturn(List.of(summary));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/user/123").param("fields", "id,status,totalAmount"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value("1"))
+                .andExpect(jsonPath("$[0].status").value("PENDING"))
+                .andExpect(jsonPath("$[0].orderItems").doesNotExist());
+
+        verify(orderService, never()).getOrdersByUserId(anyLong());
+    }
+
+    @Test
+    void getOrdersByUserId_WithFieldsIncludingItems_ShouldReturnFullOrders() throws Exception {
+        // Given
+        when(orderService.getOrdersByUserId(123L)).thenReturn(List.of(testOrder));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders/user/123").param("fields", "id, orderItems"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].orderItems.length()").value(2));
+
+        verify(orderService, never()).getOrderSummariesByUserId(anyLong());
+    }
+
+    @Test
+    void getAllOrders_WithFieldsWithoutItems_ShouldReturnSummaries() throws Exception {
+        // Given
+        OrderSummary summary = new OrderSummary(2L, 456L, new BigDecimal("299.99"), Order.OrderStatus.SHIPPED,
+                LocalDateTime.now(), "456 Another St, Another City, AC 67890", 3L);
+        when(orderService.getAllOrderSummaries()).thenReturn(List.of(summary));
+
+        // When & Then
+        mockMvc.perform(get("/api/orders").param("fields", "id,status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("2"))
+                .andExpect(jsonPath("$[0].orderItems").doesNotExist());
+
+        verify(orderService, never()).getAllOrders();
+    }
+
+    @Test
+    void getAllOrders_WithCborAccept_ShouldReturnCbor() throws Exception {
+        // Given
+        OrderSummary summary = new OrderSummary(2L, 456L, new BigDecimal("299.99"), Order.OrderStatus.SHIPPED,
+                LocalDateTime.of(2024, 1, 15, 10, 30), "456 Another St, Another City, AC 67890", 3L);
+        when(orderService.getAllOrderSummaries()).thenReturn(List.of(summary));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/orders").param("fields", "id,status")
+                .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        // Then
+        List<?> orders = new ObjectMapper(new CBORFactory()).readValue(result.getResponse().getContentAsByteArray(), List.class);
+        Map<?, ?> order = (Map<?, ?>) orders.get(0);
+        assertThat(order.get("id")).isEqualTo("2");
+        assertThat(order.get("status")).isEqualTo("SHIPPED");
+        // Same date representation as the JSON converter
+        assertThat(order.get("orderDate")).isEqualTo("2024-01-15T10:30:00");
+    }
+
+    @Test
+    void getOrderById_WithSmileAccept_ShouldReturnSmile() throws Exception {
+        // Given
+        when(orderService.getOrderVersion(1L)).thenReturn(0L);
+        when(orderService.getOrderSnapshot(eq(1L), anyLong())).thenReturn(OrderSnapshot.from(testOrder));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/orders/1")
+                .accept(MediaType.valueOf("application/x-jackson-smile")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"))
+                .andReturn();
+
+        // Then
+        Map<?, ?> order = new ObjectMapper(new SmileFactory()).readValue(result.getResponse().getContentAsByteArray(), Map.class);
+        assertThat(order.get("id")).isEqualTo("1");
+        assertThat((List<?>) order.get("orderItems")).hasSize(2);
+    }
+
     @Test
     void getAllOrders_ShouldReturnAllOrders() throws Exception {
         // Given
@@ -206,8 +756,8 @@ public class OrderControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[1].id").value(2));
+                .andExpect(jsonPath("$[0].id").value("1"))
+                .andExpect(jsonPath("$[1].id").value("2"));
 
         verify(orderService).getAllOrders();
     }
@@ -231,7 +781,7 @@ public class OrderControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(statusRequest)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.id").value("1"))
                 .andExpect(jsonPath("$.status").value("CONFIRMED"));
 
         verify(orderService).updateOrderStatus(1L, Order.OrderStatus.CONFIRMED);
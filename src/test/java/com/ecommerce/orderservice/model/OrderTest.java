@@ -163,9 +163,10 @@ public class OrderTest {
         assertThat(Order.OrderStatus.SHIPPED).isNotNull();
         assertThat(Order.OrderStatus.DELIVERED).isNotNull();
         assertThat(Order.OrderStatus.CANCELLED).isNotNull();
+        assertThat(Order.OrderStatus.REJECTED).isNotNull();
 
         // Test enum values count
-        assertThat(Order.OrderStatus.values()).hasSize(6);
+        assertThat(Order.OrderStatus.values()).hasSize(7);
     }
 
     @Test
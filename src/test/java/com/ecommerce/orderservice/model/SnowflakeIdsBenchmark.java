@@ -0,0 +1,89 @@
+package com.ecommerce.orderservice.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of SnowflakeIds against the sequence round trip each id needed before, on
+ * one thread and with four threads contending for the same generator. A saturated generator
+ * waits for the next millisecond after 2^SEQUENCE_BITS ids, which caps its rate per node. Run with
+ * {@code ./gradlew benchmark --tests '*SnowflakeIdsBenchmark' -Dbenchmark.forks=1}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SnowflakeIdsBenchmark {
+
+    private SnowflakeIds ids;
+    private Connection connection;
+    private PreparedStatement nextSequenceValue;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        ids = new SnowflakeIds(1, 1000);
+        connection = DriverManager.getConnection("jdbc:h2:mem:snowflake-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        connection.createStatement().execute("CREATE SEQUENCE IF NOT EXISTS orders_seq");
+        nextSequenceValue = connection.prepareStatement("SELECT NEXT VALUE FOR orders_seq");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long snowflake() {
+        return ids.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long snowflakeContended() {
+        return ids.next();
+    }
+
+    // Per-id cost of a sequence without pooling, against an in-process database; a networked
+    // database adds its round trip on top
+    @Benchmark
+    public long sequenceRoundTrip() throws SQLException {
+        try (ResultSet resultSet = nextSequenceValue.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    @Test
+    void runBenchmarks() throws Exception {
+        Options options = new OptionsBuilder()
+            .include(SnowflakeIdsBenchmark.class.getName() + "\\.")
+            .forks(Integer.getInteger("benchmark.forks", 1))
+            .warmupIterations(3)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(5)
+            .measurementTime(TimeValue.seconds(1))
+            .build();
+        new Runner(options).run();
+    }
+}
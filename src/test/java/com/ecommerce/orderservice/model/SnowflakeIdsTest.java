@@ -0,0 +1,157 @@
+package com.ecommerce.orderservice.model;
+
+import com.ecommerce.orderservice.service.ShardRouting;
+import org.hibernate.MappingException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SnowflakeIdsTest {
+
+    private static final long NOW = SnowflakeIds.EPOCH + 1_000_000;
+
+    @Test
+    void next_ShouldEncodeTimestampNodeAndSequence() {
+        // Given
+        SnowflakeIds ids = new SnowflakeIds(7, 1000, () -> NOW);
+
+        // When
+        long first = ShardRouting.encode(ids.next(), 3);
+        long second = ShardRouting.encode(ids.next(), 3);
+
+        // Then
+        assertThat(SnowflakeIds.timestampOf(first)).isEqualTo(NOW);
+        assertThat(SnowflakeIds.nodeOf(first)).isEqualTo(7);
+        assertThat(SnowflakeIds.sequenceOf(first)).isZero();
+        assertThat(SnowflakeIds.sequenceOf(second)).isEqualTo(1);
+        assertThat(ShardRouting.shardOf(second)).isEqualTo(3);
+        assertThat(second).isGreaterThan(first).isPositive();
+    }
+
+    @Test
+    void next_WithSequenceUsedUp_ShouldWaitForTheNextMillisecond() {
+        // Given: the clock moves on after a few reads past the end of the sequence
+        int perMillisecond = 1 << SnowflakeIds.SEQUENCE_BITS;
+        AtomicLong reads = new AtomicLong();
+        SnowflakeIds ids = new SnowflakeIds(0, 1000, () -> reads.incrementAndGet() > perMillisecond + 50 ? NOW + 1 : NOW);
+        for (int i = 0; i < perMillisecond; i++) {
+            ids.next();
+        }
+
+        // When
+        long next = ShardRouting.encode(ids.next(), 0);
+
+        // Then
+        assertThat(SnowflakeIds.timestampOf(next)).isEqualTo(NOW + 1);
+        assertThat(SnowflakeIds.sequenceOf(next)).isZero();
+    }
+
+    @Test
+    void next_AfterSmallClockRegression_ShouldKeepIncreasing() {
+        // Given
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIds ids = new SnowflakeIds(0, 1000, clock::get);
+        long before = ids.next();
+
+        // When
+        clock.set(NOW - 500);
+        long after = ids.next();
+
+        // Then
+        assertThat(after).isGreaterThan(before);
+        assertThat(SnowflakeIds.timestampOf(ShardRouting.encode(after, 0))).isEqualTo(NOW);
+    }
+
+    @Test
+    void next_AfterClockRegressionBeyondLimit_ShouldThrow() {
+        // Given
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIds ids = new SnowflakeIds(0, 1000, clock::get);
+        ids.next();
+
+        // When
+        clock.set(NOW - 5000);
+
+        // Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class, ids::next);
+        assertThat(exception.getMessage()).contains("5000 ms");
+    }
+
+    @Test
+    void constructor_WithNodeIdOutOfRange_ShouldThrow() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIds(SnowflakeIds.MAX_NODES, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIds(-1, 1000));
+    }
+
+    @Test
+    void next_UnderContention_ShouldNeverRepeatAnId() throws Exception {
+        // Given
+        int threads = 8;
+        int perThread = 200_000;
+        SnowflakeIds ids = new SnowflakeIds(1, 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> batches = new ArrayList<>();
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            batches.add(executor.submit(() -> {
+                long[] drawn = new long[perThread];
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    drawn[i] = ids.next();
+                }
+                return drawn;
+            }));
+        }
+        start.countDown();
+        long[] all = new long[threads * perThread];
+        int outOfOrder = 0;
+        for (int t = 0; t < threads; t++) {
+            long[] drawn = batches.get(t).get(30, TimeUnit.SECONDS);
+            for (int i = 1; i < perThread; i++) {
+                if (drawn[i] <= drawn[i - 1]) {
+                    outOfOrder++;
+                }
+            }
+            System.arraycopy(drawn, 0, all, t * perThread, perThread);
+        }
+        executor.shutdown();
+        Arrays.sort(all);
+        int repeated = 0;
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) {
+                repeated++;
+            }
+        }
+
+        // Then: each thread sees its own ids increase, and no id is handed out twice
+        assertThat(outOfOrder).isZero();
+        assertThat(repeated).isZero();
+    }
+
+    @Test
+    void nodeId_WhenUnsetWithSeveralShards_ShouldFailStartup() {
+        // When & Then
+        assertThrows(MappingException.class, () -> SnowflakeIdGenerator.nodeId("", 2));
+    }
+
+    @Test
+    void nodeId_WhenUnsetOnASingleShard_ShouldFallBackToZero() {
+        // When & Then
+        assertThat(SnowflakeIdGenerator.nodeId(" ", 1)).isZero();
+        assertThat(SnowflakeIdGenerator.nodeId("5", 2)).isEqualTo(5);
+    }
+}
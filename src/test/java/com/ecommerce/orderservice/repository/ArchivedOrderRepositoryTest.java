@@ -0,0 +1,145 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.dto.OrderSummary;
+import com.ecommerce.orderservice.model.ArchivedOrder;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class ArchivedOrderRepositoryTest {
+
+    private static final Set<Order.OrderStatus> FINISHED = EnumSet.of(Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    private Order oldDelivered;
+    private Order oldPending;
+    private Order recentCancelled;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        oldDelivered = entityManager.persist(order(100L, Order.OrderStatus.DELIVERED, now.minusDays(120), true));
+        oldPending = entityManager.persist(order(100L, Order.OrderStatus.PENDING, now.minusDays(120), false));
+        recentCancelled = entityManager.persist(order(100L, Order.OrderStatus.CANCELLED, now.minusDays(10), false));
+        entityManager.flush();
+    }
+
+    @Test
+    void lockArchivable_ShouldOnlyReturnFinishedOrdersBeforeCutoff() {
+        // When
+        List<Long> ids = orderRepository.lockArchivable(FINISHED, LocalDateTime.now().minusDays(90), PageRequest.ofSize(10));
+
+        // Then
+        assertThat(ids).containsExactly(oldDelivered.getId());
+    }
+
+    @Test
+    void copyAndDelete_ShouldMoveOrderWithItemsIntoArchive() {
+        // Given
+        List<Long> ids = List.of(oldDelivered.getId());
+        LocalDateTime archivedAt = LocalDateTime.now();
+
+        // When
+        archivedOrderRepository.copyOrders(ids, archivedAt);
+        archivedOrderRepository.copyItems(ids);
+        orderRepository.deleteItemsByOrderIds(ids);
+        int deleted = orderRepository.deleteByIds(ids);
+        entityManager.clear();
+
+        // Then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(orderRepository.findById(oldDelivered.getId())).isEmpty();
+        ArchivedOrder archived = archivedOrderRepository.findById(oldDelivered.getId()).orElseThrow();
+        assertThat(archived.getArchivedAt()).isNotNull();
+        Order restored = archived.toOrder();
+        assertThat(restored.getStatus()).isEqualTo(Order.OrderStatus.DELIVERED);
+        assertThat(restored.getTotalAmount()).isEqualByComparingTo(oldDelivered.getTotalAmount());
+        assertThat(restored.getOrderItems()).hasSize(2)
+            .extracting(OrderItem::getProductId).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void userQueries_ShouldSeeArchivedOrdersOfTheUser() {
+        // Given
+        List<Long> ids = List.of(oldDelivered.getId());
+        archivedOrderRepository.copyOrders(ids, LocalDateTime.now());
+        archivedOrderRepository.copyItems(ids);
+        orderRepository.deleteItemsByOrderIds(ids);
+        orderRepository.deleteByIds(ids);
+
+        // When
+        List<OrderSummary> summaries = archivedOrderRepository.findSummariesByUserId(100L);
+        OrderRepository.UserOrdersVersionView hot = orderRepository.findUserOrdersVersionView(100L);
+        OrderRepository.UserOrdersVersionView archived = archivedOrderRepository.findUserOrdersVersionView(100L);
+
+        // Then
+        assertThat(summaries).extracting(OrderSummary::id).containsExactly(oldDelivered.getId());
+        assertThat(archivedOrderRepository.findByUserId(200L)).isEmpty();
+        assertThat(hot.getOrderCount() + archived.getOrderCount()).isEqualTo(3L);
+        assertThat(Math.max(hot.getMaxId(), archived.getMaxId()))
+            .isEqualTo(List.of(oldDelivered.getId(), oldPending.getId(), recentCancelled.getId()).stream()
+                .mapToLong(Long::longValue).max().orElseThrow());
+    }
+
+    @Test
+    void productQuery_ShouldFindArchivedOrdersWithTheProduct() {
+        // Given
+        List<Long> ids = List.of(oldDelivered.getId());
+        archivedOrderRepository.copyOrders(ids, LocalDateTime.now());
+        archivedOrderRepository.copyItems(ids);
+        orderRepository.deleteItemsByOrderIds(ids);
+        orderRepository.deleteByIds(ids);
+        entityManager.clear();
+
+        // When
+        List<OrderSummary> delivered = archivedOrderRepository.findSummariesByProductId(2L, Order.OrderStatus.DELIVERED,
+                null, null, null, PageRequest.ofSize(10));
+        List<OrderSummary> otherProduct = archivedOrderRepository.findSummariesByProductId(9L, null,
+                null, null, null, PageRequest.ofSize(10));
+
+        // Then
+        assertThat(delivered).extracting(OrderSummary::id).containsExactly(oldDelivered.getId());
+        assertThat(otherProduct).isEmpty();
+        assertThat(archivedOrderRepository.findAllSummaries()).extracting(OrderSummary::id).containsExactly(oldDelivered.getId());
+        assertThat(archivedOrderRepository.findAll()).hasSize(1);
+    }
+
+    private static Order order(Long userId, Order.OrderStatus status, LocalDateTime orderDate, boolean withItems) {
+        Order order = new Order(userId, new BigDecimal("149.97"), "123 Test St, Test City, TC 12345");
+        order.setStatus(status);
+        order.setOrderDate(orderDate);
+        List<OrderItem> items = new ArrayList<>();
+        if (withItems) {
+            items.add(new OrderItem(1L, "Product 1", 1, new BigDecimal("49.99")));
+            items.add(new OrderItem(2L, "Product 2", 2, new BigDecimal("49.99")));
+            items.forEach(item -> item.setOrder(order));
+        }
+        order.setOrderItems(items);
+        return order;
+    }
+}
@@ -0,0 +1,98 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderEvent;
+import com.ecommerce.orderservice.model.OrderEventSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.PersistenceException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class OrderEventRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderEventRepository eventRepository;
+
+    @Test
+    void findUnsnapshottedAfter_ShouldSkipEventsCoveredBySnapshots() {
+        // Given: order 1 is snapshotted up to sequence 1, order 2 not at all
+        entityManager.persist(event(1L, 0, Order.OrderStatus.PENDING));
+        entityManager.persist(event(1L, 1, Order.OrderStatus.CONFIRMED));
+        entityManager.persist(event(1L, 2, Order.OrderStatus.SHIPPED));
+        entityManager.persist(event(2L, 0, Order.OrderStatus.PENDING));
+        OrderEventSnapshot snapshot = new OrderEventSnapshot(1L);
+        snapshot.update(1L, Order.OrderStatus.CONFIRMED, 123L, new BigDecimal("10.00"), LocalDateTime.now(), LocalDateTime.now());
+        entityManager.persist(snapshot);
+        entityManager.flush();
+
+        // When
+        List<OrderEvent> events = eventRepository.findUnsnapshottedAfter(-1, PageRequest.ofSize(10));
+
+        // Then
+        assertThat(events).extracting(OrderEvent::getOrderId, OrderEvent::getSequenceNumber)
+            .containsExactly(tuple(1L, 2L), tuple(2L, 0L));
+    }
+
+    @Test
+    void findUnsnapshottedAfter_ShouldOnlyReturnLaterIds() {
+        // Given
+        OrderEvent first = entityManager.persist(event(1L, 0, Order.OrderStatus.PENDING));
+        entityManager.persist(event(2L, 0, Order.OrderStatus.PENDING));
+        entityManager.persist(event(1L, 1, Order.OrderStatus.CONFIRMED));
+        entityManager.flush();
+
+        // When
+        List<OrderEvent> events = eventRepository.findUnsnapshottedAfter(first.getId(), PageRequest.ofSize(10));
+
+        // Then
+        assertThat(events).extracting(OrderEvent::getOrderId, OrderEvent::getSequenceNumber)
+            .containsExactly(tuple(2L, 0L), tuple(1L, 1L));
+    }
+
+    @Test
+    void findByOrderIdAfterSequence_ShouldReturnTailInOrder() {
+        // Given
+        entityManager.persist(event(1L, 1, Order.OrderStatus.CONFIRMED));
+        entityManager.persist(event(1L, 0, Order.OrderStatus.PENDING));
+        entityManager.persist(event(1L, 2, Order.OrderStatus.CANCELLED));
+        entityManager.flush();
+
+        // When
+        List<OrderEvent> tail = eventRepository.findByOrderIdAndSequenceNumberGreaterThanOrderBySequenceNumber(1L, 0L);
+
+        // Then
+        assertThat(tail).extracting(OrderEvent::getSequenceNumber).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void persist_WithDuplicateSequence_ShouldBeRejected() {
+        // Given
+        entityManager.persistAndFlush(event(1L, 1, Order.OrderStatus.CONFIRMED));
+
+        // When & Then
+        assertThrows(PersistenceException.class,
+            () -> entityManager.persistAndFlush(event(1L, 1, Order.OrderStatus.CANCELLED)));
+    }
+
+    private static OrderEvent event(Long orderId, long sequenceNumber, Order.OrderStatus status) {
+        return new OrderEvent(orderId, sequenceNumber,
+            sequenceNumber == 0 ? OrderEvent.Type.CREATED : OrderEvent.Type.STATUS_CHANGED,
+            status, 123L, new BigDecimal("10.00"), LocalDateTime.now());
+    }
+}
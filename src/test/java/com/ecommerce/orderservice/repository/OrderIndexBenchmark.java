@@ -0,0 +1,137 @@
+package com.ecommerce.orderservice.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the OrderRepository access paths with and without the indexes declared on
+ * Order and OrderItem. Run with {@code ./gradlew benchmark -Dbenchmark.rows=2000000}.
+ */
+@Tag("benchmark")
+public class OrderIndexBenchmark {
+
+    private static final long ROWS = Long.getLong("benchmark.rows", 2_000_000L);
+    private static final long USERS = Math.max(1, ROWS / 20);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20);
+
+    private static final String FIND_BY_USER_ID =
+        "SELECT id, total_amount, status FROM orders WHERE user_id = ? ORDER BY order_date DESC";
+    private static final String FIND_BY_STATUS =
+        "SELECT id, user_id, total_amount FROM orders WHERE status = ?";
+    private static final String FIND_ITEMS_BY_ORDER_ID =
+        "SELECT id, product_id, quantity, total_price FROM order_items WHERE order_id = ?";
+    // First keyset page of findSummariesByProductId
+    private static final String FIND_ORDERS_BY_PRODUCT_ID =
+        "SELECT o.id, o.user_id, o.total_amount, o.status FROM order_items i JOIN orders o ON o.id = i.order_id " +
+        "WHERE i.product_id = ? ORDER BY i.order_id DESC LIMIT 51";
+
+    private static Path databaseDir;
+    private static Connection connection;
+
+    @BeforeAll
+    static void seed() throws Exception {
+        databaseDir = Files.createTempDirectory("order-index-benchmark");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + databaseDir.resolve("orders") + ";CACHE_SIZE=524288", "sa", "");
+
+        long start = System.currentTimeMillis();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, " +
+                "total_amount DECIMAL(38, 2) NOT NULL, status VARCHAR(20), order_date TIMESTAMP, " +
+                "shipping_address VARCHAR(255), version BIGINT NOT NULL)");
+            statement.execute("CREATE TABLE order_items (id BIGINT PRIMARY KEY, order_id BIGINT, " +
+                "product_id BIGINT NOT NULL, product_name VARCHAR(255), quantity INT NOT NULL, " +
+                "unit_price DECIMAL(38, 2) NOT NULL, total_price DECIMAL(38, 2) NOT NULL)");
+
+            // Mostly completed orders with a thin tail of PENDING ones, like production
+            statement.execute("INSERT INTO orders SELECT X, MOD(X, " + USERS + ") + 1, 99.99, " +
+                "CASE MOD(X, 50) WHEN 0 THEN 'PENDING' WHEN 1 THEN 'CANCELLED' ELSE 'DELIVERED' END, " +
+                "DATEADD('MINUTE', -X, CURRENT_TIMESTAMP), '123 Main St', 0 FROM SYSTEM_RANGE(1, " + ROWS + ")");
+            statement.execute("INSERT INTO order_items SELECT X, (X + 1) / 2, MOD(X, 500) + 1, 'Product', 1, 49.99, 49.99 " +
+                "FROM SYSTEM_RANGE(1, " + (ROWS * 2) + ")");
+        }
+        System.out.println("Seeded " + ROWS + " orders and " + (ROWS * 2) + " order items in " +
+            (System.currentTimeMillis() - start) + " ms");
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        connection.close();
+        try (Stream<Path> files = Files.walk(databaseDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void compareQueryLatencyWithAndWithoutIndexes() throws Exception {
+        double userScan = measure(FIND_BY_USER_ID, () -> ThreadLocalRandom.current().nextLong(1, USERS + 1));
+        double statusScan = measure(FIND_BY_STATUS, () -> "PENDING");
+        double itemsScan = measure(FIND_ITEMS_BY_ORDER_ID, () -> ThreadLocalRandom.current().nextLong(1, ROWS + 1));
+        double productScan = measure(FIND_ORDERS_BY_PRODUCT_ID, () -> ThreadLocalRandom.current().nextLong(1, 501));
+
+        // Same definitions as the @Index declarations on Order and OrderItem
+        long start = System.currentTimeMillis();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX idx_orders_user_id_order_date ON orders (user_id, order_date)");
+            statement.execute("CREATE INDEX idx_orders_status ON orders (status)");
+            statement.execute("CREATE INDEX idx_orders_order_date ON orders (order_date)");
+            statement.execute("CREATE INDEX idx_order_items_order_id ON order_items (order_id)");
+            statement.execute("CREATE INDEX idx_order_items_product_id_order_id ON order_items (product_id, order_id)");
+        }
+        System.out.println("Built indexes in " + (System.currentTimeMillis() - start) + " ms");
+
+        double userIndexed = measure(FIND_BY_USER_ID, () -> ThreadLocalRandom.current().nextLong(1, USERS + 1));
+        double statusIndexed = measure(FIND_BY_STATUS, () -> "PENDING");
+        double itemsIndexed = measure(FIND_ITEMS_BY_ORDER_ID, () -> ThreadLocalRandom.current().nextLong(1, ROWS + 1));
+        double productIndexed = measure(FIND_ORDERS_BY_PRODUCT_ID, () -> ThreadLocalRandom.current().nextLong(1, 501));
+
+        System.out.printf("%-28s %14s %14s%n", "query (" + ROWS + " orders)", "no index (ms)", "indexed (ms)");
+        System.out.printf("%-28s %14.3f %14.3f%n", "findByUserId", userScan, userIndexed);
+        System.out.printf("%-28s %14.3f %14.3f%n", "findByStatus(PENDING)", statusScan, statusIndexed);
+        System.out.printf("%-28s %14.3f %14.3f%n", "order_items by order_id", itemsScan, itemsIndexed);
+        System.out.printf("%-28s %14.3f %14.3f%n", "orders by product (page)", productScan, productIndexed);
+
+        assertThat(userIndexed).isLessThan(userScan);
+        assertThat(itemsIndexed).isLessThan(itemsScan);
+        assertThat(productIndexed).isLessThan(productScan);
+    }
+
+    private double measure(String sql, Supplier<Object> parameter) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            // Warm up the page cache and the query plan before timing
+            for (int i = 0; i < 3; i++) {
+                drain(statement, parameter.get());
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                drain(statement, parameter.get());
+            }
+            return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+        }
+    }
+
+    private void drain(PreparedStatement statement, Object parameter) throws SQLException {
+        statement.setObject(1, parameter);
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                resultSet.getLong(1);
+            }
+        }
+    }
+}
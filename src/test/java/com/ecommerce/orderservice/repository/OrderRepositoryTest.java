@@ -1,23 +1,31 @@
 package com.ecommerce.orderservice.repository;
 
+import com.ecommerce.orderservice.dto.OrderSummary;
 import com.ecommerce.orderservice.model.Order;
 import com.ecommerce.orderservice.model.OrderItem;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @ActiveProfiles("test")
 public class OrderRepositoryTest {
 
@@ -27,6 +35,9 @@ public class OrderRepositoryTest {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Order testOrder1;
     private Order testOrder2;
     private Order testOrder3;
@@ -311,4 +322,451 @@ public class OrderRepositoryTest {
         assertThat(deliveredOrders).extracting(Order::getUserId)
                 .containsExactlyInAnyOrder(100L, 300L);
     }
+
+    @Test
+    void updateStatus_WithCurrentVersion_ShouldUpdateStatusAndBumpVersion() {
+        // Given
+        Order saved = entityManager.persistAndFlush(testOrder1);
+        OrderRepository.OrderVersionView view = orderRepository.findVersionViewById(saved.getId()).orElseThrow();
+
+        // When
+        int updated = orderRepository.updateStatus(saved.getId(), Order.OrderStatus.SHIPPED, view.getVersion());
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        assertThat(view.getUserId()).isEqualTo(100L);
+        Order found = entityManager.find(Order.class, saved.getId());
+        assertThat(found.getStatus()).isEqualTo(Order.OrderStatus.SHIPPED);
+        assertThat(found.getVersion()).isEqualTo(view.getVersion() + 1);
+        assertThat(found.getOrderItems()).hasSize(2);
+    }
+
+    @Test
+    void updateStatus_WithStaleVersion_ShouldNotUpdate() {
+        // Given
+        Order saved = entityManager.persistAndFlush(testOrder1);
+        long staleVersion = saved.getVersion();
+        orderRepository.updateStatus(saved.getId(), Order.OrderStatus.CONFIRMED, staleVersion);
+
+        // When
+        int updated = orderRepository.updateStatus(saved.getId(), Order.OrderStatus.CANCELLED, staleVersion);
+
+        // Then
+        assertThat(updated).isZero();
+        Order found = entityManager.find(Order.class, saved.getId());
+        assertThat(found.getStatus()).isEqualTo(Order.OrderStatus.CONFIRMED);
+    }
+
+    @Test
+    void findVersionViewById_WithNonExistentOrder_ShouldReturnEmpty() {
+        // When & Then
+        assertThat(orderRepository.findVersionViewById(999L)).isEmpty();
+    }
+
+    @Test
+    void findIdByIdempotencyKey_ShouldFindTheOrderCreatedWithTheKey() {
+        // Given
+        testOrder1.setIdempotencyKey("retry-123");
+        Order saved = entityManager.persistAndFlush(testOrder1);
+        entityManager.persistAndFlush(testOrder2);
+
+        // When & Then
+        assertThat(orderRepository.findIdByIdempotencyKey("retry-123")).contains(saved.getId());
+        assertThat(orderRepository.findIdByIdempotencyKey("other")).isEmpty();
+    }
+
+    @Test
+    void persist_WithDuplicateIdempotencyKey_ShouldBeRejected() {
+        // Given
+        testOrder1.setIdempotencyKey("retry-123");
+        testOrder2.setIdempotencyKey("retry-123");
+        entityManager.persistAndFlush(testOrder1);
+
+        // When & Then
+        assertThrows(PersistenceException.class, () -> entityManager.persistAndFlush(testOrder2));
+    }
+
+    @Test
+    void findSubmissionIdsByStatus_ShouldReturnOnlyOldPendingShells() {
+        // Given: order 1 has items, order 2 is DELIVERED, order 3 is too recent, and the itemless
+        // order was created synchronously rather than submitted
+        Order shell = new Order(300L, BigDecimal.ZERO, "789 Shell St, Shell City, SC 13579");
+        shell.setOrderDate(LocalDateTime.now().minusDays(1));
+        shell.setSubmission(true);
+        Order itemless = new Order(301L, BigDecimal.ZERO, "790 Shell St, Shell City, SC 13579");
+        itemless.setOrderDate(LocalDateTime.now().minusDays(1));
+        entityManager.persist(itemless);
+        entityManager.persist(testOrder1);
+        entityManager.persist(testOrder2);
+        entityManager.persist(testOrder3);
+        entityManager.persist(shell);
+        entityManager.flush();
+
+        // When
+        List<Long> ids = orderRepository.findSubmissionIdsByStatus(Order.OrderStatus.PENDING,
+            LocalDateTime.now().minusHours(1), PageRequest.ofSize(10));
+
+        // Then
+        assertThat(ids).containsExactly(shell.getId());
+    }
+
+    @Test
+    void countGroupedByStatus_ShouldCountOrdersPerStatus() {
+        // Given
+        entityManager.persistAndFlush(testOrder1);
+        entityManager.persistAndFlush(testOrder2);
+        entityManager.persistAndFlush(testOrder3);
+
+        // When
+        List<OrderRepository.StatusCountView> counts = orderRepository.countGroupedByStatus();
+
+        // Then
+        assertThat(counts).hasSize(2);
+        assertThat(counts).anyMatch(view -> view.getStatus() == Order.OrderStatus.PENDING && view.getOrderCount() == 2L);
+        assertThat(counts).anyMatch(view -> view.getStatus() == Order.OrderStatus.DELIVERED && view.getOrderCount() == 1L);
+    }
+
+    @Test
+    void findUserStatusTotals_ShouldGroupByUserAndStatusForTheGivenUsers() {
+        // Given
+        testOrder2.setStatus(Order.OrderStatus.PENDING);
+        entityManager.persistAndFlush(testOrder1);
+        entityManager.persistAndFlush(testOrder2);
+        entityManager.persistAndFlush(testOrder3);
+
+        // When
+        List<OrderRepository.UserStatusTotalsView> totals = orderRepository.findUserStatusTotals(List.of(100L, 300L));
+
+        // Then
+        assertThat(totals).hasSize(1);
+        OrderRepository.UserStatusTotalsView user100 = totals.stream()
+                .filter(view -> view.getUserId().equals(100L))
+                .findFirst().orElseThrow();
+        assertThat(user100.getStatus()).isEqualTo(Order.OrderStatus.PENDING);
+        assertThat(user100.getOrderCount()).isEqualTo(2L);
+        assertThat(user100.getTotalAmount()).isEqualByComparingTo("279.98");
+        assertThat(user100.getLastOrderDate()).isEqualTo(testOrder2.getOrderDate());
+    }
+
+    @Test
+    void findHourlyRevenueTotals_ShouldGroupByHourOfOrderDateAndStatus() {
+        // Given
+        testOrder1.setOrderDate(LocalDateTime.of(2024, 1, 15, 10, 5));
+        testOrder2.setOrderDate(LocalDateTime.of(2024, 1, 15, 10, 55));
+        testOrder2.setStatus(Order.OrderStatus.PENDING);
+        testOrder3.setOrderDate(LocalDateTime.of(2024, 1, 15, 11, 0));
+        entityManager.persistAndFlush(testOrder1);
+        entityManager.persistAndFlush(testOrder2);
+        entityManager.persistAndFlush(testOrder3);
+
+        // When
+        List<OrderRepository.HourlyRevenueView> totals = orderRepository.findHourlyRevenueTotals();
+
+        // Then
+        assertThat(totals).hasSize(2);
+        OrderRepository.HourlyRevenueView tenOClock = totals.stream()
+                .filter(view -> view.getHourOfDay() == 10)
+                .findFirst().orElseThrow();
+        assertThat(tenOClock.getOrderDay()).isEqualTo(LocalDate.of(2024, 1, 15));
+        assertThat(tenOClock.getOrderCount()).isEqualTo(2L);
+        assertThat(tenOClock.getTotalAmount()).isEqualByComparingTo("279.98");
+    }
+
+    @Test
+    void findHourlyProductSales_ShouldSumItemsPerProductAndSkipExcludedStatus() {
+        // Given
+        testOrder1.setOrderDate(LocalDateTime.of(2024, 1, 15, 10, 5));
+        Order sameHour = new Order(200L, new BigDecimal("99.98"), "456 Another St, Another City, AC 67890");
+        sameHour.setOrderDate(LocalDateTime.of(2024, 1, 15, 10, 40));
+        OrderItem sameProduct = new OrderItem(1L, "Product 1", 2, new BigDecimal("49.99"));
+        sameProduct.setOrder(sameHour);
+        sameHour.setOrderItems(new ArrayList<>(List.of(sameProduct)));
+        Order cancelled = new Order(300L, new BigDecimal("49.99"), "789 Pine Rd, Austin, TX 78701");
+        cancelled.setOrderDate(LocalDateTime.of(2024, 1, 15, 10, 50));
+        cancelled.setStatus(Order.OrderStatus.CANCELLED);
+        OrderItem cancelledItem = new OrderItem(1L, "Product 1", 1, new BigDecimal("49.99"));
+        cancelledItem.setOrder(cancelled);
+        cancelled.setOrderItems(new ArrayList<>(List.of(cancelledItem)));
+        entityManager.persistAndFlush(testOrder1);
+        entityManager.persistAndFlush(sameHour);
+        entityManager.persistAndFlush(cancelled);
+
+        // When
+        List<OrderRepository.HourlyProductSalesView> sales = orderRepository.findHourlyProductSales(Order.OrderStatus.CANCELLED);
+
+        // Then
+        assertThat(sales).hasSize(2);
+        OrderRepository.HourlyProductSalesView product1 = sales.stream()
+                .filter(view -> view.getProductId().equals(1L))
+                .findFirst().orElseThrow();
+        assertThat(product1.getOrderDay()).isEqualTo(LocalDate.of(2024, 1, 15));
+        assertThat(product1.getHourOfDay()).isEqualTo(10);
+        assertThat(product1.getUnitsSold()).isEqualTo(4L);
+        assertThat(product1.getRevenue()).isEqualByComparingTo("199.96");
+    }
+
+    @Test
+    void findSummariesByProductId_ShouldPageByDescendingIdWithFilters() {
+        // Given: product 1 is on testOrder1 and two more orders, one of them shipped
+        entityManager.persistAndFlush(testOrder1);
+        Order second = orderWithProduct(1L, Order.OrderStatus.PENDING);
+        Order third = orderWithProduct(1L, Order.OrderStatus.SHIPPED);
+        orderWithProduct(9L, Order.OrderStatus.PENDING);
+
+        // When
+        List<OrderSummary> firstPage = orderRepository.findSummariesByProductId(1L, null, null, null, null,
+                PageRequest.ofSize(2));
+        List<OrderSummary> secondPage = orderRepository.findSummariesByProductId(1L, null, null, null,
+                firstPage.get(1).id(), PageRequest.ofSize(2));
+        List<OrderSummary> shipped = orderRepository.findSummariesByProductId(1L, Order.OrderStatus.SHIPPED, null, null,
+                null, PageRequest.ofSize(10));
+
+        // Then
+        assertThat(firstPage).extracting(OrderSummary::id).containsExactly(third.getId(), second.getId());
+        assertThat(secondPage).extracting(OrderSummary::id).containsExactly(testOrder1.getId());
+        assertThat(shipped).extracting(OrderSummary::id).containsExactly(third.getId());
+    }
+
+    @Test
+    void findSummariesByProductId_ShouldFilterByOrderDate() {
+        // Given
+        testOrder1.setOrderDate(LocalDateTime.of(2024, 1, 10, 9, 0));
+        entityManager.persistAndFlush(testOrder1);
+        Order later = orderWithProduct(1L, Order.OrderStatus.PENDING);
+        later.setOrderDate(LocalDateTime.of(2024, 2, 10, 9, 0));
+        entityManager.flush();
+
+        // When
+        List<OrderSummary> january = orderRepository.findSummariesByProductId(1L, null,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0), null, PageRequest.ofSize(10));
+
+        // Then
+        assertThat(january).extracting(OrderSummary::id).containsExactly(testOrder1.getId());
+    }
+
+    @Test
+    void findSummariesByProductId_WithStatusAndOpenEndedDateRange_ShouldApplyBoth() {
+        // Given
+        testOrder1.setStatus(Order.OrderStatus.SHIPPED);
+        testOrder1.setOrderDate(LocalDateTime.of(2024, 1, 10, 9, 0));
+        entityManager.persistAndFlush(testOrder1);
+        Order laterShipped = orderWithProduct(1L, Order.OrderStatus.SHIPPED);
+        laterShipped.setOrderDate(LocalDateTime.of(2024, 2, 10, 9, 0));
+        Order laterPending = orderWithProduct(1L, Order.OrderStatus.PENDING);
+        laterPending.setOrderDate(LocalDateTime.of(2024, 2, 11, 9, 0));
+        entityManager.flush();
+
+        // When
+        List<OrderSummary> shippedSinceFebruary = orderRepository.findSummariesByProductId(1L, Order.OrderStatus.SHIPPED,
+                LocalDateTime.of(2024, 2, 1, 0, 0), null, null, PageRequest.ofSize(10));
+
+        // Then
+        assertThat(shippedSinceFebruary).extracting(OrderSummary::id).containsExactly(laterShipped.getId());
+    }
+
+    @Test
+    void persist_ShouldAssignIdsWithoutQueryingTheDatabase() {
+        // Given
+        Statistics statistics = clearedStatistics();
+        Order order = new Order(300L, new BigDecimal("10.00"), "1 Id St, Test City, TC 12345");
+        OrderItem item = new OrderItem(1L, "Product 1", 1, new BigDecimal("10.00"));
+        item.setOrder(order);
+        order.setOrderItems(new ArrayList<>(List.of(item)));
+
+        // When
+        entityManager.persist(order);
+
+        // Then
+        assertThat(order.getId()).isNotNull();
+        assertThat(item.getId()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void findByUserId_ShouldLoadOrderItemsInSingleQuery() {
+        // Given
+        persistOrdersWithItems(100L, 5);
+        Statistics statistics = clearedStatistics();
+
+        // When
+        List<Order> found = orderRepository.findByUserId(100L);
+        found.forEach(order -> order.getOrderItems().size());
+
+        // Then
+        assertThat(found).hasSize(5);
+        assertThat(found).allSatisfy(order -> assertThat(order.getOrderItems()).hasSize(2));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findAll_ShouldLoadOrderItemsInSingleQuery() {
+        // Given
+        persistOrdersWithItems(100L, 3);
+        persistOrdersWithItems(200L, 3);
+        Statistics statistics = clearedStatistics();
+
+        // When
+        List<Order> found = orderRepository.findAll();
+        found.forEach(order -> order.getOrderItems().size());
+
+        // Then
+        assertThat(found).hasSize(6);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findByStatus_ShouldLoadOrderItemsInSingleQuery() {
+        // Given
+        persistOrdersWithItems(100L, 4);
+        Statistics statistics = clearedStatistics();
+
+        // When
+        List<Order> found = orderRepository.findByStatus(Order.OrderStatus.PENDING);
+        found.forEach(order -> order.getOrderItems().size());
+
+        // Then
+        assertThat(found).hasSize(4);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void save_WithManyItems_ShouldBatchItemInserts() {
+        // Given
+        Order order = new Order(100L, new BigDecimal("199.80"), "123 Test St, Test City, TC 12345");
+        List<OrderItem> items = new ArrayList<>();
+        for (long productId = 1; productId <= 20; productId++) {
+            OrderItem item = new OrderItem(productId, "Product " + productId, 1, new BigDecimal("9.99"));
+            item.setOrder(order);
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        Statistics statistics = clearedStatistics();
+
+        // When
+        orderRepository.save(order);
+        entityManager.flush();
+
+        // Then
+        assertThat(order.getId()).isNotNull();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(21);
+        // Sequence fetches plus one insert statement per table, not one per row
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void findUserOrdersVersionView_ShouldChangeWhenUserOrdersChange() {
+        // Given
+        Order saved = entityManager.persistAndFlush(testOrder1);
+        entityManager.persistAndFlush(testOrder3);
+        OrderRepository.UserOrdersVersionView before = orderRepository.findUserOrdersVersionView(100L);
+
+        // When
+        orderRepository.updateStatus(saved.getId(), Order.OrderStatus.CONFIRMED, saved.getVersion());
+        OrderRepository.UserOrdersVersionView afterUpdate = orderRepository.findUserOrdersVersionView(100L);
+        entityManager.persistAndFlush(testOrder2);
+        OrderRepository.UserOrdersVersionView afterCreate = orderRepository.findUserOrdersVersionView(100L);
+
+        // Then
+        assertThat(before.getOrderCount()).isEqualTo(1L);
+        assertThat(afterUpdate.getVersionSum()).isEqualTo(before.getVersionSum() + 1);
+        assertThat(afterCreate.getOrderCount()).isEqualTo(2L);
+        assertThat(afterCreate.getMaxId()).isEqualTo(Math.max(saved.getId(), testOrder2.getId()));
+    }
+
+    @Test
+    void findUserOrdersVersionView_WithManySnowflakeIds_ShouldNotOverflow() {
+        // Given: thirty ids near 2^58 sum past Long.MAX_VALUE
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Order order = new Order();
+            order.setUserId(100L);
+            order.setTotalAmount(new BigDecimal("10.00"));
+            order.setStatus(Order.OrderStatus.PENDING);
+            order.setShippingAddress("123 Test St, Test City, TC 12345");
+            order.setOrderDate(LocalDateTime.now());
+            ids.add(entityManager.persist(order).getId());
+        }
+        entityManager.flush();
+
+        // When
+        OrderRepository.UserOrdersVersionView view = orderRepository.findUserOrdersVersionView(100L);
+
+        // Then
+        assertThat(ids.stream().mapToLong(Long::longValue).max().orElseThrow()).isGreaterThan(Long.MAX_VALUE / 30);
+        assertThat(view.getOrderCount()).isEqualTo(30L);
+        assertThat(view.getMaxId()).isEqualTo(ids.stream().mapToLong(Long::longValue).max().orElseThrow());
+    }
+
+    @Test
+    void findUserOrdersVersionView_WithNoOrders_ShouldReturnZeros() {
+        // When
+        OrderRepository.UserOrdersVersionView view = orderRepository.findUserOrdersVersionView(999L);
+
+        // Then
+        assertThat(view.getOrderCount()).isZero();
+        assertThat(view.getMaxId()).isZero();
+        assertThat(view.getVersionSum()).isZero();
+    }
+
+    @Test
+    void findSummariesByUserId_ShouldSelectOrderColumnsWithoutItems() {
+        // Given
+        persistOrdersWithItems(100L, 3);
+        persistOrdersWithItems(200L, 2);
+        Statistics statistics = clearedStatistics();
+
+        // When
+        List<OrderSummary> summaries = orderRepository.findSummariesByUserId(100L);
+
+        // Then
+        assertThat(summaries).hasSize(3);
+        assertThat(summaries).extracting(OrderSummary::userId).containsOnly(100L);
+        assertThat(summaries).extracting(OrderSummary::status).containsOnly(Order.OrderStatus.PENDING);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findAllSummaries_ShouldReturnEveryOrder() {
+        // Given
+        persistOrdersWithItems(100L, 2);
+        persistOrdersWithItems(200L, 2);
+
+        // When
+        List<OrderSummary> summaries = orderRepository.findAllSummaries();
+
+        // Then
+        assertThat(summaries).hasSize(4);
+        assertThat(summaries).extracting(OrderSummary::totalAmount)
+                .allMatch(amount -> amount.compareTo(new BigDecimal("149.97")) == 0);
+    }
+
+    private Order orderWithProduct(Long productId, Order.OrderStatus status) {
+        Order order = new Order(300L, new BigDecimal("49.99"), "789 Pine Rd, Austin, TX 78701");
+        order.setStatus(status);
+        OrderItem item = new OrderItem(productId, "Product " + productId, 1, new BigDecimal("49.99"));
+        item.setOrder(order);
+        order.setOrderItems(new ArrayList<>(List.of(item)));
+        return entityManager.persistAndFlush(order);
+    }
+
+    private void persistOrdersWithItems(Long userId, int count) {
+        for (int i = 0; i < count; i++) {
+            Order order = new Order(userId, new BigDecimal("149.97"), "123 Test St, Test City, TC 12345");
+            List<OrderItem> items = new ArrayList<>();
+            items.add(new OrderItem(1L, "Product 1", 1, new BigDecimal("49.99")));
+            items.add(new OrderItem(2L, "Product 2", 1, new BigDecimal("99.98")));
+            items.forEach(item -> item.setOrder(order));
+            order.setOrderItems(items);
+            entityManager.persist(order);
+        }
+    }
+
+    private Statistics clearedStatistics() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+package com.ecommerce.orderservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AdmissionControlTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void admit_BeyondUserBurst_ShouldRejectWithTooManyRequests() {
+        // Given
+        AdmissionControl admission = admission(1, 3, 100, Duration.ofHours(1));
+        for (int i = 0; i < 3; i++) {
+            admission.admit(1L).close();
+        }
+
+        // When
+        AdmissionControl.RejectedException rejected = assertThrows(AdmissionControl.RejectedException.class,
+            () -> admission.admit(1L));
+
+        // Then
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getRetryAfterSeconds()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.admission.rejected").tag("reason", "user_rate").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void admit_ShouldKeepBucketsPerUser() {
+        // Given
+        AdmissionControl admission = admission(1, 1, 100, Duration.ofHours(1));
+        admission.admit(1L).close();
+
+        // When & Then
+        assertThrows(AdmissionControl.RejectedException.class, () -> admission.admit(1L));
+        admission.admit(2L).close();
+    }
+
+    @Test
+    void admit_ShouldRefillTokensOverTime() throws Exception {
+        // Given
+        AdmissionControl admission = admission(20, 1, 100, Duration.ofHours(1));
+        admission.admit(1L).close();
+        assertThrows(AdmissionControl.RejectedException.class, () -> admission.admit(1L));
+
+        // When
+        Thread.sleep(100);
+
+        // Then
+        admission.admit(1L).close();
+    }
+
+    @Test
+    void admit_BeyondMaxInFlight_ShouldShedUntilTicketsClose() {
+        // Given
+        AdmissionControl admission = admission(1000, 1000, 2, Duration.ofHours(1));
+        AdmissionControl.Ticket first = admission.admit(1L);
+        AdmissionControl.Ticket second = admission.admit(2L);
+
+        // When
+        AdmissionControl.RejectedException rejected = assertThrows(AdmissionControl.RejectedException.class,
+            () -> admission.admit(3L));
+
+        // Then
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(admission.inFlight()).isEqualTo(2);
+        first.close();
+        second.close();
+        assertThat(admission.inFlight()).isZero();
+        admission.admit(3L).close();
+    }
+
+    @Test
+    void admit_WithLatencyOverBudget_ShouldShedWhileWorkIsInFlight() throws Exception {
+        // Given
+        AdmissionControl admission = admission(1000, 1000, 100, Duration.ofMillis(10));
+        AdmissionControl.Ticket slow = admission.admit(1L);
+        Thread.sleep(30);
+        slow.close();
+        AdmissionControl.Ticket inFlight = admission.admit(2L);
+
+        // When & Then
+        AdmissionControl.RejectedException rejected = assertThrows(AdmissionControl.RejectedException.class,
+            () -> admission.admit(3L));
+        assertThat(rejected.getStatus()).isEqualTo(503);
+
+        // Once in-flight work drains, a request is let through to measure latency again
+        inFlight.close();
+        admission.admit(3L).close();
+    }
+
+    @Test
+    void admit_UnderContention_ShouldNeverGrantMoreThanTheBurst() throws Exception {
+        // Given
+        AdmissionControl admission = admission(0.001, 50, 10_000, Duration.ofHours(1));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        List<Future<?>> attempts = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 500; i++) {
+            attempts.add(executor.submit(() -> {
+                start.await();
+                try {
+                    admission.admit(1L).close();
+                    admitted.incrementAndGet();
+                } catch (AdmissionControl.RejectedException e) {
+                    // expected once the burst is spent
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> attempt : attempts) {
+            attempt.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(admitted).hasValue(50);
+    }
+
+    private AdmissionControl admission(double userRate, int userBurst, int maxInFlight, Duration maxLatency) {
+        return new AdmissionControl(userRate, userBurst, 1000, Duration.ofMinutes(10), maxInFlight, maxLatency, meterRegistry);
+    }
+}
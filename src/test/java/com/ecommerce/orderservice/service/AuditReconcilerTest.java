@@ -0,0 +1,159 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.audit.AuditJournal;
+import com.ecommerce.orderservice.audit.AuditRecord;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderEvent;
+import com.ecommerce.orderservice.model.SnowflakeIds;
+import com.ecommerce.orderservice.repository.OrderEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuditReconcilerTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private OrderEventRepository eventRepository;
+
+    private AuditJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        journal = new AuditJournal(directory, DataSize.ofMegabytes(1), Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+    }
+
+    @Test
+    void reconcile_ShouldAppendEventsMissingFromTheJournalTail() {
+        // Given: the confirmation committed but was never journaled
+        journal.append(OrderEvent.Type.CREATED, 1L, 123L, Order.OrderStatus.PENDING);
+        long issuedAt = System.currentTimeMillis() - 1000;
+        when(eventRepository.findByIdBetweenOrderById(anyLong(), anyLong())).thenReturn(List.of(
+            event(SnowflakeIds.lowestIdAt(issuedAt), 0, OrderEvent.Type.CREATED, Order.OrderStatus.PENDING),
+            event(SnowflakeIds.lowestIdAt(issuedAt) + 1, 1, OrderEvent.Type.STATUS_CHANGED, Order.OrderStatus.CONFIRMED)));
+
+        // When
+        int appended = reconciler("").reconcile();
+
+        // Then
+        assertThat(appended).isEqualTo(1);
+        List<AuditRecord> records = new ArrayList<>();
+        journal.read(1).forEachRemaining(records::add);
+        assertThat(records).extracting(AuditRecord::type, AuditRecord::status).containsExactly(
+            tuple(OrderEvent.Type.CREATED, Order.OrderStatus.PENDING),
+            tuple(OrderEvent.Type.STATUS_CHANGED, Order.OrderStatus.CONFIRMED));
+    }
+
+    @Test
+    void reconcile_ShouldIgnoreEventsOfOtherNodes() {
+        // Given
+        journal.append(OrderEvent.Type.CREATED, 1L, 123L, Order.OrderStatus.PENDING);
+        long issuedAt = System.currentTimeMillis() - 1000;
+        when(eventRepository.findByIdBetweenOrderById(anyLong(), anyLong())).thenReturn(List.of(
+            event(SnowflakeIds.lowestIdAt(issuedAt), 1, OrderEvent.Type.STATUS_CHANGED, Order.OrderStatus.CONFIRMED)));
+
+        // When
+        int appended = reconciler("3").reconcile();
+
+        // Then
+        assertThat(appended).isZero();
+        assertThat(journal.lastSequence()).isEqualTo(1L);
+    }
+
+    @Test
+    void reconcile_WithEmptyJournal_ShouldNotReadEvents() {
+        // When
+        int appended = reconciler("").reconcile();
+
+        // Then
+        assertThat(appended).isZero();
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void reconcile_ShouldReachBackToTheFirstAppendDroppedBeforeStartup() {
+        // Given: the append dropped an hour ago lies well outside the window before the last record
+        journal.append(OrderEvent.Type.CREATED, 1L, 123L, Order.OrderStatus.PENDING);
+        long droppedAt = System.currentTimeMillis() - Duration.ofHours(1).toMillis();
+        journal.markGap(droppedAt);
+        when(eventRepository.findByIdBetweenOrderById(anyLong(), anyLong())).thenReturn(List.of(
+            event(SnowflakeIds.lowestIdAt(droppedAt), 1, OrderEvent.Type.STATUS_CHANGED, Order.OrderStatus.CONFIRMED)));
+
+        // When
+        int appended = reconciler("").reconcile();
+
+        // Then
+        assertThat(appended).isEqualTo(1);
+        verify(eventRepository).findByIdBetweenOrderById(eq(SnowflakeIds.lowestIdAt(droppedAt - Duration.ofMinutes(1).toMillis())), anyLong());
+        assertThat(journal.gapSince()).isEmpty();
+    }
+
+    @Test
+    void reconcile_ShouldKeepTheGapOfAnAppendDroppedSinceStartup() {
+        // Given
+        journal.append(OrderEvent.Type.CREATED, 1L, 123L, Order.OrderStatus.PENDING);
+        AuditReconciler reconciler = reconciler("");
+        reconciler.recordDropped();
+        when(eventRepository.findByIdBetweenOrderById(anyLong(), anyLong())).thenReturn(List.of());
+
+        // When
+        reconciler.reconcile();
+
+        // Then
+        assertThat(journal.gapSince()).isPresent();
+    }
+
+    @Test
+    void recordDropped_ShouldCountDroppedRecords() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuditReconciler reconciler = new AuditReconciler(journal, eventRepository, new ShardRouting(1, 16),
+            meterRegistry, Duration.ofMinutes(1), "");
+
+        // When
+        reconciler.recordDropped();
+
+        // Then
+        assertThat(meterRegistry.counter("orders.audit.dropped").count()).isEqualTo(1.0);
+        assertThat(journal.gapSince()).isPresent();
+    }
+
+    private AuditReconciler reconciler(String nodeId) {
+        return new AuditReconciler(journal, eventRepository, new ShardRouting(1, 16), new SimpleMeterRegistry(),
+            Duration.ofMinutes(1), nodeId);
+    }
+
+    private static OrderEvent event(long id, long sequenceNumber, OrderEvent.Type type, Order.OrderStatus status) {
+        OrderEvent event = new OrderEvent(1L, sequenceNumber, type, status, 123L, new BigDecimal("149.98"), LocalDateTime.now());
+        ReflectionTestUtils.setField(event, "id", id);
+        return event;
+    }
+}
@@ -0,0 +1,233 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.model.IdempotencyKey;
+import com.ecommerce.orderservice.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyStoreTest {
+
+    private static final String REQUEST = "request-fingerprint";
+
+    @Mock
+    private IdempotencyKeyRepository repository;
+
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore(repository, Duration.ofHours(24), 1000, Duration.ofSeconds(5), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void execute_FirstAttempt_ShouldClaimKeyAndRecordOrder() {
+        // When
+        Long orderId = store.execute("key-1", REQUEST, () -> 42L);
+
+        // Then
+        assertThat(orderId).isEqualTo(42L);
+        verify(repository).claim(eq("key-1"), anyString(), eq(REQUEST), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(repository).complete(eq("key-1"), anyString(), eq(42L));
+    }
+
+    @Test
+    void execute_Replay_ShouldReturnOriginalOrderFromHotSet() {
+        // Given
+        AtomicInteger runs = new AtomicInteger();
+        store.execute("key-1", REQUEST, () -> {
+            runs.incrementAndGet();
+            return 42L;
+        });
+
+        // When
+        Long replayed = store.execute("key-1", REQUEST, () -> {
+            runs.incrementAndGet();
+            return 43L;
+        });
+
+        // Then
+        assertThat(replayed).isEqualTo(42L);
+        assertThat(runs).hasValue(1);
+        verify(repository, times(1)).claim(eq("key-1"), anyString(), eq(REQUEST), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void execute_KeyCompletedByAnotherInstance_ShouldReturnStoredOrder() {
+        // Given
+        when(repository.claim(eq("key-1"), anyString(), eq(REQUEST), any(LocalDateTime.class), any(LocalDateTime.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(repository.findById("key-1"))
+            .thenReturn(Optional.of(new IdempotencyKey("key-1", 42L, LocalDateTime.now().minusMinutes(5), "other-owner", LocalDateTime.now().minusMinutes(5), REQUEST)));
+
+        // When
+        Long orderId = store.execute("key-1", REQUEST, () -> {
+            throw new AssertionError("should not run again");
+        });
+
+        // Then
+        assertThat(orderId).isEqualTo(42L);
+        verify(repository, never()).complete(anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    void execute_ReplayWhileFirstAttemptRuns_ShouldWaitInsteadOfRunningAgain() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> store.execute("key-1", REQUEST, () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            await(release);
+            return 42L;
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        CompletableFuture<Long> replay = CompletableFuture.supplyAsync(() -> store.execute("key-1", REQUEST, () -> {
+            runs.incrementAndGet();
+            return 43L;
+        }));
+        Thread.sleep(100);
+        assertThat(replay).isNotDone();
+        release.countDown();
+
+        // Then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(42L);
+        assertThat(replay.get(5, TimeUnit.SECONDS)).isEqualTo(42L);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void execute_FailedAttempt_ShouldReleaseClaimSoRetryRunsAgain() {
+        // Given
+        assertThrows(RuntimeException.class, () -> store.execute("key-1", REQUEST, () -> {
+            throw new RuntimeException("User not found");
+        }));
+
+        // When
+        Long orderId = store.execute("key-1", REQUEST, () -> 42L);
+
+        // Then
+        assertThat(orderId).isEqualTo(42L);
+        verify(repository).release(eq("key-1"), anyString());
+        verify(repository, times(2)).claim(eq("key-1"), anyString(), eq(REQUEST), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(repository).complete(eq("key-1"), anyString(), eq(42L));
+    }
+
+    @Test
+    void execute_WithUnfinishedClaimElsewhere_ShouldGiveUpAfterWaitTimeout() {
+        // Given
+        store = new IdempotencyStore(repository, Duration.ofHours(24), 1000, Duration.ofMillis(200), Duration.ofSeconds(30));
+        when(repository.claim(eq("key-1"), anyString(), eq(REQUEST), any(LocalDateTime.class), any(LocalDateTime.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(repository.findById("key-1"))
+            .thenAnswer(invocation -> Optional.of(new IdempotencyKey("key-1", null, LocalDateTime.now(), "other-owner", LocalDateTime.now().plusSeconds(30), REQUEST)));
+
+        // When & Then
+        assertThrows(IdempotencyStore.KeyInProgressException.class, () -> store.execute("key-1", REQUEST, () -> 42L));
+    }
+
+    @Test
+    void execute_WithClaimElsewhereWhoseLeaseExpired_ShouldTakeOverOnlyThatOwnersClaim() {
+        // Given: the other attempt's claim is old, but only its lease decides
+        when(repository.claim(eq("key-1"), anyString(), eq(REQUEST), any(LocalDateTime.class), any(LocalDateTime.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate key"))
+            .thenReturn(1);
+        when(repository.findById("key-1")).thenReturn(Optional.of(new IdempotencyKey("key-1", null,
+            LocalDateTime.now().minusMinutes(5), "dead-owner", LocalDateTime.now().minusSeconds(1), REQUEST)));
+
+        // When
+        Long orderId = store.execute("key-1", REQUEST, () -> 42L);
+
+        // Then
+        assertThat(orderId).isEqualTo(42L);
+        verify(repository).deleteIfLeaseExpired(eq("key-1"), eq("dead-owner"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void execute_WithLongRunningClaimElsewhereStillRenewed_ShouldNotTakeItOver() {
+        // Given: claimed long ago, lease still live
+        store = new IdempotencyStore(repository, Duration.ofHours(24), 1000, Duration.ofMillis(200), Duration.ofSeconds(30));
+        when(repository.claim(eq("key-1"), anyString(), eq(REQUEST), any(LocalDateTime.class), any(LocalDateTime.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(repository.findById("key-1")).thenAnswer(invocation -> Optional.of(new IdempotencyKey("key-1", null,
+            LocalDateTime.now().minusMinutes(5), "live-owner", LocalDateTime.now().plusSeconds(20), REQUEST)));
+
+        // When & Then
+        assertThrows(IdempotencyStore.KeyInProgressException.class, () -> store.execute("key-1", REQUEST, () -> 42L));
+        verify(repository, never()).deleteIfLeaseExpired(anyString(), anyString(), any());
+    }
+
+    @Test
+    void execute_WithKeyOfDifferentRequestInHotSet_ShouldReject() {
+        // Given
+        store.execute("key-1", REQUEST, () -> 42L);
+
+        // When & Then
+        assertThrows(IdempotencyStore.KeyReusedException.class, () -> store.execute("key-1", "other-request", () -> 43L));
+    }
+
+    @Test
+    void execute_WithKeyOfDifferentRequestElsewhere_ShouldReject() {
+        // Given
+        when(repository.claim(eq("key-1"), anyString(), eq("other-request"), any(LocalDateTime.class), any(LocalDateTime.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(repository.findById("key-1"))
+            .thenReturn(Optional.of(new IdempotencyKey("key-1", 42L, LocalDateTime.now(), "other-owner", LocalDateTime.now(), REQUEST)));
+
+        // When & Then
+        assertThrows(IdempotencyStore.KeyReusedException.class, () -> store.execute("key-1", "other-request", () -> 43L));
+    }
+
+    @Test
+    void renewClaims_WhileAttemptRuns_ShouldExtendItsLeaseUnderItsOwner() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Long> running = CompletableFuture.supplyAsync(() -> store.execute("key-1", REQUEST, () -> {
+            started.countDown();
+            await(release);
+            return 42L;
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        store.renewClaims();
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+
+        // Then
+        ArgumentCaptor<String> owner = ArgumentCaptor.forClass(String.class);
+        verify(repository).claim(eq("key-1"), owner.capture(), eq(REQUEST), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(repository).renew(eq("key-1"), eq(owner.getValue()), any(LocalDateTime.class));
+        verify(repository).complete("key-1", owner.getValue(), 42L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.repository.ArchivedOrderRepository;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderArchiverTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    private OrderArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        archiver = new OrderArchiver(orderRepository, archivedOrderRepository,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), new ShardRouting(1, 16), Duration.ofDays(90), 2);
+    }
+
+    @Test
+    void archive_ShouldCopyThenDeleteInBatchesUntilShortBatch() {
+        // Given
+        when(orderRepository.lockArchivable(eq(OrderArchiver.ARCHIVABLE), any(LocalDateTime.class), any()))
+            .thenReturn(List.of(1L, 2L), List.of(3L));
+        when(orderRepository.deleteByIds(anyCollection())).thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).size());
+
+        // When
+        int archived = archiver.archive();
+
+        // Then
+        assertThat(archived).isEqualTo(3);
+        verify(orderRepository, times(2)).lockArchivable(any(), any(), any());
+        InOrder inOrder = inOrder(archivedOrderRepository, orderRepository);
+        inOrder.verify(archivedOrderRepository).copyOrders(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        inOrder.verify(archivedOrderRepository).copyItems(List.of(1L, 2L));
+        inOrder.verify(orderRepository).deleteItemsByOrderIds(List.of(1L, 2L));
+        inOrder.verify(orderRepository).deleteByIds(List.of(1L, 2L));
+        verify(orderRepository).deleteByIds(List.of(3L));
+    }
+
+    @Test
+    void archive_ShouldUseCutoffOfMinAgeAgo() {
+        // Given
+        when(orderRepository.lockArchivable(any(), any(), any())).thenReturn(List.of());
+        LocalDateTime before = LocalDateTime.now().minusDays(90);
+
+        // When
+        int archived = archiver.archive();
+
+        // Then
+        assertThat(archived).isZero();
+        verify(orderRepository).lockArchivable(any(), argThat(cutoff -> !cutoff.isBefore(before)
+            && cutoff.isBefore(LocalDateTime.now().minusDays(89))), any());
+        verifyNoInteractions(archivedOrderRepository);
+    }
+}
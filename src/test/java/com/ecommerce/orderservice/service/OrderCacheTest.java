@@ -0,0 +1,157 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.OrderSnapshot;
+import com.ecommerce.orderservice.model.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OrderCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderCache orderCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        orderCache = new OrderCache(2, Duration.ofMinutes(10), meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndServeHitsFromCache() {
+        // When
+        OrderSnapshot first = orderCache.get(1L, this::load);
+        OrderSnapshot second = orderCache.get(1L, this::load);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "orders").tag("result", "hit").functionCounter().count())
+            .isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "orders").tag("result", "miss").functionCounter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void invalidate_ShouldForceReloadOnNextRead() {
+        // Given
+        orderCache.get(1L, this::load);
+
+        // When
+        orderCache.invalidate(1L);
+        orderCache.get(1L, this::load);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_ShouldStayWithinMaximumSizeAndRecordEvictions() {
+        // When
+        orderCache.get(1L, this::load);
+        orderCache.get(2L, this::load);
+        orderCache.get(3L, this::load);
+
+        // Then
+        assertThat(orderCache.size()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", "orders").functionCounter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void get_WhenLoaderFails_ShouldNotCacheAnything() {
+        // When & Then
+        assertThrows(RuntimeException.class, () -> orderCache.get(1L, id -> {
+            throw new RuntimeException("Order not found");
+        }));
+        assertThat(orderCache.size()).isZero();
+    }
+
+    @Test
+    void get_WhenLoaderThrowsError_ShouldFailWaitersInsteadOfHangingThem() throws Exception {
+        // Given: a second read of the same id waits on a load that ends in an Error
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<OrderSnapshot> failingRead = CompletableFuture.supplyAsync(() -> orderCache.get(1L, id -> {
+            loading.countDown();
+            awaitQuietly(release);
+            throw new OutOfMemoryError("Java heap space");
+        }));
+        loading.await();
+        AtomicReference<Throwable> waiterFailure = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                orderCache.get(1L, this::load);
+            } catch (Throwable e) {
+                waiterFailure.set(e);
+            }
+        });
+        waiter.start();
+        while (waiter.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+
+        // When
+        release.countDown();
+        waiter.join(5_000);
+
+        // Then
+        assertThat(waiter.isAlive()).isFalse();
+        assertThat(waiterFailure.get()).isInstanceOf(OutOfMemoryError.class);
+        assertThrows(ExecutionException.class, () -> failingRead.get(5, TimeUnit.SECONDS));
+        assertThat(loads.get()).isZero();
+    }
+
+    @Test
+    void invalidate_DuringLoad_ShouldNotServeThatLoadToLaterReads() throws Exception {
+        // Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<OrderSnapshot> slowRead = CompletableFuture.supplyAsync(() -> orderCache.get(1L, id -> {
+            loading.countDown();
+            awaitQuietly(release);
+            return load(id);
+        }));
+        loading.await();
+
+        // When
+        orderCache.invalidate(1L);
+        OrderSnapshot fresh = orderCache.get(1L, this::load);
+        release.countDown();
+        slowRead.get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(fresh).isNotNull();
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(orderCache.get(1L, this::load)).isSameAs(fresh);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private OrderSnapshot load(Long id) {
+        loads.incrementAndGet();
+        Order order = new Order(123L, new BigDecimal("49.99"), "123 Test St, Test City, TC 12345");
+        order.setId(id);
+        return OrderSnapshot.from(order);
+    }
+}
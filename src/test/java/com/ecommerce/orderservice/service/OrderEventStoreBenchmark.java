@@ -0,0 +1,205 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderEvent;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH measurements of the order event log against an in-process H2 database: replaying one
+ * order from its full log versus from its snapshot plus the events after it, folding already
+ * loaded events, and the cost of appending an event versus the versioned row update it sits
+ * next to. Orders carry {@link #EVENTS_PER_ORDER} events, far more than a real order, so the
+ * replay gap shows. Run with
+ * {@code ./gradlew benchmark --tests '*OrderEventStoreBenchmark' -Dbenchmark.forks=1}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderEventStoreBenchmark {
+
+    private static final int ORDERS = 2_000;
+    private static final int EVENTS_PER_ORDER = 50;
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+
+    private Connection connection;
+    private PreparedStatement selectEventsAfter;
+    private PreparedStatement selectSnapshot;
+    private PreparedStatement insertEvent;
+    private PreparedStatement updateOrder;
+    private List<OrderEvent> loadedEvents;
+    private long nextEventId;
+    private int nextOrder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:order-events-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS order_events");
+            statement.execute("DROP TABLE IF EXISTS order_event_snapshots");
+            statement.execute("DROP TABLE IF EXISTS orders");
+            statement.execute("CREATE TABLE order_events (id BIGINT PRIMARY KEY, order_id BIGINT NOT NULL, " +
+                "sequence_number BIGINT NOT NULL, type VARCHAR(20) NOT NULL, status VARCHAR(20) NOT NULL, " +
+                "user_id BIGINT, total_amount DECIMAL(38, 2), occurred_at TIMESTAMP, " +
+                "CONSTRAINT uk_order_events_order_id_sequence_number UNIQUE (order_id, sequence_number))");
+            statement.execute("CREATE TABLE order_event_snapshots (order_id BIGINT PRIMARY KEY, sequence_number BIGINT, " +
+                "status VARCHAR(20), user_id BIGINT, total_amount DECIMAL(38, 2), created_at TIMESTAMP, taken_at TIMESTAMP)");
+            statement.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, user_id BIGINT, total_amount DECIMAL(38, 2), " +
+                "status VARCHAR(20), order_date TIMESTAMP, version BIGINT NOT NULL)");
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement event = connection.prepareStatement("INSERT INTO order_events VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement snapshot = connection.prepareStatement("INSERT INTO order_event_snapshots VALUES (?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement order = connection.prepareStatement("INSERT INTO orders VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (long orderId = 0; orderId < ORDERS; orderId++) {
+                for (int sequence = 0; sequence < EVENTS_PER_ORDER; sequence++) {
+                    event.setLong(1, nextEventId++);
+                    event.setLong(2, orderId);
+                    event.setLong(3, sequence);
+                    event.setString(4, (sequence == 0 ? OrderEvent.Type.CREATED : OrderEvent.Type.STATUS_CHANGED).name());
+                    event.setString(5, STATUSES[sequence % STATUSES.length].name());
+                    event.setLong(6, orderId % 100);
+                    event.setBigDecimal(7, new BigDecimal("149.98"));
+                    event.setTimestamp(8, now);
+                    event.addBatch();
+                }
+                event.executeBatch();
+                // Snapshot taken two events before the end of the log
+                snapshot.setLong(1, orderId);
+                snapshot.setLong(2, EVENTS_PER_ORDER - 3);
+                snapshot.setString(3, STATUSES[(EVENTS_PER_ORDER - 3) % STATUSES.length].name());
+                snapshot.setLong(4, orderId % 100);
+                snapshot.setBigDecimal(5, new BigDecimal("149.98"));
+                snapshot.setTimestamp(6, now);
+                snapshot.setTimestamp(7, now);
+                snapshot.executeUpdate();
+                order.setLong(1, orderId);
+                order.setLong(2, orderId % 100);
+                order.setBigDecimal(3, new BigDecimal("149.98"));
+                order.setString(4, Order.OrderStatus.PENDING.name());
+                order.setTimestamp(5, now);
+                order.setLong(6, 0);
+                order.executeUpdate();
+            }
+        }
+
+        selectEventsAfter = connection.prepareStatement("SELECT order_id, sequence_number, type, status, user_id, " +
+            "total_amount, occurred_at FROM order_events WHERE order_id = ? AND sequence_number > ? ORDER BY sequence_number");
+        selectSnapshot = connection.prepareStatement("SELECT order_id, sequence_number, status, user_id, total_amount, " +
+            "created_at FROM order_event_snapshots WHERE order_id = ?");
+        insertEvent = connection.prepareStatement("INSERT INTO order_events VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+        updateOrder = connection.prepareStatement("UPDATE orders SET status = ?, version = version + 1 WHERE id = ?");
+        loadedEvents = events(0, -1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public OrderEventStore.State replayFromLog() throws SQLException {
+        return OrderEventStore.fold(null, events(nextOrder(), -1));
+    }
+
+    @Benchmark
+    public OrderEventStore.State replayFromSnapshot() throws SQLException {
+        long orderId = nextOrder();
+        OrderEventStore.State state;
+        selectSnapshot.setLong(1, orderId);
+        try (ResultSet row = selectSnapshot.executeQuery()) {
+            row.next();
+            state = new OrderEventStore.State(row.getLong(1), row.getLong(2), Order.OrderStatus.valueOf(row.getString(3)),
+                row.getLong(4), row.getBigDecimal(5), row.getTimestamp(6).toLocalDateTime());
+        }
+        return OrderEventStore.fold(state, events(orderId, state.sequenceNumber()));
+    }
+
+    // Folding alone, without the reads, for one order's whole log
+    @Benchmark
+    public OrderEventStore.State foldLoadedEvents() {
+        return OrderEventStore.fold(null, loadedEvents);
+    }
+
+    // Auto-commit on, so each call pays its own commit like a single-order transaction would
+    @Benchmark
+    public int appendEvent() throws SQLException {
+        long id = nextEventId++;
+        insertEvent.setLong(1, id);
+        insertEvent.setLong(2, ORDERS + id);
+        insertEvent.setLong(3, 0);
+        insertEvent.setString(4, OrderEvent.Type.STATUS_CHANGED.name());
+        insertEvent.setString(5, Order.OrderStatus.SHIPPED.name());
+        insertEvent.setLong(6, 1);
+        insertEvent.setBigDecimal(7, new BigDecimal("149.98"));
+        insertEvent.setTimestamp(8, Timestamp.valueOf(LocalDateTime.now()));
+        return insertEvent.executeUpdate();
+    }
+
+    @Benchmark
+    public int updateRow() throws SQLException {
+        updateOrder.setString(1, Order.OrderStatus.SHIPPED.name());
+        updateOrder.setLong(2, nextOrder());
+        return updateOrder.executeUpdate();
+    }
+
+    private long nextOrder() {
+        nextOrder = (nextOrder + 1) % ORDERS;
+        return nextOrder;
+    }
+
+    private List<OrderEvent> events(long orderId, long after) throws SQLException {
+        selectEventsAfter.setLong(1, orderId);
+        selectEventsAfter.setLong(2, after);
+        List<OrderEvent> events = new ArrayList<>();
+        try (ResultSet rows = selectEventsAfter.executeQuery()) {
+            while (rows.next()) {
+                events.add(new OrderEvent(rows.getLong(1), rows.getLong(2), OrderEvent.Type.valueOf(rows.getString(3)),
+                    Order.OrderStatus.valueOf(rows.getString(4)), rows.getLong(5), rows.getBigDecimal(6),
+                    rows.getTimestamp(7).toLocalDateTime()));
+            }
+        }
+        return events;
+    }
+
+    @Test
+    void runBenchmarks() throws Exception {
+        Options options = new OptionsBuilder()
+            .include(OrderEventStoreBenchmark.class.getName() + "\\.")
+            .forks(Integer.getInteger("benchmark.forks", 1))
+            .warmupIterations(3)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(5)
+            .measurementTime(TimeValue.seconds(1))
+            .build();
+        new Runner(options).run();
+    }
+}
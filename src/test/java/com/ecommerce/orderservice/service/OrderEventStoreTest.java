@@ -0,0 +1,178 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderEvent;
+import com.ecommerce.orderservice.model.OrderEventSnapshot;
+import com.ecommerce.orderservice.model.SnowflakeIds;
+import com.ecommerce.orderservice.repository.OrderEventRepository;
+import com.ecommerce.orderservice.repository.OrderEventSnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderEventStoreTest {
+
+    private static final LocalDateTime ORDER_DATE = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    @Mock
+    private OrderEventRepository eventRepository;
+
+    @Mock
+    private OrderEventSnapshotRepository snapshotRepository;
+
+    private OrderEventStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new OrderEventStore(eventRepository, snapshotRepository,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), new ShardRouting(1, 16), 1000, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void recordStatusChange_ToCancelled_ShouldAppendCancelledEventAtNewVersion() {
+        // When
+        store.recordStatusChange(1L, 123L, Order.OrderStatus.CANCELLED, new BigDecimal("149.98"), 3L);
+
+        // Then
+        ArgumentCaptor<OrderEvent> captor = ArgumentCaptor.forClass(OrderEvent.class);
+        verify(eventRepository).flush();
+        verify(eventRepository).save(captor.capture());
+        assertThat(captor.getValue().getType()).isEqualTo(OrderEvent.Type.CANCELLED);
+        assertThat(captor.getValue().getSequenceNumber()).isEqualTo(3L);
+        assertThat(captor.getValue().getStatus()).isEqualTo(Order.OrderStatus.CANCELLED);
+    }
+
+    @Test
+    void replay_WithoutSnapshot_ShouldFoldWholeLog() {
+        // Given
+        when(snapshotRepository.findById(1L)).thenReturn(Optional.empty());
+        when(eventRepository.findByOrderIdAndSequenceNumberGreaterThanOrderBySequenceNumber(1L, -1L)).thenReturn(List.of(
+            event(1L, 0, OrderEvent.Type.CREATED, Order.OrderStatus.PENDING),
+            event(1L, 1, OrderEvent.Type.STATUS_CHANGED, Order.OrderStatus.CONFIRMED),
+            event(1L, 2, OrderEvent.Type.STATUS_CHANGED, Order.OrderStatus.SHIPPED)));
+
+        // When
+        OrderEventStore.State state = store.replay(1L).orElseThrow();
+
+        // Then
+        assertThat(state.status()).isEqualTo(Order.OrderStatus.SHIPPED);
+        assertThat(state.sequenceNumber()).isEqualTo(2L);
+        assertThat(state.userId()).isEqualTo(123L);
+        assertThat(state.createdAt()).isEqualTo(ORDER_DATE);
+    }
+
+    @Test
+    void replay_WithSnapshot_ShouldOnlyReadEventsAfterIt() {
+        // Given
+        OrderEventSnapshot snapshot = new OrderEventSnapshot(1L);
+        snapshot.update(2L, Order.OrderStatus.SHIPPED, 123L, new BigDecimal("149.98"), ORDER_DATE, ORDER_DATE.plusDays(1));
+        when(snapshotRepository.findById(1L)).thenReturn(Optional.of(snapshot));
+        when(eventRepository.findByOrderIdAndSequenceNumberGreaterThanOrderBySequenceNumber(1L, 2L)).thenReturn(List.of(
+            event(1L, 3, OrderEvent.Type.STATUS_CHANGED, Order.OrderStatus.DELIVERED)));
+
+        // When
+        OrderEventStore.State state = store.replay(1L).orElseThrow();
+
+        // Then
+        assertThat(state.status()).isEqualTo(Order.OrderStatus.DELIVERED);
+        assertThat(state.sequenceNumber()).isEqualTo(3L);
+        assertThat(state.createdAt()).isEqualTo(ORDER_DATE);
+    }
+
+    @Test
+    void replay_WithoutEvents_ShouldBeEmpty() {
+        // Given
+        when(snapshotRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThat(store.replay(1L)).isEmpty();
+    }
+
+    @Test
+    void snapshot_ShouldFoldNewEventsIntoExistingAndNewSnapshots() {
+        // Given
+        OrderEventSnapshot existing = new OrderEventSnapshot(1L);
+        existing.update(0L, Order.OrderStatus.PENDING, 123L, new BigDecimal("149.98"), ORDER_DATE, ORDER_DATE);
+        when(eventRepository.findUnsnapshottedAfter(eq(-1L), any())).thenReturn(List.of(
+            event(10L, 2L, 0, OrderEvent.Type.CREATED, Order.OrderStatus.PENDING),
+            event(11L, 1L, 1, OrderEvent.Type.CANCELLED, Order.OrderStatus.CANCELLED),
+            event(12L, 2L, 1, OrderEvent.Type.STATUS_CHANGED, Order.OrderStatus.CONFIRMED)));
+        when(snapshotRepository.findAllById(anyIterable())).thenReturn(List.of(existing));
+
+        // When
+        int folded = store.snapshot();
+
+        // Then
+        assertThat(folded).isEqualTo(3);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<OrderEventSnapshot>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(snapshotRepository).saveAll(captor.capture());
+        List<OrderEventSnapshot> saved = new ArrayList<>();
+        captor.getValue().forEach(saved::add);
+        assertThat(saved).hasSize(2);
+        assertThat(existing.getStatus()).isEqualTo(Order.OrderStatus.CANCELLED);
+        assertThat(existing.getSequenceNumber()).isEqualTo(1L);
+        OrderEventSnapshot created = saved.stream().filter(s -> s.getOrderId().equals(2L)).findFirst().orElseThrow();
+        assertThat(created.getStatus()).isEqualTo(Order.OrderStatus.CONFIRMED);
+        assertThat(created.getCreatedAt()).isEqualTo(ORDER_DATE);
+    }
+
+    @Test
+    void snapshot_ShouldRescanOnlyTheReorderWindowBelowTheLastFoldedId() {
+        // Given: the first pass folds an event issued at a known time
+        long issuedAt = ORDER_DATE.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long lastId = SnowflakeIds.lowestIdAt(issuedAt) + 5;
+        when(eventRepository.findUnsnapshottedAfter(eq(-1L), any())).thenReturn(List.of(
+            event(lastId, 1L, 0, OrderEvent.Type.CREATED, Order.OrderStatus.PENDING)));
+        store.snapshot();
+
+        // When
+        store.snapshot();
+
+        // Then
+        verify(eventRepository).findUnsnapshottedAfter(eq(SnowflakeIds.lowestIdAt(issuedAt - 60_000) - 1), any());
+    }
+
+    @Test
+    void snapshot_AfterRestart_ShouldStartFromTheLastSnapshotTime() {
+        // Given
+        LocalDateTime lastTakenAt = ORDER_DATE.plusDays(1);
+        when(snapshotRepository.findLastTakenAt()).thenReturn(lastTakenAt);
+        long takenAtMillis = lastTakenAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        // When
+        store.snapshot();
+
+        // Then
+        verify(eventRepository).findUnsnapshottedAfter(eq(SnowflakeIds.lowestIdAt(takenAtMillis - 60_000) - 1), any());
+    }
+
+    private static OrderEvent event(long id, Long orderId, long sequenceNumber, OrderEvent.Type type, Order.OrderStatus status) {
+        OrderEvent event = event(orderId, sequenceNumber, type, status);
+        ReflectionTestUtils.setField(event, "id", id);
+        return event;
+    }
+
+    private static OrderEvent event(Long orderId, long sequenceNumber, OrderEvent.Type type, Order.OrderStatus status) {
+        return new OrderEvent(orderId, sequenceNumber, type, status, 123L, new BigDecimal("149.98"), ORDER_DATE);
+    }
+}
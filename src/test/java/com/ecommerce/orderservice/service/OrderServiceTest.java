@@ -1,8 +1,15 @@
 package com.ecommerce.orderservice.service;
 
+import com.ecommerce.orderservice.audit.AuditJournal;
 import com.ecommerce.orderservice.dto.OrderRequest;
+import com.ecommerce.orderservice.dto.OrderSnapshot;
+import com.ecommerce.orderservice.dto.OrderSummary;
+import com.ecommerce.orderservice.dto.OrderSummaryPage;
+import com.ecommerce.orderservice.model.ArchivedOrder;
 import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderEvent;
 import com.ecommerce.orderservice.model.OrderItem;
+import com.ecommerce.orderservice.repository.ArchivedOrderRepository;
 import com.ecommerce.orderservice.repository.OrderRepository;
 import com.ecommerce.orderservice.telemetry.TelemetryClient;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,11 +18,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,6 +44,8 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class OrderServiceTest {
 
+    private static final LocalDateTime ORDER_DATE = LocalDateTime.of(2024, 1, 15, 10, 30);
+
     @Mock
     private OrderRepository orderRepository;
 
@@ -40,6 +61,39 @@ public class OrderServiceTest {
     @Mock
     private TelemetryClient telemetryClient;
 
+    @Mock
+    private OrderCache orderCache;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Mock
+    private UserOrderSummaryService userOrderSummaryService;
+
+    @Mock
+    private RevenueRollupService revenueRollupService;
+
+    @Mock
+    private OrderStatusCounters orderStatusCounters;
+
+    @Mock
+    private ProductSalesIndex productSalesIndex;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Mock
+    private OrderArchiver orderArchiver;
+
+    @Mock
+    private OrderEventStore orderEventStore;
+
+    @Mock
+    private AuditJournal auditJournal;
+
+    @Mock
+    private AuditReconciler auditReconciler;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -83,6 +137,11 @@ public class OrderServiceTest {
         itemRequest2.setQuantity(1);
 
         testOrderRequest.setItems(Arrays.asList(itemRequest1, itemRequest2));
+
+        ReflectionTestUtils.setField(orderService, "transactionTemplate",
+            new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(orderService, "readRouting", new ReadRouting(Duration.ofSeconds(5), 1000));
+        ReflectionTestUtils.setField(orderService, "shardRouting", new ShardRouting(1, 16));
     }
 
     @Test
@@ -109,6 +168,27 @@ public class OrderServiceTest {
         verify(notificationServiceClient).sendOrderConfirmation(1L, 123L);
     }
 
+    @Test
+    void createOrder_ShouldRecordOrderInReadModels() {
+        // Given
+        when(userServiceClient.validateUser(123L)).thenReturn(true);
+        when(productServiceClient.getProduct(1L)).thenReturn(testProduct1);
+        when(productServiceClient.getProduct(2L)).thenReturn(testProduct2);
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+
+        // When
+        orderService.createOrder(testOrderRequest);
+
+        // Then
+        verify(userOrderSummaryService).ensureSummary(123L);
+        verify(userOrderSummaryService).recordCreated(testOrder);
+        verify(orderStatusCounters).created(Order.OrderStatus.PENDING);
+        verify(revenueRollupService).recordCreated(testOrder);
+        verify(productSalesIndex).record(testOrder.getOrderItems(), testOrder.getOrderDate(), 1);
+        verify(orderEventStore).recordCreated(testOrder);
+        verify(auditJournal).append(OrderEvent.Type.CREATED, 1L, 123L, Order.OrderStatus.PENDING);
+    }
+
     @Test
     void createOrder_WithInvalidUser_ShouldThrowException() {
         // Given
@@ -187,6 +267,244 @@ public class OrderServiceTest {
         }));
     }
 
+    @Test
+    void createOrder_WithIdempotencyKey_ShouldCreateThroughStore() {
+        // Given
+        when(idempotencyStore.execute(eq("retry-123"), eq(OrderService.fingerprint(testOrderRequest)), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<Long>>getArgument(2).get());
+        when(userServiceClient.validateUser(123L)).thenReturn(true);
+        when(productServiceClient.getProduct(1L)).thenReturn(testProduct1);
+        when(productServiceClient.getProduct(2L)).thenReturn(testProduct2);
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+
+        // When
+        Order result = orderService.createOrder(testOrderRequest, "retry-123");
+
+        // Then
+        assertThat(result).isSameAs(testOrder);
+        verify(orderRepository, never()).findById(anyLong());
+        verify(orderRepository).save(argThat(order -> "retry-123".equals(order.getIdempotencyKey())));
+    }
+
+    @Test
+    void createOrder_WithIdempotencyKeyOfCommittedOrder_ShouldReturnItWithoutCreating() {
+        // Given: an earlier attempt committed its order, then died before the store recorded it
+        when(idempotencyStore.execute(eq("retry-123"), anyString(), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<Long>>getArgument(2).get());
+        when(orderRepository.findIdByIdempotencyKey("retry-123")).thenReturn(Optional.of(1L));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // When
+        Order result = orderService.createOrder(testOrderRequest, "retry-123");
+
+        // Then
+        assertThat(result).isSameAs(testOrder);
+        verify(userServiceClient, never()).validateUser(anyLong());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void fingerprint_ShouldDifferWhenItemsDiffer() {
+        // Given
+        String original = OrderService.fingerprint(testOrderRequest);
+        testOrderRequest.getItems().get(0).setQuantity(2);
+
+        // When & Then
+        assertThat(OrderService.fingerprint(testOrderRequest)).isNotEqualTo(original).hasSize(64);
+    }
+
+    @Test
+    void createOrder_WithReplayedIdempotencyKey_ShouldReturnOriginalOrderWithoutCreating() {
+        // Given
+        when(idempotencyStore.execute(eq("retry-123"), anyString(), any())).thenReturn(1L);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // When
+        Order result = orderService.createOrder(testOrderRequest, "retry-123");
+
+        // Then
+        assertThat(result).isSameAs(testOrder);
+        verify(userServiceClient, never()).validateUser(anyLong());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void createOrderReactive_WithValidRequest_ShouldSaveOnPersistenceSchedulerAndNotify() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "persistenceScheduler", Schedulers.immediate());
+        when(userServiceClient.validateUserReactive(123L)).thenReturn(Mono.just(true));
+        when(productServiceClient.getProductReactive(1L)).thenReturn(Mono.just(testProduct1));
+        when(productServiceClient.getProductReactive(2L)).thenReturn(Mono.just(testProduct2));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(1L);
+            return order;
+        });
+        when(notificationServiceClient.sendOrderConfirmationReactive(1L, 123L)).thenReturn(Mono.empty());
+
+        // When
+        Order result = orderService.createOrderReactive(testOrderRequest).block();
+
+        // Then
+        assertThat(result).isNotNull();
+        assertThat(result.getId()).isEqualTo(1L);
+        assertThat(result.getTotalAmount()).isEqualByComparingTo(new BigDecimal("149.98"));
+        assertThat(result.getOrderItems()).extracting(OrderItem::getProductId).containsExactly(1L, 2L);
+        assertThat(result.getOrderItems()).allMatch(item -> item.getOrder() == result);
+        verify(notificationServiceClient).sendOrderConfirmationReactive(1L, 123L);
+        verify(userServiceClient, never()).validateUser(anyLong());
+        verify(productServiceClient, never()).getProduct(anyLong());
+    }
+
+    @Test
+    void createOrderReactive_WithInvalidUser_ShouldFailWithoutLookupsOrSave() {
+        // Given
+        when(userServiceClient.validateUserReactive(123L)).thenReturn(Mono.just(false));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> orderService.createOrderReactive(testOrderRequest).block());
+
+        assertThat(exception.getMessage()).isEqualTo("User not found");
+        verify(productServiceClient, never()).getProductReactive(anyLong());
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(notificationServiceClient, never()).sendOrderConfirmationReactive(anyLong(), anyLong());
+    }
+
+    @Test
+    void submitOrder_WithValidRequest_ShouldPersistShellThenConfirmInBackground() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "submissionScheduler", Schedulers.immediate());
+        Order stored = new Order(123L, BigDecimal.ZERO, "123 Test St, Test City, TC 12345");
+        stored.setId(1L);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(1L);
+            return order;
+        });
+        when(userServiceClient.validateUser(123L)).thenReturn(true);
+        when(productServiceClient.getProductReactive(1L)).thenReturn(Mono.just(testProduct1));
+        when(productServiceClient.getProductReactive(2L)).thenReturn(Mono.just(testProduct2));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        // When
+        Order shell = orderService.submitOrder(testOrderRequest);
+
+        // Then
+        assertThat(shell.getId()).isEqualTo(1L);
+        assertThat(shell.getOrderItems()).isEmpty();
+        assertThat(shell.isSubmission()).isTrue();
+        assertThat(stored.getStatus()).isEqualTo(Order.OrderStatus.CONFIRMED);
+        assertThat(stored.getTotalAmount()).isEqualByComparingTo(new BigDecimal("149.98"));
+        assertThat(stored.getOrderItems()).extracting(OrderItem::getProductId).containsExactly(1L, 2L);
+        verify(orderRepository).save(stored);
+        verify(orderCache).invalidate(1L);
+        verify(notificationServiceClient).sendOrderConfirmation(1L, 123L);
+    }
+
+    @Test
+    void submitOrder_WithInvalidUser_ShouldRejectOrderInBackground() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "submissionScheduler", Schedulers.immediate());
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(1L);
+            return order;
+        });
+        when(userServiceClient.validateUser(123L)).thenReturn(false);
+        when(orderRepository.findVersionViewById(1L)).thenReturn(Optional.of(versionView(123L, 0L)));
+        when(orderRepository.updateStatus(1L, Order.OrderStatus.REJECTED, 0L)).thenReturn(1);
+
+        // When
+        Order shell = orderService.submitOrder(testOrderRequest);
+
+        // Then
+        assertThat(shell.getStatus()).isEqualTo(Order.OrderStatus.PENDING);
+        verify(productServiceClient, never()).getProductReactive(anyLong());
+        verify(orderRepository).updateStatus(1L, Order.OrderStatus.REJECTED, 0L);
+        verify(notificationServiceClient).sendOrderStatusUpdate(1L, 123L, "REJECTED");
+        verify(notificationServiceClient, never()).sendOrderConfirmation(anyLong(), anyLong());
+    }
+
+    @Test
+    void submitOrder_WhenNotificationFailsAfterConfirming_ShouldKeepOrderConfirmed() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "submissionScheduler", Schedulers.immediate());
+        Order stored = new Order(123L, BigDecimal.ZERO, "123 Test St, Test City, TC 12345");
+        stored.setId(1L);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(1L);
+            return order;
+        });
+        when(userServiceClient.validateUser(123L)).thenReturn(true);
+        when(productServiceClient.getProductReactive(1L)).thenReturn(Mono.just(testProduct1));
+        when(productServiceClient.getProductReactive(2L)).thenReturn(Mono.just(testProduct2));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(stored));
+        doThrow(new RuntimeException("Notification service unavailable"))
+            .when(notificationServiceClient).sendOrderConfirmation(1L, 123L);
+
+        // When
+        orderService.submitOrder(testOrderRequest);
+
+        // Then
+        assertThat(stored.getStatus()).isEqualTo(Order.OrderStatus.CONFIRMED);
+        verify(orderRepository, never()).updateStatus(anyLong(), eq(Order.OrderStatus.REJECTED), anyLong());
+        verify(notificationServiceClient, never()).sendOrderStatusUpdate(anyLong(), anyLong(), anyString());
+    }
+
+    @Test
+    void rejectAbandonedSubmissions_ShouldRejectOnlyShellsStillPending() {
+        // Given: shell 1 is still PENDING, shell 2 was confirmed after the lookup
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(15);
+        when(orderRepository.findSubmissionIdsByStatus(eq(Order.OrderStatus.PENDING), eq(cutoff), any()))
+            .thenReturn(List.of(1L, 2L));
+        when(orderRepository.findVersionViewById(1L)).thenReturn(Optional.of(versionView(123L, 0L)));
+        when(orderRepository.findVersionViewById(2L))
+            .thenReturn(Optional.of(versionView(123L, 1L, Order.OrderStatus.CONFIRMED)));
+        when(orderRepository.updateStatus(1L, Order.OrderStatus.REJECTED, 0L)).thenReturn(1);
+
+        // When
+        int rejected = orderService.rejectAbandonedSubmissions(cutoff, 500);
+
+        // Then
+        assertThat(rejected).isEqualTo(1);
+        verify(orderRepository).updateStatus(1L, Order.OrderStatus.REJECTED, 0L);
+        verify(orderRepository, never()).updateStatus(eq(2L), any(), anyLong());
+        verify(notificationServiceClient).sendOrderStatusUpdate(1L, 123L, "REJECTED");
+        verify(orderStatusCounters).changed(Order.OrderStatus.PENDING, Order.OrderStatus.REJECTED);
+    }
+
+    @Test
+    void submitOrder_WithFullQueue_ShouldRejectShellAndRethrow() {
+        // Given
+        Scheduler fullScheduler = mock(Scheduler.class);
+        when(fullScheduler.schedule(any(Runnable.class))).thenThrow(new RejectedExecutionException("queue full"));
+        ReflectionTestUtils.setField(orderService, "submissionScheduler", fullScheduler);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(1L);
+            return order;
+        });
+        when(orderRepository.findVersionViewById(1L)).thenReturn(Optional.of(versionView(123L, 0L)));
+        when(orderRepository.updateStatus(1L, Order.OrderStatus.REJECTED, 0L)).thenReturn(1);
+
+        // When & Then
+        assertThrows(RejectedExecutionException.class, () -> orderService.submitOrder(testOrderRequest));
+        verify(orderRepository).updateStatus(1L, Order.OrderStatus.REJECTED, 0L);
+        verify(userServiceClient, never()).validateUser(anyLong());
+    }
+
+    @Test
+    void submitOrder_WithoutItems_ShouldFailBeforeSaving() {
+        // Given
+        testOrderRequest.setItems(List.of());
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> orderService.submitOrder(testOrderRequest));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
     @Test
     void getOrderById_WithExistingOrder_ShouldReturnOrder() {
         // Given
@@ -215,6 +533,155 @@ public class OrderServiceTest {
         verify(orderRepository).findById(999L);
     }
 
+    @Test
+    void getOrderById_ShouldReadFromReplica() {
+        // Given
+        when(orderRepository.findById(1L)).thenAnswer(invocation -> {
+            assertThat(ReadRouting.currentTarget()).isEqualTo(ReadRouting.Target.REPLICA);
+            return Optional.of(testOrder);
+        });
+
+        // When
+        orderService.getOrderById(1L);
+
+        // Then
+        assertThat(ReadRouting.currentTarget()).isEqualTo(ReadRouting.Target.PRIMARY);
+    }
+
+    @Test
+    void getOrderById_AfterStatusChange_ShouldReadFromPrimary() {
+        // Given
+        when(orderRepository.findVersionViewById(1L)).thenReturn(Optional.of(versionView(123L, 0L)));
+        when(orderRepository.updateStatus(1L, Order.OrderStatus.SHIPPED, 0L)).thenReturn(1);
+        when(orderRepository.findById(1L)).thenAnswer(invocation -> {
+            assertThat(ReadRouting.currentTarget()).isEqualTo(ReadRouting.Target.PRIMARY);
+            return Optional.of(testOrder);
+        });
+        when(orderRepository.findByUserId(123L)).thenAnswer(invocation -> {
+            assertThat(ReadRouting.currentTarget()).isEqualTo(ReadRouting.Target.PRIMARY);
+            return List.of(testOrder);
+        });
+
+        // When & Then
+        orderService.updateOrderStatus(1L, Order.OrderStatus.SHIPPED);
+        orderService.getOrderById(1L);
+        orderService.getOrdersByUserId(123L);
+    }
+
+    @Test
+    void getOrderSnapshot_ShouldLoadThroughCache() {
+        // Given
+        when(orderCache.get(eq(1L), any())).thenAnswer(invocation -> {
+            Function<Long, OrderSnapshot> loader = invocation.getArgument(1);
+            return loader.apply(1L);
+        });
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // When
+        OrderSnapshot result = orderService.getOrderSnapshot(1L, 0L);
+
+        // Then
+        assertThat(result.id()).isEqualTo(1L);
+        assertThat(result.userId()).isEqualTo(123L);
+        assertThat(result.status()).isEqualTo(Order.OrderStatus.PENDING);
+        assertThat(result.orderItems()).isEmpty();
+        verify(orderCache).get(eq(1L), any());
+    }
+
+    @Test
+    void getOrderSnapshot_WhenCachedSnapshotIsOlderThanVersion_ShouldReloadFromPrimary() {
+        // Given: the cache holds version 2, the order is at version 3
+        testOrder.setVersion(2L);
+        OrderSnapshot stale = OrderSnapshot.from(testOrder);
+        testOrder.setVersion(3L);
+        when(orderCache.get(eq(1L), any()))
+            .thenReturn(stale)
+            .thenAnswer(invocation -> {
+                Function<Long, OrderSnapshot> loader = invocation.getArgument(1);
+                return loader.apply(1L);
+            });
+        when(orderRepository.findById(1L)).thenAnswer(invocation -> {
+            // Cached loads must not go through the replica route
+            assertThat(ReadRouting.currentTarget()).isEqualTo(ReadRouting.Target.PRIMARY);
+            return Optional.of(testOrder);
+        });
+
+        // When
+        OrderSnapshot result = orderService.getOrderSnapshot(1L, 3L);
+
+        // Then
+        assertThat(result.version()).isEqualTo(3L);
+        verify(orderCache).invalidate(1L);
+    }
+
+    @Test
+    void getOrdersByProductId_ShouldDropRepeatsAndReturnCursorWhenMoreRowsExist() {
+        // Given: order 9 has the product on two items
+        when(orderRepository.findSummariesByProductId(eq(1L), isNull(), isNull(), isNull(), eq(20L), any()))
+            .thenReturn(List.of(summary(9L), summary(9L), summary(7L), summary(4L)));
+
+        // When
+        OrderSummaryPage page = orderService.getOrdersByProductId(1L, null, null, null, 20L, 3);
+
+        // Then
+        assertThat(page.orders()).extracting(OrderSummary::id).containsExactly(9L, 7L);
+        assertThat(page.nextCursor()).isEqualTo(7L);
+    }
+
+    @Test
+    void getOrdersByProductId_ShouldMergeArchivedOrdersByDescendingId() {
+        // Given: delivered orders 5 and 3 have moved to the archive
+        when(orderRepository.findSummariesByProductId(eq(1L), isNull(), isNull(), isNull(), isNull(), any()))
+            .thenReturn(List.of(summary(8L), summary(4L)));
+        when(archivedOrderRepository.findSummariesByProductId(eq(1L), isNull(), isNull(), isNull(), isNull(), any()))
+            .thenReturn(List.of(summary(5L), summary(3L)));
+
+        // When
+        OrderSummaryPage page = orderService.getOrdersByProductId(1L, null, null, null, null, 3);
+
+        // Then
+        assertThat(page.orders()).extracting(OrderSummary::id).containsExactly(8L, 5L, 4L);
+        assertThat(page.nextCursor()).isEqualTo(4L);
+    }
+
+    @Test
+    void getOrdersByProductId_OnLastPage_ShouldReturnNoCursor() {
+        // Given
+        when(orderRepository.findSummariesByProductId(eq(1L), eq(Order.OrderStatus.SHIPPED), isNull(), isNull(), isNull(), any()))
+            .thenReturn(List.of(summary(4L)));
+
+        // When
+        OrderSummaryPage page = orderService.getOrdersByProductId(1L, Order.OrderStatus.SHIPPED, null, null, null, 3);
+
+        // Then
+        assertThat(page.orders()).extracting(OrderSummary::id).containsExactly(4L);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void getOrderVersion_ShouldUseVersionProjection() {
+        // Given
+        when(orderRepository.findVersionViewById(1L)).thenReturn(Optional.of(versionView(123L, 7L)));
+
+        // When
+        long version = orderService.getOrderVersion(1L);
+
+        // Then
+        assertThat(version).isEqualTo(7L);
+        verify(orderRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getOrderVersion_WithNonExistentOrder_ShouldThrowException() {
+        // Given
+        when(orderRepository.findVersionViewById(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> orderService.getOrderVersion(999L));
+        assertThat(exception.getMessage()).isEqualTo("Order not found");
+    }
+
     @Test
     void getOrdersByUserId_ShouldReturnUserOrders() {
         // Given
@@ -234,6 +701,84 @@ public class OrderServiceTest {
         verify(orderRepository).findByUserId(123L);
     }
 
+    @Test
+    void getOrderById_WithArchivedOrder_ShouldFallBackToArchive() {
+        // Given
+        ArchivedOrder archived = mock(ArchivedOrder.class);
+        testOrder.setStatus(Order.OrderStatus.DELIVERED);
+        when(archived.toOrder()).thenReturn(testOrder);
+        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+        when(archivedOrderRepository.findById(1L)).thenReturn(Optional.of(archived));
+
+        // When
+        Order result = orderService.getOrderById(1L);
+
+        // Then
+        assertThat(result).isSameAs(testOrder);
+    }
+
+    @Test
+    void getOrderById_WithHotOrder_ShouldNotQueryArchive() {
+        // Given
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // When
+        orderService.getOrderById(1L);
+
+        // Then
+        verifyNoInteractions(archivedOrderRepository);
+    }
+
+    @Test
+    void getOrderVersion_WithArchivedOrder_ShouldUseArchivedVersion() {
+        // Given
+        when(orderRepository.findVersionViewById(1L)).thenReturn(Optional.empty());
+        when(archivedOrderRepository.findVersionViewById(1L)).thenReturn(Optional.of(versionView(123L, 4L)));
+
+        // When & Then
+        assertThat(orderService.getOrderVersion(1L)).isEqualTo(4L);
+    }
+
+    @Test
+    void getOrderSummariesByUserId_ShouldAppendArchivedOrdersOnce() {
+        // Given: order 2 was archived between the two reads, so both tables return it
+        when(orderRepository.findSummariesByUserId(123L)).thenReturn(List.of(summary(1L), summary(2L)));
+        when(archivedOrderRepository.findSummariesByUserId(123L)).thenReturn(List.of(summary(2L), summary(3L)));
+
+        // When
+        List<OrderSummary> result = orderService.getOrderSummariesByUserId(123L);
+
+        // Then
+        assertThat(result).extracting(OrderSummary::id).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void getOrderHistory_ShouldReturnEventsOfTheOrder() {
+        // Given
+        List<OrderEvent> events = List.of(
+            new OrderEvent(1L, 0L, OrderEvent.Type.CREATED, Order.OrderStatus.PENDING, 123L, new BigDecimal("149.98"), ORDER_DATE),
+            new OrderEvent(1L, 1L, OrderEvent.Type.CANCELLED, Order.OrderStatus.CANCELLED, 123L, new BigDecimal("149.98"), ORDER_DATE));
+        when(orderEventStore.history(1L)).thenReturn(events);
+
+        // When
+        List<OrderEvent> result = orderService.getOrderHistory(1L);
+
+        // Then
+        assertThat(result).isEqualTo(events);
+        verify(orderRepository, never()).findVersionViewById(anyLong());
+    }
+
+    @Test
+    void getOrderHistory_WithNonExistentOrder_ShouldThrowException() {
+        // Given
+        when(orderEventStore.history(999L)).thenReturn(List.of());
+        when(orderRepository.findVersionViewById(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> orderService.getOrderHistory(999L));
+        assertThat(exception.getMessage()).isEqualTo("Order not found");
+    }
+
     @Test
     void getAllOrders_ShouldReturnAllOrders() {
         // Given
@@ -252,11 +797,44 @@ public class OrderServiceTest {
         verify(orderRepository).findAll();
     }
 
+    @Test
+    void getAllOrders_ShouldIncludeArchivedOrdersOnce() {
+        // Given: order 1 was archived between the two reads
+        ArchivedOrder archived = mock(ArchivedOrder.class);
+        Order archivedOrder = new Order();
+        archivedOrder.setId(3L);
+        when(archived.toOrder()).thenReturn(archivedOrder);
+        ArchivedOrder alsoHot = mock(ArchivedOrder.class);
+        when(alsoHot.toOrder()).thenReturn(testOrder);
+        when(orderRepository.findAll()).thenReturn(List.of(testOrder));
+        when(archivedOrderRepository.findAll()).thenReturn(List.of(alsoHot, archived));
+
+        // When
+        List<Order> result = orderService.getAllOrders();
+
+        // Then
+        assertThat(result).extracting(Order::getId).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void getAllOrderSummaries_ShouldIncludeArchivedOrders() {
+        // Given
+        when(orderRepository.findAllSummaries()).thenReturn(List.of(summary(1L)));
+        when(archivedOrderRepository.findAllSummaries()).thenReturn(List.of(summary(2L)));
+
+        // When
+        List<OrderSummary> result = orderService.getAllOrderSummaries();
+
+        // Then
+        assertThat(result).extracting(OrderSummary::id).containsExactly(1L, 2L);
+    }
+
     @Test
     void updateOrderStatus_WithExistingOrder_ShouldUpdateAndNotify() {
         // Given
+        when(orderRepository.findVersionViewById(1L)).thenReturn(Optional.of(versionView(123L, 0L)));
+        when(orderRepository.updateStatus(1L, Order.OrderStatus.CONFIRMED, 0L)).thenReturn(1);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
         doNothing().when(notificationServiceClient).sendOrderStatusUpdate(anyLong(), anyLong(), anyString());
 
         // When
@@ -264,56 +842,150 @@ public class OrderServiceTest {
 
         // Then
         assertThat(result).isNotNull();
-        verify(orderRepository).findById(1L);
-        verify(orderRepository).save(argThat(order -> 
-            order.getStatus() == Order.OrderStatus.CONFIRMED));
+        verify(orderRepository).updateStatus(1L, Order.OrderStatus.CONFIRMED, 0L);
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderCache).invalidate(1L);
         verify(notificationServiceClient).sendOrderStatusUpdate(1L, 123L, "CONFIRMED");
     }
 
+    @Test
+    void updateOrderStatus_ShouldMoveOrderBetweenSummaryCounts() {
+        // Given
+        when(orderRepository.findVersionViewById(1L)).thenReturn(Optional.of(versionView(123L, 0L)));
+        when(orderRepository.updateStatus(1L, Order.OrderStatus.SHIPPED, 0L)).thenReturn(1);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // When
+        orderService.updateOrderStatus(1L, Order.OrderStatus.SHIPPED);
+
+        // Then
+        verify(userOrderSummaryService).recordChange(123L, Order.OrderStatus.PENDING, new BigDecimal("149.98"),
+            Order.OrderStatus.SHIPPED, new BigDecimal("149.98"));
+        verify(orderStatusCounters).changed(Order.OrderStatus.PENDING, Order.OrderStatus.SHIPPED);
+        verify(orderEventStore).recordStatusChange(1L, 123L, Order.OrderStatus.SHIPPED, new BigDecimal("149.98"), 1L);
+    }
+
     @Test
     void updateOrderStatus_WithNonExistentOrder_ShouldThrowException() {
         // Given
-        when(orderRepository.findById(999L)).thenReturn(Optional.empty());
+        when(orderRepository.findVersionViewById(999L)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, 
             () -> orderService.updateOrderStatus(999L, Order.OrderStatus.CONFIRMED));
         
         assertThat(exception.getMessage()).isEqualTo("Order not found");
-        verify(orderRepository).findById(999L);
-        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderRepository).findVersionViewById(999L);
+        verify(orderRepository, never()).updateStatus(anyLong(), any(), anyLong());
         verify(notificationServiceClient, never()).sendOrderStatusUpdate(anyLong(), anyLong(), anyString());
     }
 
+    @Test
+    void updateOrderStatus_WithConcurrentModification_ShouldThrowWithoutNotifying() {
+        // Given
+        when(orderRepository.findVersionViewById(1L)).thenReturn(Optional.of(versionView(123L, 3L)));
+        when(orderRepository.updateStatus(1L, Order.OrderStatus.SHIPPED, 3L)).thenReturn(0);
+
+        // When & Then
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+            () -> orderService.updateOrderStatus(1L, Order.OrderStatus.SHIPPED));
+        
+        verify(orderCache, never()).invalidate(anyLong());
+        verify(notificationServiceClient, never()).sendOrderStatusUpdate(anyLong(), anyLong(), anyString());
+        verify(userOrderSummaryService, never()).recordChange(anyLong(), any(), any(), any(), any());
+        verify(orderStatusCounters, never()).changed(any(), any());
+        verify(orderEventStore, never()).recordStatusChange(anyLong(), anyLong(), any(), any(), anyLong());
+        verify(auditJournal, never()).append(any(), anyLong(), any(), any());
+    }
+
     @Test
     void cancelOrder_WithExistingOrder_ShouldCancelAndNotify() {
         // Given
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+        when(orderRepository.findVersionViewById(1L)).thenReturn(Optional.of(versionView(123L, 2L)));
+        when(orderRepository.updateStatus(1L, Order.OrderStatus.CANCELLED, 2L)).thenReturn(1);
         doNothing().when(notificationServiceClient).sendOrderCancellation(anyLong(), anyLong());
 
         // When
         orderService.cancelOrder(1L);
 
         // Then
-        verify(orderRepository).findById(1L);
-        verify(orderRepository).save(argThat(order -> 
-            order.getStatus() == Order.OrderStatus.CANCELLED));
+        verify(orderRepository).updateStatus(1L, Order.OrderStatus.CANCELLED, 2L);
+        verify(orderRepository, never()).findById(anyLong());
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderCache).invalidate(1L);
+        verify(notificationServiceClient).sendOrderCancellation(1L, 123L);
+    }
+
+    @Test
+    void cancelOrder_ShouldJournalCancellation() {
+        // Given
+        when(orderRepository.findVersionViewById(1L)).thenReturn(Optional.of(versionView(123L, 2L)));
+        when(orderRepository.updateStatus(1L, Order.OrderStatus.CANCELLED, 2L)).thenReturn(1);
+
+        // When
+        orderService.cancelOrder(1L);
+
+        // Then
+        verify(auditJournal).append(OrderEvent.Type.CANCELLED, 1L, 123L, Order.OrderStatus.CANCELLED);
+    }
+
+    @Test
+    void cancelOrder_WhenJournalFails_ShouldStillNotify() {
+        // Given
+        when(orderRepository.findVersionViewById(1L)).thenReturn(Optional.of(versionView(123L, 2L)));
+        when(orderRepository.updateStatus(1L, Order.OrderStatus.CANCELLED, 2L)).thenReturn(1);
+        when(auditJournal.append(any(), anyLong(), any(), any())).thenThrow(new IllegalStateException("Audit journal is closed"));
+
+        // When
+        orderService.cancelOrder(1L);
+
+        // Then
         verify(notificationServiceClient).sendOrderCancellation(1L, 123L);
+        verify(auditReconciler).recordDropped();
+    }
+
+    @Test
+    void cancelOrder_ShouldMoveOrderToCancelledInItsRevenueBuckets() {
+        // Given
+        when(orderRepository.findVersionViewById(1L)).thenReturn(Optional.of(versionView(123L, 2L)));
+        when(orderRepository.updateStatus(1L, Order.OrderStatus.CANCELLED, 2L)).thenReturn(1);
+
+        // When
+        orderService.cancelOrder(1L);
+
+        // Then
+        verify(revenueRollupService).ensureBuckets(ORDER_DATE, Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED);
+        verify(revenueRollupService).recordChange(ORDER_DATE, Order.OrderStatus.PENDING, new BigDecimal("149.98"),
+            Order.OrderStatus.CANCELLED, new BigDecimal("149.98"));
+    }
+
+    @Test
+    void cancelOrder_ShouldSubtractItemsFromProductSales() {
+        // Given
+        List<OrderItem> items = List.of(new OrderItem(1L, "Gaming Mouse", 1, new BigDecimal("49.99")));
+        when(orderRepository.findVersionViewById(1L)).thenReturn(Optional.of(versionView(123L, 2L)));
+        when(orderRepository.updateStatus(1L, Order.OrderStatus.CANCELLED, 2L)).thenReturn(1);
+        when(orderRepository.findItemsByOrderId(1L)).thenReturn(items);
+
+        // When
+        orderService.cancelOrder(1L);
+
+        // Then
+        verify(productSalesIndex).record(items, ORDER_DATE, -1);
     }
 
     @Test
     void cancelOrder_WithNonExistentOrder_ShouldThrowException() {
         // Given
-        when(orderRepository.findById(999L)).thenReturn(Optional.empty());
+        when(orderRepository.findVersionViewById(999L)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, 
             () -> orderService.cancelOrder(999L));
         
         assertThat(exception.getMessage()).isEqualTo("Order not found");
-        verify(orderRepository).findById(999L);
-        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderRepository).findVersionViewById(999L);
+        verify(orderRepository, never()).updateStatus(anyLong(), any(), anyLong());
         verify(notificationServiceClient, never()).sendOrderCancellation(anyLong(), anyLong());
     }
 
@@ -367,4 +1039,23 @@ public class OrderServiceTest {
                    .allMatch(item -> item.getOrder() == order);
         }));
     }
+
+    private static OrderSummary summary(Long id) {
+        return new OrderSummary(id, 123L, new BigDecimal("49.99"), Order.OrderStatus.SHIPPED, ORDER_DATE,
+            "123 Test St, Test City, TC 12345", 0L);
+    }
+
+    private static OrderRepository.OrderVersionView versionView(Long userId, Long version) {
+        return versionView(userId, version, Order.OrderStatus.PENDING);
+    }
+
+    private static OrderRepository.OrderVersionView versionView(Long userId, Long version, Order.OrderStatus status) {
+        return new OrderRepository.OrderVersionView() {
+            public Long getUserId() { return userId; }
+            public Long getVersion() { return version; }
+            public Order.OrderStatus getStatus() { return status; }
+            public BigDecimal getTotalAmount() { return new BigDecimal("149.98"); }
+            public LocalDateTime getOrderDate() { return ORDER_DATE; }
+        };
+    }
 }
\ No newline at end of file
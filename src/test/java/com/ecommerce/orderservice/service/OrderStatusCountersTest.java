@@ -0,0 +1,106 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.repository.ArchivedOrderRepository;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderStatusCountersTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderStatusCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        counters = new OrderStatusCounters(orderRepository, archivedOrderRepository, new ShardRouting(1, 16), meterRegistry);
+    }
+
+    @Test
+    void createdAndChanged_ShouldTrackTransitionsWithoutQueries() {
+        // When
+        counters.created(Order.OrderStatus.PENDING);
+        counters.created(Order.OrderStatus.PENDING);
+        counters.changed(Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED);
+
+        // Then
+        assertThat(counters.snapshot())
+            .containsEntry(Order.OrderStatus.PENDING, 1L)
+            .containsEntry(Order.OrderStatus.CANCELLED, 1L)
+            .containsEntry(Order.OrderStatus.SHIPPED, 0L)
+            .hasSize(Order.OrderStatus.values().length);
+        assertThat(meterRegistry.get("orders.status.count").tag("status", "CANCELLED").gauge().value()).isEqualTo(1.0);
+        verifyNoInteractions(orderRepository, archivedOrderRepository);
+    }
+
+    @Test
+    void changed_ToSameStatus_ShouldLeaveCountsAlone() {
+        // Given
+        counters.created(Order.OrderStatus.SHIPPED);
+
+        // When
+        counters.changed(Order.OrderStatus.SHIPPED, Order.OrderStatus.SHIPPED);
+
+        // Then
+        assertThat(counters.snapshot()).containsEntry(Order.OrderStatus.SHIPPED, 1L);
+    }
+
+    @Test
+    void reconcile_ShouldResetCountsFromDatabase() {
+        // Given
+        counters.created(Order.OrderStatus.PENDING);
+        counters.created(Order.OrderStatus.CONFIRMED);
+        when(orderRepository.countGroupedByStatus()).thenReturn(List.of(
+            statusCount(Order.OrderStatus.PENDING, 5L),
+            statusCount(Order.OrderStatus.DELIVERED, 2L)));
+
+        // When
+        counters.reconcile();
+
+        // Then
+        assertThat(counters.snapshot())
+            .containsEntry(Order.OrderStatus.PENDING, 5L)
+            .containsEntry(Order.OrderStatus.DELIVERED, 2L)
+            .containsEntry(Order.OrderStatus.CONFIRMED, 0L);
+    }
+
+    @Test
+    void countInDatabase_ShouldAddArchivedOrders() {
+        // Given
+        when(orderRepository.countGroupedByStatus()).thenReturn(List.of(
+            statusCount(Order.OrderStatus.DELIVERED, 2L)));
+        when(archivedOrderRepository.countGroupedByStatus()).thenReturn(List.of(
+            statusCount(Order.OrderStatus.DELIVERED, 40L),
+            statusCount(Order.OrderStatus.CANCELLED, 3L)));
+
+        // When & Then
+        assertThat(counters.countInDatabase())
+            .containsEntry(Order.OrderStatus.DELIVERED, 42L)
+            .containsEntry(Order.OrderStatus.CANCELLED, 3L)
+            .containsEntry(Order.OrderStatus.PENDING, 0L);
+    }
+
+    private static OrderRepository.StatusCountView statusCount(Order.OrderStatus status, Long count) {
+        return new OrderRepository.StatusCountView() {
+            public Order.OrderStatus getStatus() { return status; }
+            public Long getOrderCount() { return count; }
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.ProductSales;
+import com.ecommerce.orderservice.model.OrderItem;
+import com.ecommerce.orderservice.model.ProductSalesBucket;
+import com.ecommerce.orderservice.repository.ArchivedOrderRepository;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import com.ecommerce.orderservice.repository.ProductSalesBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductSalesIndexTest {
+
+    @Mock
+    private ProductSalesBucketRepository repository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    private ProductSalesIndex index;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSalesIndex(repository, orderRepository, archivedOrderRepository,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), new ShardRouting(1, 16), Duration.ofDays(30));
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    void topProducts_ShouldRankByUnitsAcrossBucketsInWindow() {
+        // Given
+        index.record(List.of(item(1L, "Mouse", 2, "20.00"), item(2L, "Keyboard", 1, "80.00")), now, 1);
+        index.record(List.of(item(2L, "Keyboard", 3, "80.00")), now.minusHours(5), 1);
+        index.record(List.of(item(3L, "Monitor", 1, "300.00")), now.minusHours(2), 1);
+        index.record(List.of(item(1L, "Mouse", 10, "20.00")), now.minusDays(3), 1);
+
+        // When
+        List<ProductSales> top = index.topProducts(Duration.ofDays(1), 2);
+
+        // Then
+        assertThat(top).extracting(ProductSales::productId).containsExactly(2L, 1L);
+        assertThat(top.get(0).unitsSold()).isEqualTo(4);
+        assertThat(top.get(0).revenue()).isEqualByComparingTo("320.00");
+        assertThat(top.get(0).productName()).isEqualTo("Keyboard");
+    }
+
+    @Test
+    void record_Cancellation_ShouldSubtractFromOrderBucket() {
+        // Given
+        index.record(List.of(item(1L, "Mouse", 2, "20.00"), item(2L, "Keyboard", 1, "80.00")), now, 1);
+
+        // When
+        index.record(List.of(item(1L, "Mouse", 2, "20.00")), now, -1);
+
+        // Then
+        assertThat(index.topProducts(Duration.ofDays(1), 10)).extracting(ProductSales::productId).containsExactly(2L);
+    }
+
+    @Test
+    void topProducts_WithWindowBeyondRetention_ShouldThrow() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> index.topProducts(Duration.ofDays(31), 10));
+    }
+
+    @Test
+    void flush_ShouldWriteDeltasOnceAndInsertMissingBuckets() {
+        // Given
+        LocalDateTime bucketStart = now.truncatedTo(ChronoUnit.HOURS);
+        index.record(List.of(item(1L, "Mouse", 2, "20.00")), now, 1);
+        index.record(List.of(item(1L, "Mouse", 1, "20.00")), now, 1);
+        when(repository.increment(eq(1L), eq(bucketStart), eq("Mouse"), eq(3L), any())).thenReturn(0);
+
+        // When
+        index.flush();
+        index.flush();
+
+        // Then
+        verify(repository, times(1)).increment(anyLong(), any(), any(), anyLong(), any());
+        verify(repository).save(argThat(bucket -> bucket.getId().getProductId().equals(1L)
+            && bucket.getUnitsSold() == 3 && bucket.getRevenue().compareTo(new BigDecimal("60.00")) == 0));
+    }
+
+    @Test
+    void flush_WhenWriteFails_ShouldKeepDeltasForNextFlush() {
+        // Given
+        index.record(List.of(item(1L, "Mouse", 2, "20.00")), now, 1);
+        when(repository.increment(anyLong(), any(), any(), anyLong(), any()))
+            .thenThrow(new QueryTimeoutException("timeout"))
+            .thenReturn(1);
+
+        // When
+        index.flush();
+        index.flush();
+
+        // Then
+        verify(repository, times(2)).increment(eq(1L), any(), eq("Mouse"), eq(2L), any());
+    }
+
+    @Test
+    void load_ShouldRestorePersistedBuckets() {
+        // Given
+        when(repository.findSince(any())).thenReturn(List.of(new ProductSalesBucket(
+            new ProductSalesBucket.Key(5L, now.truncatedTo(ChronoUnit.HOURS)), "Webcam", 7, new BigDecimal("350.00"))));
+
+        // When
+        index.load();
+        index.load();
+
+        // Then
+        List<ProductSales> top = index.topProducts(Duration.ofDays(1), 10);
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).unitsSold()).isEqualTo(7);
+    }
+
+    @Test
+    void reload_ShouldTakeInOtherInstancesFlushesAndKeepUnflushedDeltas() {
+        // Given: another instance flushed 7 units of the bucket this one has 2 unflushed units in
+        LocalDateTime bucketStart = now.truncatedTo(ChronoUnit.HOURS);
+        index.record(List.of(item(5L, "Webcam", 2, "50.00")), now, 1);
+        when(repository.findSince(any())).thenReturn(
+            List.of(new ProductSalesBucket(new ProductSalesBucket.Key(5L, bucketStart), "Webcam", 7, new BigDecimal("350.00"))),
+            List.of(new ProductSalesBucket(new ProductSalesBucket.Key(5L, bucketStart), "Webcam", 10, new BigDecimal("500.00"))));
+
+        // When
+        index.reload();
+        long afterFirst = index.topProducts(Duration.ofDays(1), 10).get(0).unitsSold();
+        index.reload();
+
+        // Then
+        assertThat(afterFirst).isEqualTo(9);
+        assertThat(index.topProducts(Duration.ofDays(1), 10).get(0).unitsSold()).isEqualTo(12);
+    }
+
+    @Test
+    void reload_ShouldDeleteBucketsPastTheRetention() {
+        // Given
+        when(repository.deleteBefore(any())).thenReturn(3);
+
+        // When
+        index.reload();
+
+        // Then
+        LocalDateTime cutoff = now.minusDays(30).truncatedTo(ChronoUnit.HOURS);
+        verify(repository).deleteBefore(argThat(before -> !before.isBefore(cutoff) && before.isBefore(cutoff.plusHours(2))));
+        verify(repository).findSince(any());
+    }
+
+    private static OrderItem item(Long productId, String name, int quantity, String unitPrice) {
+        return new OrderItem(productId, name, quantity, new BigDecimal(unitPrice));
+    }
+}
@@ -0,0 +1,213 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.RevenueBucket;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.RevenueRollup;
+import com.ecommerce.orderservice.repository.ArchivedOrderRepository;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import com.ecommerce.orderservice.repository.RevenueRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RevenueRollupServiceTest {
+
+    private static final LocalDateTime ORDER_DATE = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    @Mock
+    private RevenueRollupRepository rollupRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @InjectMocks
+    private RevenueRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rollupService, "shardRouting", new ShardRouting(1, 16));
+    }
+
+    @Test
+    void recordCreated_ShouldIncrementHourAndDayBuckets() {
+        // Given
+        when(rollupRepository.increment(any(), any(), any(), anyLong(), any())).thenReturn(1);
+        Order order = new Order(123L, new BigDecimal("149.98"), "123 Test St, Test City, TC 12345");
+        order.setOrderDate(ORDER_DATE);
+
+        // When
+        rollupService.recordCreated(order);
+
+        // Then
+        verify(rollupRepository).increment(RevenueRollup.Granularity.HOUR, LocalDateTime.of(2024, 1, 15, 10, 0),
+            Order.OrderStatus.PENDING, 1, new BigDecimal("149.98"));
+        verify(rollupRepository).increment(RevenueRollup.Granularity.DAY, LocalDateTime.of(2024, 1, 15, 0, 0),
+            Order.OrderStatus.PENDING, 1, new BigDecimal("149.98"));
+    }
+
+    @Test
+    void recordChange_ShouldMoveOrderBetweenStatusRowsOfItsBucket() {
+        // Given
+        when(rollupRepository.increment(any(), any(), any(), anyLong(), any())).thenReturn(1);
+
+        // When
+        rollupService.recordChange(ORDER_DATE, Order.OrderStatus.CONFIRMED, new BigDecimal("50.00"),
+            Order.OrderStatus.CANCELLED, new BigDecimal("50.00"));
+
+        // Then
+        verify(rollupRepository).increment(RevenueRollup.Granularity.DAY, LocalDateTime.of(2024, 1, 15, 0, 0),
+            Order.OrderStatus.CONFIRMED, -1, new BigDecimal("-50.00"));
+        verify(rollupRepository).increment(RevenueRollup.Granularity.DAY, LocalDateTime.of(2024, 1, 15, 0, 0),
+            Order.OrderStatus.CANCELLED, 1, new BigDecimal("50.00"));
+    }
+
+    @Test
+    void ensureBuckets_ShouldInsertMissingRowsOnlyOnce() {
+        // Given
+        when(rollupRepository.existsById(any())).thenReturn(false);
+
+        // When
+        rollupService.ensureBuckets(ORDER_DATE, Order.OrderStatus.PENDING);
+        rollupService.ensureBuckets(ORDER_DATE.plusMinutes(10), Order.OrderStatus.PENDING);
+
+        // Then
+        verify(rollupRepository).insertEmpty("HOUR", LocalDateTime.of(2024, 1, 15, 10, 0), "PENDING");
+        verify(rollupRepository).insertEmpty("DAY", LocalDateTime.of(2024, 1, 15, 0, 0), "PENDING");
+        verify(rollupRepository, times(2)).existsById(any());
+    }
+
+    @Test
+    void getRevenue_ShouldCombineStatusRowsIntoBuckets() {
+        // Given
+        LocalDateTime day = LocalDateTime.of(2024, 1, 15, 0, 0);
+        when(rollupRepository.findRange(RevenueRollup.Granularity.DAY, day, day.plusDays(1))).thenReturn(List.of(
+            rollup(day, Order.OrderStatus.DELIVERED, 3, "300.00"),
+            rollup(day, Order.OrderStatus.CANCELLED, 1, "40.00")));
+
+        // When
+        List<RevenueBucket> buckets = rollupService.getRevenue(RevenueRollup.Granularity.DAY, day, day.plusDays(1));
+
+        // Then
+        assertThat(buckets).hasSize(1);
+        RevenueBucket bucket = buckets.get(0);
+        assertThat(bucket.bucketStart()).isEqualTo(day);
+        assertThat(bucket.orderCount()).isEqualTo(4);
+        assertThat(bucket.grossAmount()).isEqualByComparingTo("340.00");
+        assertThat(bucket.cancelledCount()).isEqualTo(1);
+        assertThat(bucket.netAmount()).isEqualByComparingTo("300.00");
+        assertThat(bucket.statusCounts()).containsEntry(Order.OrderStatus.DELIVERED, 3L);
+    }
+
+    @Test
+    void getRevenue_WithSeveralShards_ShouldSumTheirRollups() {
+        // Given
+        ReflectionTestUtils.setField(rollupService, "shardRouting", new ShardRouting(2, 16));
+        LocalDateTime day = LocalDateTime.of(2024, 1, 15, 0, 0);
+        when(rollupRepository.findRange(RevenueRollup.Granularity.DAY, day, day.plusDays(1))).thenReturn(List.of(
+            rollup(day, Order.OrderStatus.DELIVERED, 3, "300.00"),
+            rollup(day, Order.OrderStatus.CANCELLED, 1, "40.00")));
+
+        // When
+        List<RevenueBucket> buckets = rollupService.getRevenue(RevenueRollup.Granularity.DAY, day, day.plusDays(1));
+
+        // Then
+        verify(rollupRepository, times(2)).findRange(RevenueRollup.Granularity.DAY, day, day.plusDays(1));
+        assertThat(buckets).hasSize(1);
+        assertThat(buckets.get(0).orderCount()).isEqualTo(8);
+        assertThat(buckets.get(0).cancelledCount()).isEqualTo(2);
+        assertThat(buckets.get(0).netAmount()).isEqualByComparingTo("600.00");
+        assertThat(buckets.get(0).statusCounts()).containsEntry(Order.OrderStatus.DELIVERED, 6L);
+    }
+
+    @Test
+    void backfill_ShouldRollHoursUpIntoDays() {
+        // Given: a stale day row and a row whose orders are gone
+        RevenueRollup staleDay = rollup(LocalDateTime.of(2024, 1, 15, 0, 0), Order.OrderStatus.DELIVERED, 9, "900.00");
+        RevenueRollup emptied = rollup(LocalDateTime.of(2024, 1, 14, 0, 0), Order.OrderStatus.DELIVERED, 1, "10.00");
+        when(rollupRepository.findAllForUpdate()).thenReturn(List.of(staleDay, emptied));
+        when(orderRepository.findHourlyRevenueTotals()).thenReturn(List.of(
+            hourly(LocalDate.of(2024, 1, 15), 9, Order.OrderStatus.DELIVERED, 2, "100.00"),
+            hourly(LocalDate.of(2024, 1, 15), 14, Order.OrderStatus.DELIVERED, 1, "25.00")));
+
+        // When
+        int rows = rollupService.backfill();
+
+        // Then
+        assertThat(rows).isEqualTo(4);
+        assertThat(staleDay.getOrderCount()).isEqualTo(3);
+        assertThat(staleDay.getGrossAmount()).isEqualByComparingTo("125.00");
+        assertThat(emptied.getOrderCount()).isZero();
+        assertThat(emptied.getGrossAmount()).isEqualByComparingTo("0");
+        verify(rollupRepository).insert("HOUR", LocalDateTime.of(2024, 1, 15, 9, 0), "DELIVERED", 2, new BigDecimal("100.00"));
+        verify(rollupRepository).insert("HOUR", LocalDateTime.of(2024, 1, 15, 14, 0), "DELIVERED", 1, new BigDecimal("25.00"));
+        verify(rollupRepository, never()).insert(eq("DAY"), any(), any(), anyLong(), any());
+        verify(rollupRepository, never()).deleteAllInBatch();
+    }
+
+    @Test
+    void backfill_ShouldLockRollupRowsBeforeReadingTotals() {
+        // When
+        rollupService.backfill();
+
+        // Then
+        InOrder inOrder = inOrder(rollupRepository, orderRepository, archivedOrderRepository);
+        inOrder.verify(rollupRepository).findAllForUpdate();
+        inOrder.verify(orderRepository).findHourlyRevenueTotals();
+        inOrder.verify(archivedOrderRepository).findHourlyRevenueTotals();
+    }
+
+    @Test
+    void recordCreated_WithBucketRowMissing_ShouldCreateItInsteadOfDroppingTheRevenue() {
+        // Given: the row was cached as known, then deleted by a backfill elsewhere
+        when(rollupRepository.existsById(any())).thenReturn(true);
+        rollupService.ensureBuckets(ORDER_DATE, Order.OrderStatus.PENDING);
+        Order order = new Order(123L, new BigDecimal("149.98"), "123 Test St, Test City, TC 12345");
+        order.setOrderDate(ORDER_DATE);
+        when(rollupRepository.increment(eq(RevenueRollup.Granularity.HOUR), any(), any(), anyLong(), any())).thenReturn(0);
+        when(rollupRepository.increment(eq(RevenueRollup.Granularity.DAY), any(), any(), anyLong(), any())).thenReturn(1);
+
+        // When
+        rollupService.recordCreated(order);
+        rollupService.ensureBuckets(ORDER_DATE, Order.OrderStatus.PENDING);
+
+        // Then
+        verify(rollupRepository).insert("HOUR", LocalDateTime.of(2024, 1, 15, 10, 0), "PENDING", 1, new BigDecimal("149.98"));
+        verify(rollupRepository, never()).insert(eq("DAY"), any(), any(), anyLong(), any());
+        verify(rollupRepository, times(3)).existsById(any());
+    }
+
+    private static RevenueRollup rollup(LocalDateTime bucketStart, Order.OrderStatus status, long count, String amount) {
+        RevenueRollup rollup = new RevenueRollup(new RevenueRollup.Key(RevenueRollup.Granularity.DAY, bucketStart, status));
+        rollup.add(count, new BigDecimal(amount));
+        return rollup;
+    }
+
+    private static OrderRepository.HourlyRevenueView hourly(LocalDate day, int hour, Order.OrderStatus status,
+                                                           long count, String amount) {
+        return new OrderRepository.HourlyRevenueView() {
+            public LocalDate getOrderDay() { return day; }
+            public Integer getHourOfDay() { return hour; }
+            public Order.OrderStatus getStatus() { return status; }
+            public Long getOrderCount() { return count; }
+            public BigDecimal getTotalAmount() { return new BigDecimal(amount); }
+        };
+    }
+}
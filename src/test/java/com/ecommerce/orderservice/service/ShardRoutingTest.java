@@ -0,0 +1,113 @@
+package com.ecommerce.orderservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ShardRoutingTest {
+
+    private static final int USERS = 100_000;
+
+    @Test
+    void shardForUser_ShouldSpreadUsersEvenlyOverShards() {
+        // Given
+        ShardRouting routing = new ShardRouting(4, 160);
+        int[] users = new int[4];
+
+        // When
+        for (long userId = 1; userId <= USERS; userId++) {
+            users[routing.shardForUser(userId)]++;
+        }
+
+        // Then
+        for (int shard = 0; shard < 4; shard++) {
+            assertThat(users[shard]).isBetween(USERS / 4 * 70 / 100, USERS / 4 * 130 / 100);
+        }
+    }
+
+    @Test
+    void shardForUser_AfterAddingShard_ShouldMoveOnlyUsersToTheNewShard() {
+        // Given
+        ShardRouting four = new ShardRouting(4, 160);
+        ShardRouting five = new ShardRouting(5, 160);
+        int moved = 0;
+
+        // When
+        for (long userId = 1; userId <= USERS; userId++) {
+            int before = four.shardForUser(userId);
+            int after = five.shardForUser(userId);
+            if (before != after) {
+                assertThat(after).isEqualTo(4);
+                moved++;
+            }
+        }
+
+        // Then: about a fifth of the users, not most of them as with modulo hashing
+        assertThat(moved).isBetween(USERS * 14 / 100, USERS * 26 / 100);
+    }
+
+    @Test
+    void encode_ShouldKeepShardInOrderId() {
+        // When
+        long orderId = ShardRouting.encode(12345, 3);
+
+        // Then
+        assertThat(ShardRouting.shardOf(orderId)).isEqualTo(3);
+        assertThat(ShardRouting.encode(12346, 3)).isGreaterThan(orderId);
+    }
+
+    @Test
+    void forOrder_ShouldRunOnTheShardInItsId() {
+        // Given
+        ShardRouting routing = new ShardRouting(4, 160);
+
+        // When
+        int shard = routing.forOrder(ShardRouting.encode(7, 2), ShardRouting::currentShard);
+
+        // Then
+        assertThat(shard).isEqualTo(2);
+        assertThat(ShardRouting.currentShard()).isEqualTo(ShardRouting.HOME_SHARD);
+    }
+
+    @Test
+    void forOrder_WithShardThatDoesNotExist_ShouldThrowNotFound() {
+        // Given
+        ShardRouting routing = new ShardRouting(4, 160);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> routing.forOrder(ShardRouting.encode(7, 9), () -> "unreachable"));
+        assertThat(exception.getMessage()).isEqualTo("Order not found");
+    }
+
+    @Test
+    void scatter_ShouldRunOnEveryShardInOrder() {
+        // Given
+        ShardRouting routing = new ShardRouting(4, 160);
+
+        // When
+        List<Integer> shards = routing.scatter(ShardRouting::currentShard);
+
+        // Then
+        assertThat(shards).containsExactlyElementsOf(IntStream.range(0, 4).boxed().toList());
+    }
+
+    @Test
+    void scatter_ShouldRethrowFailureOfAnyShard() {
+        // Given
+        ShardRouting routing = new ShardRouting(4, 160);
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> routing.scatter(() -> {
+            if (ShardRouting.currentShard() == 3) {
+                throw new IllegalStateException("shard 3 down");
+            }
+            return 1;
+        }));
+        assertThat(exception.getMessage()).isEqualTo("shard 3 down");
+    }
+}
@@ -0,0 +1,207 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.UserOrderSummary;
+import com.ecommerce.orderservice.repository.ArchivedOrderRepository;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import com.ecommerce.orderservice.repository.UserOrderSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserOrderSummaryServiceTest {
+
+    @Mock
+    private UserOrderSummaryRepository summaryRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @InjectMocks
+    private UserOrderSummaryService summaryService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(summaryService, "transactionTemplate",
+            new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(summaryService, "rebuildBatchSize", 500);
+    }
+
+    @Test
+    void recordCreated_ShouldCountOrderAndAddSpend() {
+        // Given
+        UserOrderSummary summary = new UserOrderSummary(123L);
+        when(summaryRepository.findForUpdate(123L)).thenReturn(Optional.of(summary));
+        Order order = new Order(123L, new BigDecimal("149.98"), "123 Test St, Test City, TC 12345");
+
+        // When
+        summaryService.recordCreated(order);
+
+        // Then
+        assertThat(summary.getOrderCount()).isEqualTo(1);
+        assertThat(summary.getStatusCount(Order.OrderStatus.PENDING)).isEqualTo(1);
+        assertThat(summary.getTotalSpend()).isEqualByComparingTo("149.98");
+        assertThat(summary.getLastOrderDate()).isEqualTo(order.getOrderDate());
+    }
+
+    @Test
+    void recordChange_ToCancelled_ShouldMoveCountAndDropSpend() {
+        // Given
+        UserOrderSummary summary = new UserOrderSummary(123L);
+        summary.addOrders(Order.OrderStatus.CONFIRMED, 2, new BigDecimal("300.00"), LocalDateTime.now());
+        when(summaryRepository.findForUpdate(123L)).thenReturn(Optional.of(summary));
+
+        // When
+        summaryService.recordChange(123L, Order.OrderStatus.CONFIRMED, new BigDecimal("100.00"),
+            Order.OrderStatus.CANCELLED, new BigDecimal("100.00"));
+
+        // Then
+        assertThat(summary.getOrderCount()).isEqualTo(2);
+        assertThat(summary.getStatusCount(Order.OrderStatus.CONFIRMED)).isEqualTo(1);
+        assertThat(summary.getStatusCount(Order.OrderStatus.CANCELLED)).isEqualTo(1);
+        assertThat(summary.getTotalSpend()).isEqualByComparingTo("200.00");
+    }
+
+    @Test
+    void recordChange_WithoutSummaryRow_ShouldCreateOne() {
+        // Given
+        when(summaryRepository.findForUpdate(123L)).thenReturn(Optional.empty());
+        when(summaryRepository.save(any(UserOrderSummary.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        summaryService.recordChange(123L, Order.OrderStatus.PENDING, BigDecimal.ZERO,
+            Order.OrderStatus.CONFIRMED, BigDecimal.TEN);
+
+        // Then
+        verify(summaryRepository).save(argThat(summary -> summary.getUserId().equals(123L)));
+    }
+
+    @Test
+    void ensureSummary_CreatedConcurrently_ShouldIgnoreDuplicate() {
+        // Given
+        when(summaryRepository.existsById(123L)).thenReturn(false);
+        when(summaryRepository.insertEmpty(123L)).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // When
+        summaryService.ensureSummary(123L);
+
+        // Then
+        verify(summaryRepository).insertEmpty(123L);
+    }
+
+    @Test
+    void ensureSummary_WithExistingRow_ShouldNotInsert() {
+        // Given
+        when(summaryRepository.existsById(123L)).thenReturn(true);
+
+        // When
+        summaryService.ensureSummary(123L);
+
+        // Then
+        verify(summaryRepository, never()).insertEmpty(anyLong());
+    }
+
+    @Test
+    void rebuild_ShouldOverwriteLockedSummariesWithTotalsFromOrders() {
+        // Given
+        LocalDateTime latest = LocalDateTime.now();
+        UserOrderSummary drifted = new UserOrderSummary(100L);
+        drifted.addOrders(Order.OrderStatus.PENDING, 7, new BigDecimal("999.00"), latest.minusDays(9));
+        UserOrderSummary user200 = new UserOrderSummary(200L);
+        when(summaryRepository.lockBatchAfter(eq(Long.MIN_VALUE), any())).thenReturn(List.of(drifted, user200));
+        when(orderRepository.findUserStatusTotals(Set.of(100L, 200L))).thenReturn(List.of(
+            totals(100L, Order.OrderStatus.DELIVERED, 2, "250.00", latest.minusDays(3)),
+            totals(100L, Order.OrderStatus.CANCELLED, 1, "40.00", latest),
+            totals(200L, Order.OrderStatus.PENDING, 1, "99.99", latest.minusDays(1))));
+
+        // When
+        int users = summaryService.rebuild();
+
+        // Then
+        assertThat(users).isEqualTo(2);
+        assertThat(drifted.getOrderCount()).isEqualTo(3);
+        assertThat(drifted.getStatusCount(Order.OrderStatus.PENDING)).isZero();
+        assertThat(drifted.getStatusCount(Order.OrderStatus.DELIVERED)).isEqualTo(2);
+        assertThat(drifted.getStatusCount(Order.OrderStatus.CANCELLED)).isEqualTo(1);
+        assertThat(drifted.getTotalSpend()).isEqualByComparingTo("250.00");
+        assertThat(drifted.getLastOrderDate()).isEqualTo(latest);
+        assertThat(user200.getOrderCount()).isEqualTo(1);
+        verify(summaryRepository, never()).deleteAllInBatch();
+    }
+
+    @Test
+    void rebuild_ShouldCreateMissingRowsBeforeLockingAndReadingTotals() {
+        // Given
+        when(summaryRepository.findOrderUserIdsWithoutSummary()).thenReturn(List.of(300L));
+        when(summaryRepository.findArchivedOrderUserIdsWithoutSummary()).thenReturn(List.of(400L));
+        when(summaryRepository.lockBatchAfter(eq(Long.MIN_VALUE), any()))
+            .thenReturn(List.of(new UserOrderSummary(300L), new UserOrderSummary(400L)));
+
+        // When
+        summaryService.rebuild();
+
+        // Then
+        InOrder inOrder = inOrder(summaryRepository, orderRepository);
+        inOrder.verify(summaryRepository).insertEmpty(300L);
+        inOrder.verify(summaryRepository).insertEmpty(400L);
+        inOrder.verify(summaryRepository).lockBatchAfter(eq(Long.MIN_VALUE), any());
+        inOrder.verify(orderRepository).findUserStatusTotals(Set.of(300L, 400L));
+    }
+
+    @Test
+    void rebuild_ShouldLockAndRebuildOneBatchOfUsersPerTransaction() {
+        // Given
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        ReflectionTestUtils.setField(summaryService, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(summaryService, "rebuildBatchSize", 2);
+        UserOrderSummary user300 = new UserOrderSummary(300L);
+        when(summaryRepository.lockBatchAfter(eq(Long.MIN_VALUE), any()))
+            .thenReturn(List.of(new UserOrderSummary(100L), new UserOrderSummary(200L)));
+        when(summaryRepository.lockBatchAfter(eq(200L), any())).thenReturn(List.of(user300));
+        when(orderRepository.findUserStatusTotals(Set.of(300L))).thenReturn(List.of(
+            totals(300L, Order.OrderStatus.CONFIRMED, 1, "20.00", LocalDateTime.now())));
+
+        // When
+        int users = summaryService.rebuild();
+
+        // Then
+        assertThat(users).isEqualTo(3);
+        assertThat(user300.getOrderCount()).isEqualTo(1);
+        verify(summaryRepository, times(2)).lockBatchAfter(anyLong(), argThat(page -> page.getPageSize() == 2));
+        verify(orderRepository).findUserStatusTotals(Set.of(100L, 200L));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    private static OrderRepository.UserStatusTotalsView totals(Long userId, Order.OrderStatus status, long count,
+                                                               String amount, LocalDateTime lastOrderDate) {
+        return new OrderRepository.UserStatusTotalsView() {
+            public Long getUserId() { return userId; }
+            public Order.OrderStatus getStatus() { return status; }
+            public Long getOrderCount() { return count; }
+            public BigDecimal getTotalAmount() { return new BigDecimal(amount); }
+            public LocalDateTime getLastOrderDate() { return lastOrderDate; }
+        };
+    }
+}
@@ -7,6 +7,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -247,4 +249,55 @@ public class TelemetryClientTest {
         // Then - Main thread should still have its trace ID
         assertThat(TelemetryClient.TraceContext.getTraceId()).isEqualTo("main-thread-trace");
     }
+
+    @Test
+    void traceContext_current_ShouldCaptureActiveSpan() {
+        // Given
+        String traceId = telemetryClient.startTrace("create_order", "POST", "http://localhost/api/orders", "user123");
+
+        // When
+        TelemetryClient.TraceSpan span = TelemetryClient.TraceContext.current();
+
+        // Then
+        assertThat(span).isNotNull();
+        assertThat(span.traceId()).isEqualTo(traceId);
+        assertThat(span.spanId()).isEqualTo(TelemetryClient.TraceContext.getSpanId());
+        assertThat(span.startTime()).isNotNull();
+    }
+
+    @Test
+    void traceContext_current_WithoutActiveTrace_ShouldReturnNull() {
+        // When & Then
+        assertThat(TelemetryClient.TraceContext.current()).isNull();
+    }
+
+    @Test
+    void withSpan_ShouldCarryAssemblingThreadSpanIntoInnerPublishers() {
+        // Given
+        TelemetryClient.TraceContext.propagate("reactive-trace", "reactive-span");
+        Mono<String> pipeline = TelemetryClient.withSpan(outer ->
+            Mono.just("ignored")
+                .publishOn(Schedulers.parallel())
+                .flatMap(value -> TelemetryClient.withSpan(inner -> Mono.just(outer.traceId() + "/" + inner.traceId()))));
+        TelemetryClient.TraceContext.clear();
+
+        // When
+        String traces = pipeline.block();
+
+        // Then
+        assertThat(traces).isEqualTo("reactive-trace/reactive-trace");
+    }
+
+    @Test
+    void finishTrace_WithExplicitSpan_ShouldNotTouchThreadContext() {
+        // Given
+        telemetryClient.startTrace("create_order", "POST", "http://localhost/api/orders", "user123");
+        TelemetryClient.TraceSpan span = TelemetryClient.TraceContext.current();
+
+        // When
+        telemetryClient.finishTrace(span, "create_order", 200, null);
+
+        // Then
+        assertThat(TelemetryClient.TraceContext.getTraceId()).isEqualTo(span.traceId());
+    }
 }
\ No newline at end of file